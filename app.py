@@ -6,7 +6,8 @@ app = Flask(__name__)
 
 limiter = Limiter(
     key_func=get_remote_address,
-    default_limits=["50 per minute"]
+    default_limits=["50 per minute"],
+    headers_enabled=True  # X-RateLimit-* and Retry-After for the tester's header timeline
 )
 limiter.init_app(app)
 
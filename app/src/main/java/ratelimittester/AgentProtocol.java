@@ -0,0 +1,221 @@
+package ratelimittester;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+// Wire format between a DistributedCoordinator and its RateLimitAgents: one
+// TCP connection per agent, each message a type byte followed by its fields
+// written with DataOutputStream. A session is
+//
+//   coordinator                      agent
+//   VERSION, TOKEN(text)      ->                                 (ERROR and close if wrong)
+//   SYNC(t0)                  ->
+//                             <-     SYNC_REPLY(agent clock)     (repeated)
+//   CONFIG(properties)        ->
+//   START(agent clock)        ->
+//                             <-     PROGRESS(counts)            (every second)
+//                             <-     RATE_LIMITED                (first 429)
+//   STOP                      ->                                 (any agent saw a 429)
+//                             <-     RESULT(...) or ERROR(text)
+final class AgentProtocol {
+
+    static final int DEFAULT_PORT = 7070;
+    static final int VERSION = 6;
+    // The shared secret, when not given on the command line
+    static final String TOKEN_ENV = "RATELIMIT_AGENT_TOKEN";
+    // Read before the peer is trusted, so kept short
+    private static final int MAX_TOKEN_BYTES = 256;
+    // Report sections are summaries; far more lines than any of them prints
+    private static final int MAX_LINES = 100_000;
+
+    static final byte SYNC = 1;
+    static final byte SYNC_REPLY = 2;
+    static final byte CONFIG = 3;
+    static final byte START = 4;
+    static final byte STOP = 5;
+    static final byte PROGRESS = 6;
+    static final byte RATE_LIMITED = 7;
+    static final byte RESULT = 8;
+    static final byte ERROR = 9;
+
+    private AgentProtocol() {
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > 64 << 20) {
+            throw new IOException("Bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static String readToken(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_TOKEN_BYTES) {
+            throw new IOException("Bad token length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Constant time, so a wrong guess says nothing about the right one
+    static boolean tokenMatches(String expected, String given) {
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), given.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static void writeProperties(DataOutputStream out, Properties props) throws IOException {
+        StringWriter text = new StringWriter();
+        props.store(text, null);
+        writeString(out, text.toString());
+    }
+
+    static Properties readProperties(DataInputStream in) throws IOException {
+        Properties props = new Properties();
+        props.load(new StringReader(readString(in)));
+        return props;
+    }
+
+    static void writeLines(DataOutputStream out, List<String> lines) throws IOException {
+        out.writeInt(lines.size());
+        for (String line : lines) {
+            writeString(out, line);
+        }
+    }
+
+    static List<String> readLines(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > MAX_LINES) {
+            throw new IOException("Bad line count " + count);
+        }
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(readString(in));
+        }
+        return lines;
+    }
+
+    // Only the non-empty buckets are sent
+    static void writeHistogram(DataOutputStream out, LatencyHistogram histogram) throws IOException {
+        int used = 0;
+        for (int i = 0; i < LatencyHistogram.COUNTS_LENGTH; i++) {
+            if (histogram.countAt(i) != 0) used++;
+        }
+        out.writeInt(used);
+        for (int i = 0; i < LatencyHistogram.COUNTS_LENGTH; i++) {
+            long count = histogram.countAt(i);
+            if (count != 0) {
+                out.writeShort(i);
+                out.writeLong(count);
+            }
+        }
+        out.writeLong(histogram.count());
+        out.writeLong(histogram.totalNanos());
+        out.writeLong(histogram.maxNanos());
+    }
+
+    static LatencyHistogram readHistogram(DataInputStream in) throws IOException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int used = in.readInt();
+        if (used < 0 || used > LatencyHistogram.COUNTS_LENGTH) {
+            throw new IOException("Bad histogram size " + used);
+        }
+        for (int i = 0; i < used; i++) {
+            int index = in.readUnsignedShort();
+            if (index >= LatencyHistogram.COUNTS_LENGTH) {
+                throw new IOException("Bad histogram bucket " + index);
+            }
+            histogram.addBucket(index, in.readLong());
+        }
+        histogram.addTotals(in.readLong(), in.readLong(), in.readLong());
+        return histogram;
+    }
+
+    // One agent's run: the engine's result plus its per-second history, with
+    // second 0 starting at startMillis on the agent's clock
+    static void writeResult(DataOutputStream out, TestResult result, long startMillis,
+                            long[] history, int rows) throws IOException {
+        out.writeLong(result.successCount());
+        out.writeLong(result.rateLimitedCount());
+        out.writeLong(result.otherErrors());
+        writeHistogram(out, result.successLatency());
+        writeHistogram(out, result.rateLimitedLatency());
+        writeHistogram(out, result.otherLatency());
+        out.writeDouble(result.estimatedRpm());
+        out.writeLong(result.durationMs());
+        out.writeLong(result.setupNanos());
+        out.writeLong(result.teardownNanos());
+        writeLines(out, result.scheduleReport());
+        writeLines(out, result.resourceReport());
+        writeLines(out, result.endpointReport());
+        writeLines(out, result.bodyReport());
+        writeLines(out, result.limitReport());
+        out.writeLong(startMillis);
+        out.writeInt(rows);
+        for (int i = 0; i < rows * TimeSeriesCounters.FIELDS; i++) {
+            out.writeLong(history[i]);
+        }
+    }
+
+    static AgentResult readResult(DataInputStream in, TestConfig config) throws IOException {
+        long success = in.readLong();
+        long rateLimited = in.readLong();
+        long other = in.readLong();
+        LatencyHistogram successLatency = readHistogram(in);
+        LatencyHistogram rateLimitedLatency = readHistogram(in);
+        LatencyHistogram otherLatency = readHistogram(in);
+        double estimatedRpm = in.readDouble();
+        long durationMs = in.readLong();
+        long setupNanos = in.readLong();
+        long teardownNanos = in.readLong();
+        List<String> scheduleReport = readLines(in);
+        List<String> resourceReport = readLines(in);
+        List<String> endpointReport = readLines(in);
+        List<String> bodyReport = readLines(in);
+        List<String> limitReport = readLines(in);
+        long startMillis = in.readLong();
+        int rows = in.readInt();
+        if (rows < 0 || rows > LoadTestEngine.HISTORY_SECONDS) {
+            throw new IOException("Bad history length " + rows);
+        }
+        long[] history = new long[rows * TimeSeriesCounters.FIELDS];
+        for (int i = 0; i < history.length; i++) {
+            history[i] = in.readLong();
+        }
+        TestResult result = new TestResult(config, success, rateLimited, other,
+                successLatency, rateLimitedLatency, otherLatency, estimatedRpm, durationMs,
+                setupNanos, teardownNanos, scheduleReport, List.of(), resourceReport, List.of(), endpointReport,
+                bodyReport, limitReport);
+        return new AgentResult(result, startMillis, history, rows);
+    }
+
+    static final class AgentResult {
+        final TestResult result;
+        final long startMillis;
+        final long[] history;
+        final int rows;
+
+        AgentResult(TestResult result, long startMillis, long[] history, int rows) {
+            this.result = result;
+            this.startMillis = startMillis;
+            this.history = history;
+            this.rows = rows;
+        }
+    }
+}
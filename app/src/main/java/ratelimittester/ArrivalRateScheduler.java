@@ -0,0 +1,120 @@
+package ratelimittester;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-model schedule: request i is due at a fixed offset from the start of
+// the run, computed from the target rate and the run's load stages (a ramp,
+// steps), never from when earlier responses arrived. Users claim the next
+// slot, park until it is due and send. If every user is busy when a slot
+// falls due, the slot stays unclaimed and counts as backlog.
+public class ArrivalRateScheduler {
+
+    private static final long LATE_THRESHOLD_NANOS = 1_000_000;
+
+    private final double targetRatePerSec;
+    private final LoadStages stages;
+    private final long totalRequests;
+
+    private final AtomicLong nextSlot = new AtomicLong();
+    private final LongAdder totalLagNanos = new LongAdder();
+    private final LongAdder lateSends = new LongAdder();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private final AtomicLong peakBacklog = new AtomicLong();
+    private final AtomicLong lastSendNanos = new AtomicLong();
+    private volatile long startNanos;
+
+    ArrivalRateScheduler(double targetRatePerSec, LoadStages stages, long totalRequests) {
+        if (targetRatePerSec <= 0) {
+            throw new IllegalArgumentException("Target rate must be positive");
+        }
+        this.targetRatePerSec = targetRatePerSec;
+        this.stages = stages;
+        this.totalRequests = totalRequests;
+    }
+
+    // Slots due within the first seconds of a schedule, for timed runs
+    static long slotsWithin(double targetRatePerSec, LoadStages stages, double seconds) {
+        return (long) Math.ceil(targetRatePerSec * stages.levelSeconds(seconds));
+    }
+
+    public void start() {
+        startNanos = System.nanoTime();
+    }
+
+    public double targetRate() {
+        return targetRatePerSec;
+    }
+
+    // Returns the next slot index, or -1 once the schedule is exhausted.
+    public long claim() {
+        long slot = nextSlot.getAndIncrement();
+        if (slot >= totalRequests) {
+            return -1;
+        }
+        long due = slotsDueBy(System.nanoTime() - startNanos);
+        long backlog = Math.min(due, totalRequests) - slot - 1;
+        if (backlog > 0) {
+            peakBacklog.accumulateAndGet(backlog, Math::max);
+        }
+        return slot;
+    }
+
+    // Nanosecond timestamp at which the slot is due to be sent.
+    public long scheduledTime(long slot) {
+        return startNanos + offsetNanos(slot);
+    }
+
+    // Parks until the slot is due and returns its scheduled send time.
+    public long awaitSlot(long slot) throws InterruptedException {
+        long due = scheduledTime(slot);
+        long now;
+        while ((now = System.nanoTime()) < due) {
+            LockSupport.parkNanos(due - now);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        long lag = now - due;
+        totalLagNanos.add(lag);
+        if (lag > LATE_THRESHOLD_NANOS) {
+            lateSends.increment();
+        }
+        maxLagNanos.accumulateAndGet(lag, Math::max);
+        lastSendNanos.accumulateAndGet(now, Math::max);
+        return due;
+    }
+
+    private long offsetNanos(long slot) {
+        return (long) (stages.secondsAt(slot / targetRatePerSec) * 1e9);
+    }
+
+    private long slotsDueBy(long elapsedNanos) {
+        if (elapsedNanos < 0) return 0;
+        return (long) (targetRatePerSec * stages.levelSeconds(elapsedNanos / 1e9)) + 1;
+    }
+
+    public List<String> report() {
+        List<String> lines = new ArrayList<>();
+        long sent = Math.min(nextSlot.get(), totalRequests);
+        double elapsedSec = (lastSendNanos.get() - startNanos) / 1e9;
+        double steadySec = elapsedSec - stages.lastStageStartSeconds();
+        long steadySent = (long) (sent - targetRatePerSec * stages.levelSeconds(stages.lastStageStartSeconds()));
+        lines.add(String.format("Target Arrival Rate: %.1f req/s%s", targetRatePerSec, stages.summary()));
+        if (steadySec > 0 && steadySent > 1) {
+            lines.add(String.format("Achieved Send Rate: %.1f req/s", (steadySent - 1) / steadySec));
+        }
+        long lagged = Math.max(1, sent);
+        lines.add(String.format("Send Lag (actual - scheduled): mean %.2f ms, max %.2f ms, %d sends >1 ms late",
+                totalLagNanos.sum() / 1e6 / lagged, maxLagNanos.get() / 1e6, lateSends.sum()));
+        lines.add("Peak Backlog (due but unsent): " + peakBacklog.get());
+        if (peakBacklog.get() > 0) {
+            lines.add("[!] Target rate was not sustained: every user was busy when requests fell due. "
+                    + "Add users or connections, or lower the rate.");
+        }
+        return lines;
+    }
+}
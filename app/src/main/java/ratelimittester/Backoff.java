@@ -0,0 +1,52 @@
+package ratelimittester;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// How long a simulated user waits after a 429 before its next request, when
+// the run continues through 429s. Each user keeps its own count of
+// consecutive 429s.
+public enum Backoff {
+    NONE("None"),
+    FIXED("Fixed"),
+    // base * 2^(n-1), capped, with the upper half randomized so users that
+    // were limited together do not come back together
+    EXPONENTIAL("Exponential + jitter"),
+    // Retry-After or X-RateLimit-Reset, capped; the base wait without them
+    RETRY_AFTER("Honor Retry-After");
+
+    private final String label;
+
+    Backoff(String label) {
+        this.label = label;
+    }
+
+    // consecutive counts the 429 just received, so it starts at 1
+    public long waitMillis(int consecutive, RateLimitHeaders headers, long nowMillis, long baseMillis, long maxMillis) {
+        return switch (this) {
+            case NONE -> 0;
+            case FIXED -> baseMillis;
+            case EXPONENTIAL -> {
+                long cap = Math.min(maxMillis, baseMillis << Math.min(consecutive - 1, 30));
+                yield cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1);
+            }
+            case RETRY_AFTER -> {
+                long wait = headers.suggestedWaitMillis(nowMillis);
+                yield Math.min(maxMillis, wait >= 0 ? wait : baseMillis);
+            }
+        };
+    }
+
+    public static Backoff fromLabel(String label) {
+        for (Backoff backoff : values()) {
+            if (backoff.label.equalsIgnoreCase(label) || backoff.name().equalsIgnoreCase(label)) {
+                return backoff;
+            }
+        }
+        throw new IllegalArgumentException("Unknown backoff: " + label);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
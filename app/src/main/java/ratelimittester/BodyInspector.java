@@ -0,0 +1,279 @@
+package ratelimittester;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+
+// Looks at response bodies while they stream in, as the run's BodyMode asks:
+// CRC32C and size of each body, a 1-in-N sample kept in a bounded ring, and
+// substring assertions on 200 bodies. Nothing but the samples is buffered;
+// assertion text is matched across chunk boundaries with Shift-And, a few
+// branch-free operations per byte. The time spent in here is measured so
+// the summary shows what inspection costs. Shared by all senders of a run,
+// with one Scan per response.
+final class BodyInspector {
+
+    // Distinct checksums counted individually; the rest are lumped together
+    private static final int MAX_CHECKSUMS = 16;
+    private static final int SAMPLE_PREVIEW_CHARS = 160;
+    // One bit per needle byte in the Shift-And state
+    static final int MAX_ASSERTION_BYTES = 64;
+    // The kept samples are printed in the summary, and each sampled body
+    // allocates its sample up front
+    static final int MAX_SAMPLES_KEPT = 1000;
+    static final int MAX_SAMPLE_BYTES = 1 << 20;
+    // Masks of an unset needle: its state stays 0
+    private static final long[] NO_MASKS = new long[256];
+
+    private final BodyMode mode;
+    private final int sampleEvery;
+    private final int sampleMaxBytes;
+    private final byte[] mustContain;
+    private final byte[] mustNotContain;
+    private final long[] mustContainMasks;
+    private final long[] mustNotContainMasks;
+    // The state bit meaning the needle has been seen, 0 when unset
+    private final long mustContainFound;
+    private final long mustNotContainFound;
+
+    private final LongAdder bodies = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder assertionFailures = new LongAdder();
+    private final AtomicLong largest = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Integer, LongAdder> checksums = new ConcurrentHashMap<>();
+    private final LongAdder otherChecksums = new LongAdder();
+    private final Sample[] ring;
+    private long samplesTaken;
+    private volatile String firstFailure;
+
+    BodyInspector(TestConfig config) {
+        this.mode = config.getBodyMode();
+        this.sampleEvery = config.getBodySampleEvery();
+        this.sampleMaxBytes = config.getBodySampleBytes();
+        this.mustContain = bytesOrNull(config.getBodyContains());
+        this.mustNotContain = bytesOrNull(config.getBodyNotContains());
+        this.mustContainMasks = masks(mustContain);
+        this.mustNotContainMasks = masks(mustNotContain);
+        this.mustContainFound = mustContain == null ? 0 : 1L << (mustContain.length - 1);
+        this.mustNotContainFound = mustNotContain == null ? 0 : 1L << (mustNotContain.length - 1);
+        this.ring = new Sample[mode == BodyMode.SAMPLE ? config.getBodySampleKeep() : 0];
+    }
+
+    boolean discards() {
+        return mode == BodyMode.DISCARD;
+    }
+
+    Scan begin(int statusCode) {
+        return new Scan(statusCode);
+    }
+
+    List<String> report() {
+        List<String> lines = new ArrayList<>();
+        if (discards()) return lines;
+        long count = bodies.sum();
+        long total = bytes.sum();
+        lines.add(String.format("Response Bodies (%s): %d bodies, %.1f KB, mean %.0f B, max %d B; %.1f ms in inspection (%.2f us per body)",
+                mode, count, total / 1024.0, count > 0 ? (double) total / count : 0, largest.get(),
+                nanos.sum() / 1e6, count > 0 ? nanos.sum() / 1e3 / count : 0));
+
+        List<Map.Entry<Integer, LongAdder>> sorted = new ArrayList<>(checksums.entrySet());
+        sorted.sort((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()));
+        StringBuilder line = new StringBuilder(String.format("  Distinct Checksums: %d%s", sorted.size(),
+                otherChecksums.sum() > 0 ? "+ (" + otherChecksums.sum() + " bodies beyond the first " + MAX_CHECKSUMS + ")" : ""));
+        for (int i = 0; i < Math.min(5, sorted.size()); i++) {
+            line.append(i == 0 ? " - " : ", ").append(String.format("%08x x%d", sorted.get(i).getKey(),
+                    sorted.get(i).getValue().sum()));
+        }
+        lines.add(line.toString());
+
+        if (mustContain != null || mustNotContain != null) {
+            lines.add(String.format("  Body Assertions: %d of the 200 bodies failed%s", assertionFailures.sum(),
+                    firstFailure != null ? " (first: " + firstFailure + ")" : ""));
+        }
+        if (ring.length > 0) {
+            List<Sample> kept = new ArrayList<>();
+            long taken;
+            synchronized (ring) {
+                taken = samplesTaken;
+                for (long i = Math.max(0, taken - ring.length); i < taken; i++) {
+                    kept.add(ring[(int) (i % ring.length)]);
+                }
+            }
+            lines.add(String.format("  Samples: every %d%s body, %d taken, last %d:", sampleEvery,
+                    sampleEvery == 1 ? "st" : "th", taken, kept.size()));
+            for (Sample sample : kept) {
+                lines.add(String.format("    #%d HTTP %d, %d B: %s", sample.number, sample.statusCode, sample.size,
+                        sample.preview()));
+            }
+        }
+        return lines;
+    }
+
+    private static byte[] bytesOrNull(String text) {
+        return text == null || text.isEmpty() ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // For each byte value, the needle positions holding it
+    private static long[] masks(byte[] needle) {
+        if (needle == null) return NO_MASKS;
+        if (needle.length > MAX_ASSERTION_BYTES) {
+            throw new IllegalArgumentException("Body assertions are limited to " + MAX_ASSERTION_BYTES + " bytes");
+        }
+        long[] masks = new long[256];
+        for (int i = 0; i < needle.length; i++) {
+            masks[needle[i] & 0xff] |= 1L << i;
+        }
+        return masks;
+    }
+
+    final class Scan {
+        private final int statusCode;
+        private final boolean asserting;
+        private final CRC32C crc = new CRC32C();
+        private long size;
+        // Shift-And: bit i is set while the last i + 1 bytes equal the
+        // start of the needle
+        private long containState;
+        private long notContainState;
+        private boolean containSeen;
+        private boolean notContainSeen;
+        private byte[] capture;
+        private int captured;
+        // Copy of a direct chunk for matching, allocated on first use
+        private byte[] scratch;
+        private long scanNanos;
+
+        private Scan(int statusCode) {
+            this.statusCode = statusCode;
+            this.asserting = statusCode == 200 && (mustContain != null || mustNotContain != null);
+            if (ring.length > 0 && sequence.getAndIncrement() % sampleEvery == 0) {
+                capture = new byte[sampleMaxBytes];
+            }
+        }
+
+        void update(ByteBuffer chunk) {
+            long start = System.nanoTime();
+            int from = chunk.position();
+            int to = chunk.limit();
+            crc.update(chunk.duplicate());
+            if (asserting) {
+                match(chunk, from, to);
+            }
+            if (capture != null && captured < capture.length) {
+                int n = Math.min(capture.length - captured, to - from);
+                chunk.get(from, capture, captured, n);
+                captured += n;
+            }
+            size += to - from;
+            scanNanos += System.nanoTime() - start;
+        }
+
+        void update(byte[] buffer, int offset, int length) {
+            update(ByteBuffer.wrap(buffer, offset, length));
+        }
+
+        long size() {
+            return size;
+        }
+
+        // Records the body and returns why its content is wrong, or null
+        String finish() {
+            long start = System.nanoTime();
+            bodies.increment();
+            bytes.add(size);
+            long max;
+            while (size > (max = largest.get()) && !largest.compareAndSet(max, size)) {
+                // retry
+            }
+            int checksum = (int) crc.getValue();
+            LongAdder counter = checksums.get(checksum);
+            if (counter == null && checksums.size() < MAX_CHECKSUMS) {
+                counter = checksums.computeIfAbsent(checksum, k -> new LongAdder());
+            }
+            if (counter != null) counter.increment(); else otherChecksums.increment();
+            if (capture != null) {
+                Sample sample = new Sample(statusCode, size, capture, captured);
+                synchronized (ring) {
+                    sample.number = samplesTaken + 1;
+                    ring[(int) (samplesTaken++ % ring.length)] = sample;
+                }
+            }
+            String failure = null;
+            if (asserting) {
+                if (mustContain != null && !containSeen) {
+                    failure = "body lacks '" + new String(mustContain, StandardCharsets.UTF_8) + "'";
+                } else if (mustNotContain != null && notContainSeen) {
+                    failure = "body contains '" + new String(mustNotContain, StandardCharsets.UTF_8) + "'";
+                }
+                if (failure != null) {
+                    assertionFailures.increment();
+                    if (firstFailure == null) firstFailure = failure;
+                }
+            }
+            nanos.add(scanNanos + System.nanoTime() - start);
+            return failure;
+        }
+
+        private void match(ByteBuffer chunk, int from, int to) {
+            byte[] bytes;
+            int offset;
+            if (chunk.hasArray()) {
+                bytes = chunk.array();
+                offset = chunk.arrayOffset();
+            } else {
+                if (scratch == null || scratch.length < to - from) scratch = new byte[Math.max(8192, to - from)];
+                chunk.get(from, scratch, 0, to - from);
+                bytes = scratch;
+                offset = -from;
+            }
+            // Both needles in one pass, so their steps overlap
+            long contain = containState;
+            long notContain = notContainState;
+            for (int i = from + offset, end = to + offset; i < end; i++) {
+                int b = bytes[i] & 0xff;
+                contain = ((contain << 1) | 1L) & mustContainMasks[b];
+                notContain = ((notContain << 1) | 1L) & mustNotContainMasks[b];
+                if (((contain & mustContainFound) | (notContain & mustNotContainFound)) != 0) {
+                    containSeen |= (contain & mustContainFound) != 0;
+                    notContainSeen |= (notContain & mustNotContainFound) != 0;
+                }
+            }
+            containState = contain;
+            notContainState = notContain;
+        }
+    }
+
+    private static final class Sample {
+        final int statusCode;
+        final long size;
+        final byte[] head;
+        final int length;
+        long number;
+
+        Sample(int statusCode, long size, byte[] head, int length) {
+            this.statusCode = statusCode;
+            this.size = size;
+            this.head = head;
+            this.length = length;
+        }
+
+        // Single line, cut short for the summary
+        String preview() {
+            String text = new String(head, 0, length, StandardCharsets.UTF_8);
+            StringBuilder out = new StringBuilder();
+            for (int i = 0; i < text.length() && out.length() < SAMPLE_PREVIEW_CHARS; i++) {
+                char c = text.charAt(i);
+                out.append(c < 0x20 ? ' ' : c);
+            }
+            return out.length() < text.length() || length < size ? out + "..." : out.toString();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ratelimittester;
+
+// What happens to response bodies. Every mode reads the body to the end so
+// the connection can be reused; they differ in how much is looked at.
+public enum BodyMode {
+    // Read and drop, the cheapest way to keep connections alive
+    DISCARD("Discard"),
+    // CRC32C and size of every body, counted per distinct checksum
+    CHECKSUM("Checksum + size"),
+    // Checksum, plus 1 in N bodies kept in a bounded ring for the summary
+    SAMPLE("Sample capture");
+
+    private final String label;
+
+    BodyMode(String label) {
+        this.label = label;
+    }
+
+    public static BodyMode fromLabel(String label) {
+        for (BodyMode mode : values()) {
+            if (mode.label.equalsIgnoreCase(label) || mode.name().equalsIgnoreCase(label)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown body mode: " + label);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
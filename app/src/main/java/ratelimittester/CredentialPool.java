@@ -0,0 +1,300 @@
+package ratelimittester;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// The API keys or tenant IDs of a run with a key file. Before the run every
+// endpoint's template gets one variant per key with the key's header in it,
+// so choosing a credential per request is an array index, with no header
+// built or formatted on the way. Counts and latency are kept per key for a
+// per-tenant summary. Unless the run continues through 429s, a 429 takes
+// only that key out of the rotation, and the run stops once every key is
+// limited - the same way a multi-endpoint run treats its endpoints.
+final class CredentialPool {
+
+    static final int MAX_KEYS = 100_000;
+    static final String KEY_PLACEHOLDER = "{key}";
+    // Headers the HTTP client refuses to set (HttpClient throws,
+    // HttpURLConnection drops them without a word)
+    static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade",
+            "keep-alive", "transfer-encoding", "trailer", "via", "origin");
+    // Keys listed one by one in the summary
+    private static final int LISTED_KEYS = 10;
+
+    // Per key in stats: responses by class, latency of the responses,
+    // 200s while unlimited after the run's first 429, and 200s before the
+    // key's own first 429
+    private static final int SUCCESS = 0;
+    private static final int RATE_LIMITED = 1;
+    private static final int OTHER = 2;
+    private static final int LATENCY_COUNT = 3;
+    private static final int LATENCY_SUM_NANOS = 4;
+    private static final int SUCCESS_AFTER_FIRST_LIMIT = 5;
+    private static final int SUCCESS_BEFORE_LIMIT = 6;
+    private static final int STRIDE = 7;
+
+    private final Path file;
+    private final String headerName;
+    private final KeyAssignment assignment;
+    private final boolean pausing;
+    // [endpoint][key]
+    private final RequestTemplate[][] templates;
+    // "...ab12", never the whole key, and the key's line in the file: keys
+    // often share a prefix, and may share a suffix
+    private final String[] masked;
+    private final int[] lineNumbers;
+    private final int keyCount;
+    private final AtomicLong nextKey = new AtomicLong();
+    private final AtomicLongArray stats;
+    // Wall-clock time of each key's first 429, 0 while not limited
+    private final AtomicLongArray limitedMillis;
+    private final AtomicInteger unlimitedKeys;
+    private final AtomicLong firstLimitedMillis = new AtomicLong();
+
+    private CredentialPool(TestConfig config, Scenario scenario, List<String> keys, List<Integer> keyLines) {
+        file = config.getKeyFile();
+        assignment = config.getKeyAssignment();
+        pausing = !config.continuesThroughLimit();
+        String spec = config.getKeyHeader();
+        int colon = spec.indexOf(':');
+        headerName = colon < 0 ? spec.trim() : spec.substring(0, colon).trim();
+        String format = colon < 0 ? KEY_PLACEHOLDER : spec.substring(colon + 1).trim();
+        keyCount = keys.size();
+        templates = new RequestTemplate[scenario.targets.length][keyCount];
+        masked = new String[keyCount];
+        lineNumbers = new int[keyCount];
+        for (int k = 0; k < keyCount; k++) {
+            String key = keys.get(k);
+            String value = format.replace(KEY_PLACEHOLDER, key);
+            for (int e = 0; e < templates.length; e++) {
+                templates[e][k] = scenario.targets[e].template.withHeader(headerName, value);
+            }
+            masked[k] = "..." + key.substring(key.length() - Math.min(key.length() > 8 ? 4 : 2, key.length()));
+            lineNumbers[k] = keyLines.get(k);
+        }
+        stats = new AtomicLongArray(keyCount * STRIDE);
+        limitedMillis = new AtomicLongArray(keyCount);
+        unlimitedKeys = new AtomicInteger(keyCount);
+    }
+
+    // One key per line; blank lines and lines starting with # are skipped.
+    // Reads at most the configured key count.
+    static CredentialPool load(TestConfig config, Scenario scenario) throws IOException {
+        int limit = config.getKeyCount() > 0 ? config.getKeyCount() : MAX_KEYS;
+        List<String> keys = new ArrayList<>();
+        List<Integer> keyLines = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(config.getKeyFile(), StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                // Notepad starts UTF-8 files with a byte order mark
+                if (number == 1 && line.startsWith("\uFEFF")) {
+                    line = line.substring(1);
+                }
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                if (!isHeaderValue(line)) {
+                    throw new IllegalArgumentException("Line " + number + " of " + config.getKeyFile()
+                            + " has control or non-Latin-1 characters, which a header cannot carry.");
+                }
+                // Only another key past the limit is one too many
+                if (keys.size() == limit) {
+                    if (config.getKeyCount() == 0) {
+                        throw new IllegalArgumentException("More than " + MAX_KEYS + " keys in " + config.getKeyFile()
+                                + "; set a key count.");
+                    }
+                    break;
+                }
+                keys.add(line);
+                keyLines.add(number);
+            }
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("No keys in " + config.getKeyFile());
+        }
+        return new CredentialPool(config, scenario, keys, keyLines);
+    }
+
+    static boolean isRestricted(String headerName) {
+        return RESTRICTED_HEADERS.contains(headerName.toLowerCase(Locale.ROOT));
+    }
+
+    // What the HTTP client accepts in a header value
+    static boolean isHeaderValue(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == 0x7F || c > 0xFF) return false;
+        }
+        return true;
+    }
+
+    int size() {
+        return keyCount;
+    }
+
+    // The key for a user's next request (user 0: no fixed user), or -1 when
+    // its key, or every key, is limited
+    int pick(int user) {
+        if (assignment == KeyAssignment.PER_USER && user > 0) {
+            int key = (user - 1) % keyCount;
+            return pausing && limitedMillis.get(key) != 0 ? -1 : key;
+        }
+        long start = nextKey.getAndIncrement();
+        if (!pausing) {
+            return (int) (start % keyCount);
+        }
+        for (int k = 0; k < keyCount && unlimitedKeys.get() > 0; k++) {
+            int key = (int) ((start + k) % keyCount);
+            if (limitedMillis.get(key) == 0) return key;
+        }
+        return -1;
+    }
+
+    RequestTemplate template(int endpoint, int key) {
+        return templates[endpoint][key];
+    }
+
+    void record(int key, int statusCode, long latencyNanos) {
+        int base = key * STRIDE;
+        if (statusCode == 200) {
+            stats.getAndIncrement(base + SUCCESS);
+            if (firstLimitedMillis.get() != 0 && limitedMillis.get(key) == 0) {
+                stats.getAndIncrement(base + SUCCESS_AFTER_FIRST_LIMIT);
+            }
+        } else {
+            stats.getAndIncrement(base + (statusCode == 429 ? RATE_LIMITED : OTHER));
+        }
+        stats.getAndIncrement(base + LATENCY_COUNT);
+        stats.getAndAdd(base + LATENCY_SUM_NANOS, latencyNanos);
+    }
+
+    void recordFailure(int key) {
+        stats.getAndIncrement(key * STRIDE + OTHER);
+    }
+
+    // Notes the key's first 429; returns false when it was already limited
+    boolean markLimited(int key, long nowMillis) {
+        // A plain read first, so a limited key's later 429s skip the CAS
+        if (limitedMillis.get(key) != 0 || !limitedMillis.compareAndSet(key, 0, nowMillis)) return false;
+        stats.set(key * STRIDE + SUCCESS_BEFORE_LIMIT, stats.get(key * STRIDE + SUCCESS));
+        firstLimitedMillis.compareAndSet(0, nowMillis);
+        unlimitedKeys.decrementAndGet();
+        return true;
+    }
+
+    boolean allLimited() {
+        return unlimitedKeys.get() == 0;
+    }
+
+    // inFlight is how many responses may still arrive after a 429 without
+    // meaning a key was unaffected
+    List<String> report(long startMillis, int inFlight) {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("Keys (%d from %s, %s, header %s):", keyCount, file.getFileName(), assignment, headerName));
+        int active = 0;
+        int limited = 0;
+        long lastLimited = 0;
+        long after = 0;
+        int unaffected = 0;
+        // 200s each limited key got before its 429
+        long beforeLimit = 0;
+        long fewestBeforeLimit = Long.MAX_VALUE;
+        long mostBeforeLimit = 0;
+        long[] successes = new long[keyCount];
+        double[] meanMs = new double[keyCount];
+        long[] activeSuccesses = new long[keyCount];
+        Integer[] order = new Integer[keyCount];
+        for (int k = 0; k < keyCount; k++) {
+            int base = k * STRIDE;
+            order[k] = k;
+            successes[k] = stats.get(base + SUCCESS);
+            long responses = stats.get(base + LATENCY_COUNT);
+            meanMs[k] = responses > 0 ? stats.get(base + LATENCY_SUM_NANOS) / 1e6 / responses : Double.NaN;
+            if (responses + stats.get(base + OTHER) > 0) {
+                activeSuccesses[active++] = successes[k];
+            }
+            if (limitedMillis.get(k) != 0) {
+                limited++;
+                lastLimited = Math.max(lastLimited, limitedMillis.get(k));
+                beforeLimit += stats.get(base + SUCCESS_BEFORE_LIMIT);
+                fewestBeforeLimit = Math.min(fewestBeforeLimit, stats.get(base + SUCCESS_BEFORE_LIMIT));
+                mostBeforeLimit = Math.max(mostBeforeLimit, stats.get(base + SUCCESS_BEFORE_LIMIT));
+            }
+            long continued = stats.get(base + SUCCESS_AFTER_FIRST_LIMIT);
+            if (continued > 0) {
+                unaffected++;
+                after += continued;
+            }
+        }
+        long first = firstLimitedMillis.get();
+        lines.add(limited == 0
+                ? String.format("  Active: %d of %d keys sent requests; none was limited", active, keyCount)
+                : String.format("  Active: %d of %d keys sent requests; %d limited, the first at %.2f s, the last at %.2f s",
+                        active, keyCount, limited, (first - startMillis) / 1000.0, (lastLimited - startMillis) / 1000.0));
+        if (active == 0) {
+            return lines;
+        }
+        // Over the keys that sent requests
+        long[] sortedSuccess = Arrays.copyOf(activeSuccesses, active);
+        Arrays.sort(sortedSuccess);
+        double[] sortedMean = Arrays.stream(meanMs).filter(mean -> !Double.isNaN(mean)).sorted().toArray();
+        lines.add(String.format("  Per active key: 200s min %d, median %d, max %d; mean latency min %.1f, median %.1f, max %.1f ms",
+                sortedSuccess[0], sortedSuccess[active / 2], sortedSuccess[active - 1],
+                sortedMean.length > 0 ? sortedMean[0] : 0, sortedMean.length > 0 ? sortedMean[sortedMean.length / 2] : 0,
+                sortedMean.length > 0 ? sortedMean[sortedMean.length - 1] : 0));
+
+        // The most limited keys first, then the busiest
+        Arrays.sort(order, (a, b) -> {
+            int byLimited = Long.compare(stats.get(b * STRIDE + RATE_LIMITED), stats.get(a * STRIDE + RATE_LIMITED));
+            return byLimited != 0 ? byLimited : Long.compare(successes[b], successes[a]);
+        });
+        int listed = Math.min(LISTED_KEYS, active);
+        lines.add(listed < active ? "  Top " + listed + " keys by 429s:" : "  By key:");
+        for (int i = 0; i < listed; i++) {
+            int k = order[i];
+            int base = k * STRIDE;
+            long limitedAt = limitedMillis.get(k);
+            String limit;
+            if (limitedAt == 0) {
+                limit = "never limited";
+            } else {
+                double seconds = (limitedAt - startMillis) / 1000.0;
+                long before = stats.get(base + SUCCESS_BEFORE_LIMIT);
+                limit = String.format("limited at %.2f s after %d OK (%.1f req/min)", seconds, before,
+                        seconds > 0 ? before * 60 / seconds : 0);
+            }
+            lines.add(String.format("    line %-6d %-8s 200=%d 429=%d other=%d, mean %.1f ms, %s", lineNumbers[k], masked[k],
+                    successes[k], stats.get(base + RATE_LIMITED), stats.get(base + OTHER),
+                    Double.isNaN(meanMs[k]) ? 0 : meanMs[k], limit));
+        }
+        if (first != 0) {
+            String scope;
+            if (after > inFlight) {
+                scope = String.format("%d keys got %d 200s while %d were limited - looks like per-key limits",
+                        unaffected, after, limited);
+            } else if (limited >= active) {
+                // Equal per-key limits reached together look the same as one
+                // limit the keys share; only the totals tell them apart
+                scope = String.format("every active key was limited within %.2f s, after %d..%d 200s each - one shared"
+                        + " limit of about %d, or per-key limits of about %d; compare a run with a key count of 1",
+                        (lastLimited - first) / 1000.0, fewestBeforeLimit, mostBeforeLimit, beforeLimit, mostBeforeLimit);
+            } else {
+                scope = "unclear - the other keys got no 200s after the first 429 but were not limited either";
+            }
+            lines.add("  Limit Scope: " + scope);
+        }
+        return lines;
+    }
+}
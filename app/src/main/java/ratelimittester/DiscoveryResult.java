@@ -0,0 +1,92 @@
+package ratelimittester;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// What RateLimitProber learned about the server's limiter, with the range of
+// values each measurement still allows.
+public class DiscoveryResult {
+
+    private String algorithm = "Unknown";
+    private int burstCapacity = -1;
+    private int limitPerWindow = -1;
+    private double windowSeconds = -1;
+    private double windowLow;
+    private double windowHigh;
+    private double ratePerSec = -1;
+    private double rateLow;
+    private double rateHigh;
+    private RateLimitHeaders headers = RateLimitHeaders.NONE;
+    private int requestsUsed;
+    private long elapsedNanos;
+    private final List<String> notes = new ArrayList<>();
+
+    void algorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    void burstCapacity(int burstCapacity) {
+        this.burstCapacity = burstCapacity;
+    }
+
+    void window(int limit, double seconds, double low, double high) {
+        this.limitPerWindow = limit;
+        this.windowSeconds = seconds;
+        this.windowLow = low;
+        this.windowHigh = high;
+    }
+
+    void rate(double perSec, double low, double high) {
+        this.ratePerSec = perSec;
+        this.rateLow = low;
+        this.rateHigh = high;
+    }
+
+    void headers(RateLimitHeaders headers) {
+        this.headers = headers;
+    }
+
+    void usage(int requests, long nanos) {
+        this.requestsUsed = requests;
+        this.elapsedNanos = nanos;
+    }
+
+    void note(String note) {
+        notes.add(note);
+    }
+
+    public String algorithm() { return algorithm; }
+    public int limitPerWindow() { return limitPerWindow; }
+    public double windowSeconds() { return windowSeconds; }
+    public double ratePerSec() { return ratePerSec; }
+    public int requestsUsed() { return requestsUsed; }
+
+    public List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("");
+        lines.add("=== Rate Limit Discovery ===");
+        lines.add("Detected Algorithm: " + algorithm);
+        if (burstCapacity >= 0) {
+            lines.add("Burst Capacity: " + burstCapacity + " requests");
+        }
+        if (windowSeconds > 0) {
+            lines.add(String.format("Limit: %d requests per %.2f s (window range %.2f-%.2f s)",
+                    limitPerWindow, windowSeconds, windowLow, windowHigh));
+        }
+        if (ratePerSec > 0) {
+            lines.add(String.format("Sustained Rate: %.2f requests per minute (range %.2f-%.2f)",
+                    ratePerSec * 60, rateLow * 60, rateHigh * 60));
+        }
+        if (headers.isPresent()) {
+            lines.add(String.format("Server-Advertised Limit: %s (X-RateLimit-Limit)",
+                    headers.limit() >= 0 ? String.valueOf(headers.limit()) : "-"));
+        } else {
+            lines.add("Server-Advertised Limit: none (no X-RateLimit-* headers seen)");
+        }
+        for (String note : notes) {
+            lines.add("Note: " + note);
+        }
+        lines.add(String.format("Probe Cost: %d requests in %.1f seconds", requestsUsed, elapsedNanos / 1e9));
+        return lines;
+    }
+}
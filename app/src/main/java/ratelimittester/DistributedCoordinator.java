@@ -0,0 +1,355 @@
+package ratelimittester;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+// Runs one test on several RateLimitAgents at once. Each agent runs the full
+// configuration from its own process (and source address); the coordinator
+// aligns their clocks, starts them at the same instant, stops all of them
+// on the first 429 anywhere and merges their histograms and per-second
+// counts into one TestResult.
+public class DistributedCoordinator {
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int SYNC_ROUNDS = 8;
+    // Time between sending START and the agreed start, so every agent has
+    // the command before it is due
+    private static final long START_LEAD_MS = 1000;
+
+    private final TestConfig config;
+    private final TestListener listener;
+    private final List<Agent> agents = new ArrayList<>();
+    private volatile boolean stopSent;
+    private String token;
+
+    public DistributedCoordinator(TestConfig config, TestListener listener) {
+        this.config = config;
+        this.listener = listener;
+        for (String address : config.getAgents()) {
+            agents.add(new Agent(address));
+        }
+    }
+
+    // Stops every agent after its current requests
+    public void stop() {
+        broadcastStop();
+    }
+
+    public TestResult run() {
+        config.validate();
+        if (agents.isEmpty()) {
+            throw new IllegalArgumentException("No agents configured.");
+        }
+        token = !config.getAgentToken().isEmpty() ? config.getAgentToken() : System.getenv(AgentProtocol.TOKEN_ENV);
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Agents need their token: set --agent-token or " + AgentProtocol.TOKEN_ENV + ".");
+        }
+        try {
+            for (Agent agent : agents) {
+                agent.connect();
+                agent.syncClock();
+                listener.onStatus(String.format("[agent %s] connected, clock offset %+d ms (+/- %d ms)%n",
+                        agent.address, agent.offsetMillis, agent.uncertaintyMillis));
+            }
+            long startAt = System.currentTimeMillis() + START_LEAD_MS;
+            for (Agent agent : agents) {
+                agent.start(config.toProperties(), startAt + agent.offsetMillis);
+            }
+            for (Agent agent : agents) {
+                agent.reader = new Thread(agent::readUntilResult, "agent-reader-" + agent.address);
+                agent.reader.start();
+            }
+            reportProgress(startAt);
+        } catch (IOException e) {
+            broadcastStop();
+            throw new IllegalStateException("Agent setup failed: " + e.getMessage(), e);
+        } finally {
+            for (Agent agent : agents) {
+                agent.close();
+            }
+        }
+        return merge();
+    }
+
+    // Prints combined counts once a second until every agent has answered
+    private void reportProgress(long startAt) {
+        while (true) {
+            boolean running = false;
+            for (Agent agent : agents) {
+                try {
+                    agent.reader.join(Math.max(1, 1000 / agents.size()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    broadcastStop();
+                    return;
+                }
+                running |= agent.reader.isAlive();
+            }
+            if (!running) return;
+            long success = 0, rateLimited = 0, other = 0;
+            for (Agent agent : agents) {
+                long[] counts = agent.progress;
+                success += counts[0];
+                rateLimited += counts[1];
+                other += counts[2];
+            }
+            long elapsed = System.currentTimeMillis() - startAt;
+            if (elapsed >= 0) {
+                listener.onStatus(String.format("[%5.1fs] agents=%d 200=%d 429=%d other=%d%n",
+                        elapsed / 1000.0, agents.size(), success, rateLimited, other));
+            }
+        }
+    }
+
+    private void broadcastStop() {
+        if (stopSent) return;
+        stopSent = true;
+        for (Agent agent : agents) {
+            agent.sendStop();
+        }
+    }
+
+    private TestResult merge() {
+        List<Agent> finished = new ArrayList<>();
+        List<String> agentReport = new ArrayList<>();
+        for (Agent agent : agents) {
+            if (agent.result != null) {
+                finished.add(agent);
+            }
+        }
+        if (finished.isEmpty()) {
+            StringBuilder reasons = new StringBuilder();
+            for (Agent agent : agents) {
+                reasons.append(' ').append(agent.address).append(": ").append(agent.error).append('.');
+            }
+            throw new IllegalStateException("No agent returned a result." + reasons);
+        }
+
+        LatencyHistogram successLatency = new LatencyHistogram();
+        LatencyHistogram rateLimitedLatency = new LatencyHistogram();
+        LatencyHistogram otherLatency = new LatencyHistogram();
+        long success = 0, rateLimited = 0, other = 0;
+        double estimatedRpm = 0;
+        long durationMs = 0, setupNanos = 0, teardownNanos = 0;
+        List<String> scheduleReport = new ArrayList<>();
+        List<String> resourceReport = new ArrayList<>();
+        List<String> endpointReport = new ArrayList<>();
+        List<String> bodyReport = new ArrayList<>();
+        List<String> limitReport = new ArrayList<>();
+
+        // Second 0 of the merged series is the earliest agent start
+        long firstStart = Long.MAX_VALUE;
+        for (Agent agent : finished) {
+            firstStart = Math.min(firstStart, agent.result.startMillis - agent.offsetMillis);
+        }
+        TimeSeriesCounters merged = new TimeSeriesCounters(LoadTestEngine.HISTORY_SECONDS);
+
+        agentReport.add(String.format("Agents: %d of %d returned results (each ran the full configuration)",
+                finished.size(), agents.size()));
+        for (Agent agent : agents) {
+            if (agent.result == null) {
+                agentReport.add(String.format("  %s: no result (%s)", agent.address, agent.error));
+                continue;
+            }
+            TestResult result = agent.result.result;
+            success += result.successCount();
+            rateLimited += result.rateLimitedCount();
+            other += result.otherErrors();
+            successLatency.add(result.successLatency());
+            rateLimitedLatency.add(result.rateLimitedLatency());
+            otherLatency.add(result.otherLatency());
+            // Agents ran side by side, so their rates add up
+            estimatedRpm += result.estimatedRpm();
+            durationMs = Math.max(durationMs, result.durationMs());
+            setupNanos = Math.max(setupNanos, result.setupNanos());
+            teardownNanos = Math.max(teardownNanos, result.teardownNanos());
+            for (String line : result.scheduleReport()) {
+                scheduleReport.add("[" + agent.address + "] " + line);
+            }
+            for (String line : result.resourceReport()) {
+                resourceReport.add("[" + agent.address + "] " + line);
+            }
+            for (String line : result.endpointReport()) {
+                endpointReport.add("[" + agent.address + "] " + line);
+            }
+            for (String line : result.bodyReport()) {
+                bodyReport.add("[" + agent.address + "] " + line);
+            }
+            // Agents share the server's limiter (or each has its own per
+            // source address), so each keeps its own view of it
+            for (String line : result.limitReport()) {
+                limitReport.add("[" + agent.address + "] " + line);
+            }
+
+            long start = agent.result.startMillis - agent.offsetMillis;
+            long shift = Math.round((start - firstStart) / 1000.0);
+            for (int row = 0; row < agent.result.rows; row++) {
+                merged.addHarvested(row + shift, agent.result.history, row * TimeSeriesCounters.FIELDS);
+            }
+            agentReport.add(String.format("  %s: 200=%d 429=%d other=%d, %.2f req/min, started %+d ms, clock offset %+d ms (+/- %d ms)",
+                    agent.address, result.successCount(), result.rateLimitedCount(), result.otherErrors(),
+                    result.estimatedRpm(), start - firstStart, agent.offsetMillis, agent.uncertaintyMillis));
+        }
+
+        TestConfig total = copyConfig();
+        total.setThreads(config.getThreads() * finished.size());
+        return new TestResult(total, success, rateLimited, other, successLatency, rateLimitedLatency, otherLatency,
+                estimatedRpm, durationMs, setupNanos, teardownNanos, scheduleReport, merged.report(),
+                resourceReport, agentReport, endpointReport, bodyReport, limitReport);
+    }
+
+    private TestConfig copyConfig() {
+        try {
+            return TestConfig.fromProperties(config.toProperties());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final class Agent {
+        final String address;
+        Socket socket;
+        DataInputStream in;
+        DataOutputStream out;
+        long offsetMillis;
+        long uncertaintyMillis;
+        // Latest success, 429 and other counts, written by the reader
+        volatile long[] progress = new long[3];
+        Thread reader;
+        volatile AgentProtocol.AgentResult result;
+        volatile String error = "not started";
+
+        Agent(String address) {
+            this.address = address;
+        }
+
+        void connect() throws IOException {
+            int colon = address.lastIndexOf(':');
+            String host = colon > 0 ? address.substring(0, colon) : address;
+            int port = AgentProtocol.DEFAULT_PORT;
+            if (colon > 0) {
+                try {
+                    port = Integer.parseInt(address.substring(colon + 1));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Bad agent address " + address);
+                }
+            }
+            socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            } catch (IOException e) {
+                throw new IOException("Cannot reach agent " + address + " (" + e.getMessage() + ")", e);
+            }
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(AgentProtocol.VERSION);
+            AgentProtocol.writeString(out, token);
+            out.flush();
+        }
+
+        // NTP-style: the agent's clock is read halfway through the round
+        // trip; the fastest of several rounds gives the tightest bound
+        void syncClock() throws IOException {
+            long bestRoundTrip = Long.MAX_VALUE;
+            for (int i = 0; i < SYNC_ROUNDS; i++) {
+                long sentNanos = System.nanoTime();
+                long sentMillis = System.currentTimeMillis();
+                out.writeByte(AgentProtocol.SYNC);
+                out.writeLong(sentMillis);
+                out.flush();
+                byte type = in.readByte();
+                if (type == AgentProtocol.ERROR) {
+                    throw new IOException("Agent " + address + ": " + AgentProtocol.readString(in));
+                }
+                if (type != AgentProtocol.SYNC_REPLY) {
+                    throw new IOException("Agent " + address + " sent message " + type + " during clock sync");
+                }
+                long agentMillis = in.readLong();
+                long roundTrip = System.nanoTime() - sentNanos;
+                if (roundTrip < bestRoundTrip) {
+                    bestRoundTrip = roundTrip;
+                    offsetMillis = agentMillis - (sentMillis + roundTrip / 2_000_000L);
+                    uncertaintyMillis = roundTrip / 2_000_000L + 1;
+                }
+            }
+        }
+
+        void start(Properties props, long agentStartMillis) throws IOException {
+            synchronized (out) {
+                out.writeByte(AgentProtocol.CONFIG);
+                AgentProtocol.writeProperties(out, props);
+                out.writeByte(AgentProtocol.START);
+                out.writeLong(agentStartMillis);
+                out.flush();
+            }
+        }
+
+        void sendStop() {
+            if (out == null) return;
+            try {
+                synchronized (out) {
+                    out.writeByte(AgentProtocol.STOP);
+                    out.flush();
+                }
+            } catch (IOException ignored) {
+                // The reader reports the lost agent
+            }
+        }
+
+        void readUntilResult() {
+            try {
+                while (true) {
+                    byte type = in.readByte();
+                    switch (type) {
+                        case AgentProtocol.PROGRESS ->
+                                progress = new long[]{in.readLong(), in.readLong(), in.readLong()};
+                        case AgentProtocol.RATE_LIMITED -> {
+                            if (config.continuesThroughLimit()) {
+                                listener.onStatus(String.format("[agent %s] 429 received - continuing%n", address));
+                            } else {
+                                listener.onStatus(String.format("[agent %s] 429 received - stopping all agents%n", address));
+                                listener.onRateLimited();
+                                broadcastStop();
+                            }
+                        }
+                        case AgentProtocol.RESULT -> {
+                            result = AgentProtocol.readResult(in, config);
+                            return;
+                        }
+                        case AgentProtocol.ERROR -> {
+                            error = AgentProtocol.readString(in);
+                            listener.onStatus(String.format("[agent %s] error: %s%n", address, error));
+                            return;
+                        }
+                        default -> throw new IOException("Unexpected message type " + type);
+                    }
+                }
+            } catch (IOException e) {
+                error = "connection lost: " + e.getMessage();
+                listener.onStatus(String.format("[agent %s] %s%n", address, error));
+            }
+        }
+
+        void close() {
+            if (socket == null) return;
+            try {
+                if (reader != null) {
+                    reader.join();
+                }
+                socket.close();
+            } catch (IOException ignored) {
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
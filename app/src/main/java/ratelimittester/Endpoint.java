@@ -0,0 +1,73 @@
+package ratelimittester;
+
+import java.net.URI;
+
+// One route of a scenario: where to send, how, and how often relative to the
+// other routes. Written in config files as
+//
+//   endpoint.NAME=WEIGHT METHOD URL [PAYLOAD]
+//
+// e.g. endpoint.login=1 POST http://127.0.0.1:5000/login {"user":"u${counter}"}
+public class Endpoint {
+
+    // Weights are relative, so this leaves room for any useful ratio
+    public static final int MAX_WEIGHT = 1_000_000;
+
+    private final String name;
+    private final String method;
+    private final URI targetUri;
+    private final String payload;
+    private final int weight;
+
+    public Endpoint(String name, String method, URI targetUri, String payload, int weight) {
+        this.name = name;
+        this.method = method;
+        this.targetUri = targetUri;
+        this.payload = payload == null ? "" : payload;
+        this.weight = weight;
+    }
+
+    public static Endpoint parse(String name, String spec) {
+        String[] parts = spec.trim().split("\\s+", 4);
+        if (name.isEmpty() || parts.length < 3) {
+            throw new IllegalArgumentException("Endpoint " + name + " needs WEIGHT METHOD URL [PAYLOAD], got: " + spec);
+        }
+        int weight;
+        try {
+            weight = Integer.parseInt(parts[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid weight for endpoint " + name + ": " + parts[0]);
+        }
+        URI uri = TestConfig.parseTargetUri(parts[2]);
+        if (uri == null) {
+            throw new IllegalArgumentException("Invalid URL for endpoint " + name + ": " + parts[2]);
+        }
+        return new Endpoint(name, parts[1].toUpperCase(), uri, parts.length > 3 ? parts[3] : "", weight);
+    }
+
+    // The inverse of parse()
+    public String spec() {
+        String spec = weight + " " + method + " " + targetUri;
+        return hasBody() && !payload.isEmpty() ? spec + " " + payload : spec;
+    }
+
+    public boolean hasBody() {
+        return !"GET".equalsIgnoreCase(method);
+    }
+
+    public RequestTemplate compile() {
+        return RequestTemplate.compile(method, targetUri, hasBody() ? payload : null);
+    }
+
+    // "POST /login"
+    public String label() {
+        String path = targetUri.getRawPath();
+        return method + " " + (path == null || path.isEmpty() ? "/" : path);
+    }
+
+    public String getName() { return name; }
+    public String getMethod() { return method; }
+    public URI getTargetUri() { return targetUri; }
+    public String getPayload() { return payload; }
+    public int getWeight() { return weight; }
+}
@@ -0,0 +1,50 @@
+package ratelimittester;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// How simulated users are mapped onto Java threads.
+public enum ExecutionMode {
+    PLATFORM_THREADS("Platform threads"),
+    VIRTUAL_THREADS("Virtual threads"),
+    ASYNC_EVENT_LOOP("Async (non-blocking)");
+
+    // Event-loop threads in async mode; users are callbacks, not threads
+    static final int EVENT_LOOP_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final String label;
+
+    ExecutionMode(String label) {
+        this.label = label;
+    }
+
+    public boolean isAsync() {
+        return this == ASYNC_EVENT_LOOP;
+    }
+
+    // One thread per submitted task, named prefix1, prefix2, ...; in async
+    // mode a fixed pool of event-loop threads instead
+    public ExecutorService newExecutor(String namePrefix) {
+        if (this == ASYNC_EVENT_LOOP) {
+            return Executors.newFixedThreadPool(EVENT_LOOP_THREADS, Thread.ofPlatform().name(namePrefix, 1).factory());
+        }
+        if (this == VIRTUAL_THREADS) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 1).factory());
+        }
+        return Executors.newThreadPerTaskExecutor(Thread.ofPlatform().name(namePrefix, 1).factory());
+    }
+
+    public static ExecutionMode fromLabel(String label) {
+        for (ExecutionMode mode : values()) {
+            if (mode.label.equalsIgnoreCase(label) || mode.name().equalsIgnoreCase(label)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown execution mode: " + label);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
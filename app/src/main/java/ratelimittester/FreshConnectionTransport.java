@@ -0,0 +1,152 @@
+package ratelimittester;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+
+// Opens and tears down a TCP connection for every request, so each measured
+// latency includes the full connection setup. Used as the baseline when
+// comparing against the pooled transports. Each phase is timed on its own:
+// the host is resolved up front (the connection then finds it in the JVM's
+// address cache), and TLS is told apart from TCP by the moment the
+// connection layers TLS over its connected socket.
+public class FreshConnectionTransport implements HttpTransport {
+
+    private static final ThreadLocal<byte[]> DRAIN_BUFFER = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    // Null or discarding: bodies are read into the drain buffer and dropped
+    private final BodyInspector bodies;
+
+    public FreshConnectionTransport() {
+        this(null);
+    }
+
+    FreshConnectionTransport(BodyInspector bodies) {
+        this.bodies = bodies == null || bodies.discards() ? null : bodies;
+    }
+
+    @Override
+    public TransportResponse send(RequestTemplate request, byte[] body) throws IOException {
+        long startAt = System.nanoTime();
+        InetAddress.getByName(request.uri().getHost());
+        long resolvedAt = System.nanoTime();
+        HttpURLConnection conn = (HttpURLConnection) request.uri().toURL().openConnection();
+        TimedTlsFactory tls = null;
+        if (conn instanceof HttpsURLConnection https) {
+            tls = new TimedTlsFactory(https.getSSLSocketFactory());
+            https.setSSLSocketFactory(tls);
+        }
+        try {
+            conn.setRequestMethod(request.method());
+            conn.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            conn.setReadTimeout(READ_TIMEOUT_MS);
+            conn.setUseCaches(false);
+            // No Connection: close; HttpURLConnection drops that restricted
+            // header. disconnect() below is what keeps each request on a new connection
+            String[] headers = request.headers();
+            for (int i = 0; i < headers.length; i += 2) {
+                conn.setRequestProperty(headers[i], headers[i + 1]);
+            }
+
+            if (body != null) {
+                conn.setDoOutput(true);
+                conn.setFixedLengthStreamingMode(body.length);
+            }
+            conn.connect();
+            long connectedAt = System.nanoTime();
+            if (body != null) {
+                try (OutputStream os = conn.getOutputStream()) {
+                    os.write(body);
+                }
+            }
+
+            int responseCode = conn.getResponseCode();
+            long headersAt = System.nanoTime();
+            RateLimitHeaders rateLimit = RateLimitHeaders.parse(conn::getHeaderField, System.currentTimeMillis());
+            InputStream in = responseCode >= 400 ? conn.getErrorStream() : conn.getInputStream();
+            BodyInspector.Scan scan = bodies == null ? null : bodies.begin(responseCode);
+            long bytes = drain(in, scan);
+            long tcpDone = tls != null && tls.layeredAt != 0 ? tls.layeredAt : connectedAt;
+            PhaseTimes phases = new PhaseTimes(PhaseTimes.NOT_SEEN, resolvedAt - startAt, tcpDone - resolvedAt,
+                    tls != null ? connectedAt - tcpDone : PhaseTimes.NOT_SEEN, headersAt - connectedAt,
+                    System.nanoTime() - headersAt);
+            return scan == null ? new TransportResponse(responseCode, rateLimit, null, bytes, phases)
+                    : new TransportResponse(responseCode, rateLimit, scan.finish(), scan.size(), phases);
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    // Returns the number of bytes read
+    private static long drain(InputStream in, BodyInspector.Scan scan) throws IOException {
+        if (in == null) return 0;
+        byte[] buffer = DRAIN_BUFFER.get();
+        long total = 0;
+        try (in) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                if (scan != null) scan.update(buffer, 0, n);
+                total += n;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    // Notes when the connection, having connected its plain socket, layers
+    // TLS over it; the handshake follows right away. Not overriding the
+    // unconnected createSocket() is what makes the connection do that.
+    private static final class TimedTlsFactory extends SSLSocketFactory {
+        private final SSLSocketFactory delegate;
+        long layeredAt;
+
+        TimedTlsFactory(SSLSocketFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+            layeredAt = System.nanoTime();
+            return delegate.createSocket(socket, host, port, autoClose);
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return delegate.createSocket(host, port);
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            return delegate.createSocket(host, port, localHost, localPort);
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return delegate.createSocket(host, port);
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+                throws IOException {
+            return delegate.createSocket(address, port, localAddress, localPort);
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return delegate.getDefaultCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return delegate.getSupportedCipherSuites();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ratelimittester;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Sends one request and waits for its response. Implementations are shared
+// by all workers of a test run and must be thread-safe.
+public interface HttpTransport extends AutoCloseable {
+
+    int CONNECT_TIMEOUT_MS = 5000;
+    int READ_TIMEOUT_MS = 5000;
+
+    // body is the buffer rendered from request; the caller must not touch
+    // it again until the send has completed
+    TransportResponse send(RequestTemplate request, byte[] body) throws IOException, InterruptedException;
+
+    // Non-blocking send; the future completes on the transport's executor.
+    // Only the pooled transports support it.
+    default CompletableFuture<TransportResponse> sendAsync(RequestTemplate request, byte[] body) {
+        return CompletableFuture.failedFuture(
+                new UnsupportedOperationException(getClass().getSimpleName() + " is blocking only"));
+    }
+
+    @Override
+    void close();
+
+    static HttpTransport create(TransportMode mode, int maxConnections) {
+        return create(mode, maxConnections, null);
+    }
+
+    // sourceAddress binds outgoing connections to one local address; null
+    // lets the OS choose. Only the pooled transports support it.
+    static HttpTransport create(TransportMode mode, int maxConnections, InetAddress sourceAddress) {
+        return create(mode, maxConnections, sourceAddress, null, null);
+    }
+
+    // asyncExecutor runs sendAsync completions; null uses the HTTP client's
+    // default. bodies looks at each response body; null discards them.
+    static HttpTransport create(TransportMode mode, int maxConnections, InetAddress sourceAddress,
+                                Executor asyncExecutor, BodyInspector bodies) {
+        if (mode == TransportMode.FRESH_CONNECTION) {
+            if (sourceAddress != null) {
+                throw new IllegalArgumentException("A source address needs a pooled transport.");
+            }
+            return new FreshConnectionTransport(bodies);
+        }
+        return new PooledHttpTransport(mode == TransportMode.POOLED_HTTP2, maxConnections, sourceAddress,
+                asyncExecutor, bodies);
+    }
+}
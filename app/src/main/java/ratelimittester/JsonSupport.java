@@ -0,0 +1,99 @@
+package ratelimittester;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// JSON helpers shared by the GUI editor and the headless runner, all on top
+// of the single-pass JsonTokenizer.
+public final class JsonSupport {
+
+    private JsonSupport() {
+    }
+
+    // One top-level member of an object. value is the decoded text for a
+    // string, otherwise the raw JSON (number, literal, object or array).
+    public record Member(String name, String value, boolean string) {
+    }
+
+    public static String escapeJson(String input) {
+        if (input == null) return "";
+        StringBuilder out = null;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            String escape = switch (c) {
+                case '"' -> "\\\"";
+                case '\\' -> "\\\\";
+                case '\b' -> "\\b";
+                case '\f' -> "\\f";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case '\t' -> "\\t";
+                default -> c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+            };
+            if (escape != null && out == null) {
+                out = new StringBuilder(input.length() + 16).append(input, 0, i);
+            }
+            if (out != null) {
+                if (escape != null) out.append(escape); else out.append(c);
+            }
+        }
+        return out == null ? input : out.toString();
+    }
+
+    public static boolean isValidJson(String json) {
+        return validationError(json) == null;
+    }
+
+    // Null for a well-formed JSON document, otherwise what is wrong and where
+    public static String validationError(String json) {
+        try {
+            new JsonTokenizer(json).skipToEnd();
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    // The members of a JSON object in document order. Throws
+    // IllegalArgumentException when the text is not a well-formed object.
+    public static List<Member> members(String json) {
+        JsonTokenizer tokenizer = new JsonTokenizer(json);
+        if (tokenizer.next() != JsonTokenizer.Token.BEGIN_OBJECT) {
+            throw new IllegalArgumentException("Not a JSON object");
+        }
+        List<Member> members = new ArrayList<>();
+        while (true) {
+            JsonTokenizer.Token token = tokenizer.next();
+            if (token == JsonTokenizer.Token.END_OBJECT) break;
+            String name = tokenizer.stringValue();
+            token = tokenizer.next();
+            if (token == JsonTokenizer.Token.STRING) {
+                members.add(new Member(name, tokenizer.stringValue(), true));
+                continue;
+            }
+            int start = tokenizer.tokenStart();
+            // A nested container ends when the depth is back to this object's
+            while (tokenizer.depth() > 1) {
+                tokenizer.next();
+            }
+            members.add(new Member(name, json.substring(start, tokenizer.tokenEnd()), false));
+        }
+        tokenizer.skipToEnd();
+        return members;
+    }
+
+    // The inverse of members(); raw values are written as given
+    public static String toJson(List<Member> members) {
+        StringBuilder out = new StringBuilder("{");
+        for (Member member : members) {
+            if (out.length() > 1) out.append(',');
+            out.append('"').append(escapeJson(member.name())).append("\":");
+            if (member.string()) {
+                out.append('"').append(escapeJson(member.value())).append('"');
+            } else {
+                out.append(member.value());
+            }
+        }
+        return out.append('}').toString();
+    }
+}
@@ -0,0 +1,311 @@
+package ratelimittester;
+
+// Single-pass pull tokenizer for JSON text (RFC 8259). No regular
+// expressions and no recursion: every character is looked at once, and
+// nesting is kept on an explicit stack, so multi-megabyte or deeply nested
+// payloads take linear time and cannot overflow the thread stack. Errors
+// are IllegalArgumentExceptions naming the line and column.
+final class JsonTokenizer {
+
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, TRUE, FALSE, NULL, END_DOCUMENT
+    }
+
+    private static final byte IN_OBJECT = 1;
+    private static final byte IN_ARRAY = 2;
+
+    // What the next token may be
+    private static final int VALUE = 0;
+    private static final int FIRST_VALUE_OR_END_ARRAY = 1;
+    private static final int FIRST_NAME_OR_END_OBJECT = 2;
+    private static final int NAME = 3;
+    private static final int COLON = 4;
+    private static final int AFTER_VALUE = 5;
+    private static final int DONE = 6;
+
+    private final CharSequence text;
+    private final int length;
+    private int pos;
+    private int state = VALUE;
+    private byte[] stack = new byte[16];
+    private int depth;
+    private int tokenStart;
+    private int tokenEnd;
+    // Set when the last string contained escapes and needs decoding
+    private boolean escaped;
+
+    JsonTokenizer(CharSequence text) {
+        this.text = text;
+        this.length = text.length();
+    }
+
+    // Containers open around the position after the last token
+    int depth() {
+        return depth;
+    }
+
+    // Span of the last token in the text; strings and names include their quotes
+    int tokenStart() {
+        return tokenStart;
+    }
+
+    int tokenEnd() {
+        return tokenEnd;
+    }
+
+    Token next() {
+        while (true) {
+            skipWhitespace();
+            switch (state) {
+                case DONE -> {
+                    return Token.END_DOCUMENT;
+                }
+                case AFTER_VALUE -> {
+                    if (depth == 0) {
+                        if (pos < length) throw error("Unexpected text after the JSON value");
+                        state = DONE;
+                        tokenStart = tokenEnd = pos;
+                        return Token.END_DOCUMENT;
+                    }
+                    char c = expectChar("',' or the end of the " + container());
+                    if (c == ',') {
+                        pos++;
+                        state = stack[depth - 1] == IN_OBJECT ? NAME : VALUE;
+                    } else if (c == '}' && stack[depth - 1] == IN_OBJECT || c == ']' && stack[depth - 1] == IN_ARRAY) {
+                        return close();
+                    } else {
+                        throw error("Expected ',' or " + (stack[depth - 1] == IN_OBJECT ? "'}'" : "']'"));
+                    }
+                }
+                case COLON -> {
+                    if (expectChar("':'") != ':') throw error("Expected ':' after the member name");
+                    pos++;
+                    state = VALUE;
+                }
+                case FIRST_NAME_OR_END_OBJECT, NAME -> {
+                    char c = expectChar("a member name");
+                    if (c == '}' && state == FIRST_NAME_OR_END_OBJECT) {
+                        return close();
+                    }
+                    if (c != '"') throw error("Expected a member name in double quotes");
+                    scanString();
+                    state = COLON;
+                    return Token.NAME;
+                }
+                case FIRST_VALUE_OR_END_ARRAY -> {
+                    if (expectChar("a value or ']'") == ']') {
+                        return close();
+                    }
+                    return value();
+                }
+                default -> {
+                    return value();
+                }
+            }
+        }
+    }
+
+    // The decoded text of the last NAME or STRING token
+    String stringValue() {
+        int start = tokenStart + 1;
+        int end = tokenEnd - 1;
+        if (!escaped) {
+            return text.subSequence(start, end).toString();
+        }
+        StringBuilder out = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            c = text.charAt(++i);
+            switch (c) {
+                case 'b' -> out.append('\b');
+                case 'f' -> out.append('\f');
+                case 'n' -> out.append('\n');
+                case 'r' -> out.append('\r');
+                case 't' -> out.append('\t');
+                case 'u' -> {
+                    out.append((char) Integer.parseInt(text.subSequence(i + 1, i + 5).toString(), 16));
+                    i += 4;
+                }
+                default -> out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    // Reads to the end of the document, throwing on the first error
+    void skipToEnd() {
+        while (next() != Token.END_DOCUMENT) {
+            // nothing to do per token
+        }
+    }
+
+    private Token value() {
+        char c = expectChar("a value");
+        tokenStart = pos;
+        switch (c) {
+            case '{' -> {
+                pos++;
+                push(IN_OBJECT);
+                state = FIRST_NAME_OR_END_OBJECT;
+                tokenEnd = pos;
+                return Token.BEGIN_OBJECT;
+            }
+            case '[' -> {
+                pos++;
+                push(IN_ARRAY);
+                state = FIRST_VALUE_OR_END_ARRAY;
+                tokenEnd = pos;
+                return Token.BEGIN_ARRAY;
+            }
+            case '"' -> {
+                scanString();
+                state = AFTER_VALUE;
+                return Token.STRING;
+            }
+            case 't' -> {
+                return literal("true", Token.TRUE);
+            }
+            case 'f' -> {
+                return literal("false", Token.FALSE);
+            }
+            case 'n' -> {
+                return literal("null", Token.NULL);
+            }
+            default -> {
+                if (c == '-' || c >= '0' && c <= '9') {
+                    scanNumber();
+                    state = AFTER_VALUE;
+                    return Token.NUMBER;
+                }
+                throw error("Unexpected character '" + c + "'");
+            }
+        }
+    }
+
+    private Token close() {
+        tokenStart = pos;
+        pos++;
+        tokenEnd = pos;
+        byte closed = stack[--depth];
+        state = AFTER_VALUE;
+        return closed == IN_OBJECT ? Token.END_OBJECT : Token.END_ARRAY;
+    }
+
+    private void push(byte container) {
+        if (depth == stack.length) {
+            byte[] grown = new byte[stack.length * 2];
+            System.arraycopy(stack, 0, grown, 0, depth);
+            stack = grown;
+        }
+        stack[depth++] = container;
+    }
+
+    private Token literal(String word, Token token) {
+        for (int i = 0; i < word.length(); i++) {
+            if (pos + i >= length || text.charAt(pos + i) != word.charAt(i)) {
+                pos += i;
+                throw error("Invalid literal, expected " + word);
+            }
+        }
+        pos += word.length();
+        tokenEnd = pos;
+        state = AFTER_VALUE;
+        return token;
+    }
+
+    private void scanString() {
+        tokenStart = pos;
+        escaped = false;
+        pos++;
+        while (true) {
+            if (pos >= length) throw error("Unterminated string");
+            char c = text.charAt(pos);
+            if (c == '"') {
+                pos++;
+                tokenEnd = pos;
+                return;
+            }
+            if (c < 0x20) throw error("Control character in string, escape it");
+            if (c == '\\') {
+                escaped = true;
+                pos++;
+                if (pos >= length) throw error("Unterminated string");
+                char e = text.charAt(pos);
+                if (e == 'u') {
+                    for (int i = 1; i <= 4; i++) {
+                        if (pos + i >= length || Character.digit(text.charAt(pos + i), 16) < 0) {
+                            pos += i;
+                            throw error("Invalid \\u escape");
+                        }
+                    }
+                    pos += 4;
+                } else if ("\"\\/bfnrt".indexOf(e) < 0) {
+                    throw error("Invalid escape \\" + e);
+                }
+            }
+            pos++;
+        }
+    }
+
+    // -? (0 | [1-9][0-9]*) (. [0-9]+)? ([eE] [+-]? [0-9]+)?
+    private void scanNumber() {
+        if (text.charAt(pos) == '-') pos++;
+        if (pos < length && text.charAt(pos) == '0') {
+            pos++;
+        } else if (digits() == 0) {
+            throw error("Invalid number");
+        }
+        if (pos < length && text.charAt(pos) == '.') {
+            pos++;
+            if (digits() == 0) throw error("Expected digits after the decimal point");
+        }
+        if (pos < length && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            pos++;
+            if (pos < length && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) pos++;
+            if (digits() == 0) throw error("Expected digits in the exponent");
+        }
+        tokenEnd = pos;
+    }
+
+    private int digits() {
+        int start = pos;
+        while (pos < length && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') pos++;
+        return pos - start;
+    }
+
+    private void skipWhitespace() {
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') return;
+            pos++;
+        }
+    }
+
+    private char expectChar(String expected) {
+        if (pos >= length) throw error("Unexpected end of input, expected " + expected);
+        return text.charAt(pos);
+    }
+
+    private String container() {
+        return stack[depth - 1] == IN_OBJECT ? "object" : "array";
+    }
+
+    // Line and column are only worked out once something is wrong
+    private IllegalArgumentException error(String message) {
+        int line = 1;
+        int column = 1;
+        for (int i = 0; i < pos && i < length; i++) {
+            if (text.charAt(i) == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        return new IllegalArgumentException(message + " at line " + line + ", column " + column);
+    }
+}
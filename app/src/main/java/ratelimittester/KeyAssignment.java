@@ -0,0 +1,30 @@
+package ratelimittester;
+
+// How a run with a key file hands out its credentials.
+public enum KeyAssignment {
+    // Each user keeps one key, users wrapping around the file: one tenant per
+    // user. Without fixed users (the async open model) keys go round robin.
+    PER_USER("Per user"),
+    // Every request takes the next key, across all users
+    ROUND_ROBIN("Round robin per request");
+
+    private final String label;
+
+    KeyAssignment(String label) {
+        this.label = label;
+    }
+
+    public static KeyAssignment fromLabel(String label) {
+        for (KeyAssignment assignment : values()) {
+            if (assignment.label.equalsIgnoreCase(label) || assignment.name().equalsIgnoreCase(label)) {
+                return assignment;
+            }
+        }
+        throw new IllegalArgumentException("Unknown key assignment: " + label);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
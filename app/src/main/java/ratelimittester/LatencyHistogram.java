@@ -0,0 +1,133 @@
+package ratelimittester;
+
+// Log-linear histogram of nanosecond latencies in the spirit of HdrHistogram:
+// every power-of-two range is split into 128 linear sub-buckets, giving
+// better than 1% relative precision from 1 ns up to ~73 minutes in a fixed
+// array of counts. Not thread-safe; see LatencyRecorder for concurrent use.
+public class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 7;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final long SUB_BUCKET_MASK = (2L * SUB_BUCKET_COUNT) - 1;
+    static final long MAX_TRACKABLE_NANOS = (1L << 42) - 1;
+    static final int BUCKET_COUNT = 42 - SUB_BUCKET_BITS;
+    static final int COUNTS_LENGTH = (BUCKET_COUNT + 1) * SUB_BUCKET_COUNT;
+
+    private final long[] counts = new long[COUNTS_LENGTH];
+    private long totalCount;
+    private long totalNanos;
+    private long maxNanos;
+
+    static int indexFor(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_TRACKABLE_NANOS);
+        int magnitude = 63 - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK);
+        int bucket = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> bucket);
+        return (bucket << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    // Highest value that maps to the same index
+    static long highestEquivalent(int index) {
+        int bucket = Math.max(0, (index >> SUB_BUCKET_BITS) - 1);
+        long subBucket = index - ((long) bucket << SUB_BUCKET_BITS);
+        return (subBucket << bucket) + (1L << bucket) - 1;
+    }
+
+    public void record(long nanos) {
+        recordCount(nanos, 1);
+    }
+
+    public void recordCount(long nanos, long count) {
+        counts[indexFor(nanos)] += count;
+        totalCount += count;
+        totalNanos += nanos * count;
+        if (nanos > maxNanos) maxNanos = nanos;
+    }
+
+    void addBucket(int index, long count) {
+        counts[index] += count;
+    }
+
+    void addTotals(long count, long nanos, long max) {
+        totalCount += count;
+        totalNanos += nanos;
+        if (max > maxNanos) maxNanos = max;
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            counts[i] += other.counts[i];
+        }
+        addTotals(other.totalCount, other.totalNanos, other.maxNanos);
+    }
+
+    // Leaves what was recorded after the earlier snapshot of the same
+    // recorder. Max is not recoverable and stays the cumulative max.
+    public void subtract(LatencyHistogram earlier) {
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            counts[i] -= earlier.counts[i];
+        }
+        totalCount -= earlier.totalCount;
+        totalNanos -= earlier.totalNanos;
+    }
+
+    public void reset() {
+        java.util.Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    public long count() {
+        return totalCount;
+    }
+
+    long totalNanos() {
+        return totalNanos;
+    }
+
+    public long maxNanos() {
+        return maxNanos;
+    }
+
+    public double meanNanos() {
+        return totalCount == 0 ? 0 : totalNanos / (double) totalCount;
+    }
+
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(totalCount * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestEquivalent(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    public long countAt(int index) {
+        return counts[index];
+    }
+
+    // Values recorded up to nanos, to the histogram's precision
+    public long countAtOrBelow(long nanos) {
+        int last = indexFor(nanos);
+        long count = 0;
+        for (int i = 0; i <= last; i++) {
+            count += counts[i];
+        }
+        return count;
+    }
+
+    // One summary line, e.g. "n=1200 p50=3.10 p90=4.02 p99=9.87 p99.9=15.2 max=18.0 ms"
+    public String format() {
+        if (totalCount == 0) return "n=0";
+        return String.format("n=%d mean=%.2f p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f ms",
+                totalCount, meanNanos() / 1e6,
+                valueAtPercentile(50) / 1e6, valueAtPercentile(90) / 1e6,
+                valueAtPercentile(99) / 1e6, valueAtPercentile(99.9) / 1e6,
+                maxNanos / 1e6);
+    }
+}
@@ -0,0 +1,97 @@
+package ratelimittester;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Concurrent latency recording without locks or allocation on the hot path.
+// Each recording thread hashes onto one of a fixed set of stripes so that
+// workers rarely touch the same cache lines; stripes are merged into a plain
+// LatencyHistogram when a snapshot is taken.
+public class LatencyRecorder {
+
+    private static final int TOTAL_COUNT = LatencyHistogram.COUNTS_LENGTH;
+    private static final int TOTAL_NANOS = TOTAL_COUNT + 1;
+    private static final int MAX_NANOS = TOTAL_COUNT + 2;
+    private static final int STRIPE_LENGTH = TOTAL_COUNT + 3;
+
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+
+    public LatencyRecorder() {
+        this(Integer.MAX_VALUE);
+    }
+
+    // At most maxStripes stripes, for recorders kept by the dozen
+    public LatencyRecorder(int maxStripes) {
+        int stripeCount = Integer.highestOneBit(
+                Math.min(maxStripes, Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1));
+        stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(STRIPE_LENGTH);
+        }
+        stripeMask = stripeCount - 1;
+    }
+
+    public void record(long nanos) {
+        AtomicLongArray stripe = stripes[(int) (Thread.currentThread().threadId() & stripeMask)];
+        stripe.getAndIncrement(LatencyHistogram.indexFor(nanos));
+        stripe.getAndIncrement(TOTAL_COUNT);
+        stripe.getAndAdd(TOTAL_NANOS, nanos);
+        long max;
+        while (nanos > (max = stripe.get(MAX_NANOS))) {
+            if (stripe.compareAndSet(MAX_NANOS, max, nanos)) break;
+        }
+    }
+
+    // Records the measured value and, when it exceeds the interval at which
+    // requests were meant to go out, the samples that coordinated omission
+    // would otherwise hide: value - interval, value - 2 * interval, ...
+    public void record(long nanos, long expectedIntervalNanos) {
+        record(nanos);
+        if (expectedIntervalNanos <= 0) return;
+        for (long missing = nanos - expectedIntervalNanos; missing >= expectedIntervalNanos;
+             missing -= expectedIntervalNanos) {
+            record(missing);
+        }
+    }
+
+    // Cheaper than a snapshot when only the mean is needed
+    public long count() {
+        long count = 0;
+        for (AtomicLongArray stripe : stripes) {
+            count += stripe.get(TOTAL_COUNT);
+        }
+        return count;
+    }
+
+    public long totalNanos() {
+        long total = 0;
+        for (AtomicLongArray stripe : stripes) {
+            total += stripe.get(TOTAL_NANOS);
+        }
+        return total;
+    }
+
+    public void reset() {
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < STRIPE_LENGTH; i++) {
+                stripe.set(i, 0);
+            }
+        }
+    }
+
+    public LatencyHistogram snapshot() {
+        LatencyHistogram merged = new LatencyHistogram();
+        snapshotInto(merged);
+        return merged;
+    }
+
+    public void snapshotInto(LatencyHistogram target) {
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < TOTAL_COUNT; i++) {
+                long count = stripe.get(i);
+                if (count != 0) target.addBucket(i, count);
+            }
+            target.addTotals(stripe.get(TOTAL_COUNT), stripe.get(TOTAL_NANOS), stripe.get(MAX_NANOS));
+        }
+    }
+}
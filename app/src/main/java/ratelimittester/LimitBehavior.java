@@ -0,0 +1,31 @@
+package ratelimittester;
+
+// What a 429 does to the run.
+public enum LimitBehavior {
+    // The first 429 ends the run (with several endpoints: pauses that
+    // endpoint, and the run ends when every endpoint is limited)
+    STOP("Stop at first 429"),
+    // Keep sending at the configured load, so the run shows how the service
+    // behaves while limited and how long it takes to recover
+    CONTINUE("Continue through 429s");
+
+    private final String label;
+
+    LimitBehavior(String label) {
+        this.label = label;
+    }
+
+    public static LimitBehavior fromLabel(String label) {
+        for (LimitBehavior behavior : values()) {
+            if (behavior.label.equalsIgnoreCase(label) || behavior.name().equalsIgnoreCase(label)) {
+                return behavior;
+            }
+        }
+        throw new IllegalArgumentException("Unknown limit behavior: " + label);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
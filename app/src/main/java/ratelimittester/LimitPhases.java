@@ -0,0 +1,178 @@
+package ratelimittester;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// Splits a run that continues through 429s into phases: before the limit,
+// limited, and recovered. A 429 for a request sent outside a limited phase
+// starts one; the first 200 for a request sent after that ends it, and the
+// time in between is that episode's time to recovery. Requests are counted
+// in the phase they were sent in, so responses still in flight when the
+// phase changed do not blur the comparison. Transitions are rare and take a
+// lock; everything else is a read of the latest phase and a few adders.
+final class LimitPhases {
+
+    static final int BEFORE = 0;
+    static final int LIMITED = 1;
+    static final int RECOVERED = 2;
+    private static final String[] NAMES = {"Before limit", "Limited", "Recovered"};
+
+    // Times a phase began, and which; appended on each transition
+    private volatile long[] transitionNanos;
+    private volatile int[] transitionPhase;
+    private final List<Long> recoveryNanos = new ArrayList<>();
+    private final LongAdder[] counts = new LongAdder[NAMES.length * 3];
+    private final LatencyRecorder[] successLatency = new LatencyRecorder[NAMES.length];
+    private final LatencyRecorder[] limitedLatency = new LatencyRecorder[NAMES.length];
+    private final LongAdder backoffs = new LongAdder();
+    private final LongAdder backoffMillis = new LongAdder();
+
+    LimitPhases() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+        for (int i = 0; i < NAMES.length; i++) {
+            successLatency[i] = new LatencyRecorder();
+            limitedLatency[i] = new LatencyRecorder();
+        }
+        start(0);
+    }
+
+    // Time zero of the run
+    void start(long startNanos) {
+        transitionNanos = new long[] {startNanos};
+        transitionPhase = new int[] {BEFORE};
+    }
+
+    // statusCode < 0 is a request that failed without a response; an
+    // invalid body counts as other
+    void record(int statusCode, long sendNanos, long endNanos, long latencyNanos, long expectedIntervalNanos) {
+        int current = transitionPhase[transitionPhase.length - 1];
+        if ((statusCode == 429) != (current == LIMITED) && (statusCode == 429 || statusCode == 200)) {
+            transition(statusCode, sendNanos, endNanos);
+        }
+        int phase = phaseAt(sendNanos);
+        if (statusCode == 200) {
+            counts[phase * 3].increment();
+            successLatency[phase].record(latencyNanos, expectedIntervalNanos);
+        } else if (statusCode == 429) {
+            counts[phase * 3 + 1].increment();
+            limitedLatency[phase].record(latencyNanos, expectedIntervalNanos);
+        } else {
+            counts[phase * 3 + 2].increment();
+        }
+    }
+
+    void recordBackoff(long millis) {
+        backoffs.increment();
+        backoffMillis.add(millis);
+    }
+
+    private synchronized void transition(int statusCode, long sendNanos, long endNanos) {
+        long[] at = transitionNanos;
+        int[] phases = transitionPhase;
+        int current = phases[phases.length - 1];
+        long since = at[at.length - 1];
+        // Only a request sent in the current phase can end it
+        if (sendNanos < since) return;
+        int next;
+        if (statusCode == 429 && current != LIMITED) {
+            next = LIMITED;
+        } else if (statusCode == 200 && current == LIMITED) {
+            next = RECOVERED;
+            recoveryNanos.add(endNanos - since);
+        } else {
+            return;
+        }
+        long[] grownAt = Arrays.copyOf(at, at.length + 1);
+        int[] grownPhases = Arrays.copyOf(phases, phases.length + 1);
+        grownAt[at.length] = endNanos;
+        grownPhases[phases.length] = next;
+        // Phase first: a reader that sees the new time also sees its phase
+        transitionPhase = grownPhases;
+        transitionNanos = grownAt;
+    }
+
+    // The phase in effect at the given time; nearly always the latest one
+    private int phaseAt(long nanos) {
+        long[] at = transitionNanos;
+        int[] phases = transitionPhase;
+        int i = Math.min(at.length, phases.length) - 1;
+        while (i > 0 && at[i] > nanos) {
+            i--;
+        }
+        return phases[i];
+    }
+
+    // endNanos is when the run ended, closing the last phase
+    synchronized List<String> report(TestConfig config, long endNanos) {
+        List<String> lines = new ArrayList<>();
+        long[] at = transitionNanos;
+        int[] phases = transitionPhase;
+        long[] phaseNanos = new long[NAMES.length];
+        for (int i = 0; i < at.length; i++) {
+            phaseNanos[phases[i]] += Math.max(0, (i + 1 < at.length ? at[i + 1] : endNanos) - at[i]);
+        }
+        lines.add(String.format("Phases (continuing through 429s, backoff %s):", config.getBackoff()));
+        for (int phase = 0; phase < NAMES.length; phase++) {
+            long ok = counts[phase * 3].sum();
+            long limited = counts[phase * 3 + 1].sum();
+            long other = counts[phase * 3 + 2].sum();
+            if (phaseNanos[phase] == 0 && ok + limited + other == 0) continue;
+            double seconds = phaseNanos[phase] / 1e9;
+            StringBuilder line = new StringBuilder(String.format("  %-13s %7.1f s  200=%d 429=%d other=%d, %.1f OK/s",
+                    NAMES[phase], seconds, ok, limited, other, seconds > 0 ? ok / seconds : 0));
+            if (ok > 0) {
+                LatencyHistogram latency = successLatency[phase].snapshot();
+                line.append(String.format("; 200 p50=%.1f p99=%.1f ms", latency.valueAtPercentile(50) / 1e6,
+                        latency.valueAtPercentile(99) / 1e6));
+            }
+            if (limited > 0) {
+                LatencyHistogram latency = limitedLatency[phase].snapshot();
+                line.append(String.format("; 429 p50=%.1f p99=%.1f ms", latency.valueAtPercentile(50) / 1e6,
+                        latency.valueAtPercentile(99) / 1e6));
+            }
+            lines.add(line.toString());
+        }
+
+        int episodes = 0;
+        for (int phase : phases) {
+            if (phase == LIMITED) episodes++;
+        }
+        if (episodes == 0) {
+            lines.add("  Never limited");
+        } else if (recoveryNanos.isEmpty()) {
+            lines.add(String.format("  Limited Episodes: %d, no recovery before the run ended", episodes));
+        } else {
+            long min = Long.MAX_VALUE, max = 0, sum = 0;
+            for (long nanos : recoveryNanos) {
+                min = Math.min(min, nanos);
+                max = Math.max(max, nanos);
+                sum += nanos;
+            }
+            lines.add(String.format("  Limited Episodes: %d; time to recovery min %.2f s, mean %.2f s, max %.2f s%s",
+                    episodes, min / 1e9, sum / 1e9 / recoveryNanos.size(), max / 1e9,
+                    episodes > recoveryNanos.size() ? " (still limited at the end)" : ""));
+        }
+
+        // Does sustained pressure slow down the requests that still get through?
+        long beforeOk = counts[BEFORE * 3].sum();
+        long laterOk = counts[LIMITED * 3].sum() + counts[RECOVERED * 3].sum();
+        if (beforeOk > 0 && laterOk > 0) {
+            LatencyHistogram later = new LatencyHistogram();
+            later.add(successLatency[LIMITED].snapshot());
+            later.add(successLatency[RECOVERED].snapshot());
+            double before = successLatency[BEFORE].snapshot().valueAtPercentile(99) / 1e6;
+            double after = later.valueAtPercentile(99) / 1e6;
+            lines.add(String.format("  200 p99 after the first 429 vs before: %.1f ms vs %.1f ms (%+.0f%%)", after, before,
+                    before > 0 ? (after - before) * 100 / before : 0));
+        }
+        if (backoffs.sum() > 0) {
+            lines.add(String.format("  Backoff: %d waits, %.1f s in total, mean %.0f ms", backoffs.sum(),
+                    backoffMillis.sum() / 1000.0, backoffMillis.sum() / (double) backoffs.sum()));
+        }
+        return lines;
+    }
+}
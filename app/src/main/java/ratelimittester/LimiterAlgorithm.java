@@ -0,0 +1,36 @@
+package ratelimittester;
+
+// The rate limiter a RateLimitStubServer applies. All admit limit requests
+// per window on average; they differ at the window edges.
+public enum LimiterAlgorithm {
+    // limit per window from the first request of the window; up to twice
+    // the limit can pass around a boundary
+    FIXED_WINDOW("Fixed window"),
+    // Every admitted request's time is kept; at most limit in any window
+    SLIDING_LOG("Sliding log"),
+    // The previous window's count weighted by its overlap with the sliding
+    // window, plus the current window's count
+    SLIDING_COUNTER("Sliding window counter"),
+    // limit tokens at most, refilled continuously at limit per window
+    TOKEN_BUCKET("Token bucket");
+
+    private final String label;
+
+    LimiterAlgorithm(String label) {
+        this.label = label;
+    }
+
+    public static LimiterAlgorithm fromLabel(String label) {
+        for (LimiterAlgorithm algorithm : values()) {
+            if (algorithm.label.equalsIgnoreCase(label) || algorithm.name().equalsIgnoreCase(label)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown limiter algorithm: " + label);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
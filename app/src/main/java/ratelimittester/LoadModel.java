@@ -0,0 +1,29 @@
+package ratelimittester;
+
+// Whether request timing is driven by the responses or by a fixed schedule.
+public enum LoadModel {
+    // Each user sends, waits for the response, sleeps, then sends again
+    CLOSED_LOOP("Closed loop (per-user delay)"),
+    // Requests are issued at a target arrival rate regardless of latency
+    OPEN_ARRIVAL_RATE("Open model (arrival rate)");
+
+    private final String label;
+
+    LoadModel(String label) {
+        this.label = label;
+    }
+
+    public static LoadModel fromLabel(String label) {
+        for (LoadModel model : values()) {
+            if (model.label.equalsIgnoreCase(label) || model.name().equalsIgnoreCase(label)) {
+                return model;
+            }
+        }
+        throw new IllegalArgumentException("Unknown load model: " + label);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,32 @@
+package ratelimittester;
+
+// How the load changes over the run. The full load is the configured users
+// in the closed loop and the target rate in the open model; see LoadStages.
+public enum LoadProfile {
+    // The full load from the start, or after the ramp-up
+    STEADY("Steady"),
+    // The full load in equal steps, each held for the hold time
+    STEPS("Steps"),
+    // The full load for the whole duration, summarized every hold time
+    SOAK("Soak");
+
+    private final String label;
+
+    LoadProfile(String label) {
+        this.label = label;
+    }
+
+    public static LoadProfile fromLabel(String label) {
+        for (LoadProfile profile : values()) {
+            if (profile.label.equalsIgnoreCase(label) || profile.name().equalsIgnoreCase(label)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown load profile: " + label);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,250 @@
+package ratelimittester;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// A run's LoadProfile as stages, each a linear change of the load level over
+// a number of seconds: the ramp-up, a step, a stretch of a soak. The level
+// is a fraction of the full load. The closed loop starts each user when the
+// level first covers it and keeps it to the end, so levels never fall; the
+// open model's schedule follows the integral of the level. The last stage
+// holds its level until the run ends. Responses are counted per stage by
+// the time their request was sent, for one summary row each.
+final class LoadStages {
+
+    // Each reached stage holds a latency recorder
+    static final int MAX_STAGES = 100;
+    // Keeps a level of exactly k users from starting user k + 1
+    private static final double EPSILON = 1e-9;
+
+    private final LoadProfile profile;
+    private final String[] names;
+    private final double[] startSeconds;
+    private final long[] startNanos;
+    private final double[] seconds;
+    private final double[] fromLevel;
+    private final double[] toLevel;
+    // Integral of the level up to the start of each stage, in level-seconds
+    private final double[] levelSecondsBefore;
+    private final LongAdder[] counts;
+    // Created when the stage's first 200 comes in
+    private final AtomicReferenceArray<LatencyRecorder> successLatency;
+    private volatile long runStartNanos;
+
+    private record Stage(String name, double seconds, double from, double to) {}
+
+    private LoadStages(LoadProfile profile, List<Stage> stages) {
+        int n = stages.size();
+        this.profile = profile;
+        names = new String[n];
+        startSeconds = new double[n];
+        startNanos = new long[n];
+        seconds = new double[n];
+        fromLevel = new double[n];
+        toLevel = new double[n];
+        levelSecondsBefore = new double[n];
+        counts = new LongAdder[n * 3];
+        successLatency = new AtomicReferenceArray<>(n);
+        double at = 0;
+        double levelSeconds = 0;
+        for (int i = 0; i < n; i++) {
+            Stage stage = stages.get(i);
+            names[i] = stage.name();
+            startSeconds[i] = at;
+            startNanos[i] = (long) (at * 1e9);
+            seconds[i] = stage.seconds();
+            fromLevel[i] = stage.from();
+            toLevel[i] = stage.to();
+            levelSecondsBefore[i] = levelSeconds;
+            at += stage.seconds();
+            levelSeconds += (stage.from() + stage.to()) / 2 * stage.seconds();
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    static LoadStages of(TestConfig config) {
+        List<Stage> stages = new ArrayList<>();
+        double ramp = config.getRampSeconds();
+        int hold = Math.max(1, config.getHoldSeconds());
+        if (ramp > 0 && config.getLoadProfile() != LoadProfile.STEPS) {
+            stages.add(new Stage("Ramp-up", ramp, 0, 1));
+        }
+        switch (config.getLoadProfile()) {
+            case STEADY -> stages.add(new Stage("Steady", Double.POSITIVE_INFINITY, 1, 1));
+            case STEPS -> {
+                int steps = Math.max(1, config.getSteps());
+                // Built before the config is validated, which rejects more steps
+                for (int step = 1; step <= Math.min(steps, MAX_STAGES + 1); step++) {
+                    double level = step / (double) steps;
+                    stages.add(new Stage("Step " + step, hold, level, level));
+                }
+            }
+            case SOAK -> {
+                int row = 1;
+                // Built before the config is validated, which rejects more rows
+                for (double left = config.getDurationSeconds() - ramp; left > 0 && row <= MAX_STAGES + 1; left -= hold) {
+                    stages.add(new Stage("Soak " + row++, Math.min(hold, left), 1, 1));
+                }
+                if (row == 1) stages.add(new Stage("Soak 1", Double.POSITIVE_INFINITY, 1, 1));
+            }
+        }
+        return new LoadStages(config.getLoadProfile(), stages);
+    }
+
+    // Time zero of the stages, System.nanoTime()
+    void start(long startNanos) {
+        runStartNanos = startNanos;
+    }
+
+    long runStartNanos() {
+        return runStartNanos;
+    }
+
+    // The level-seconds due in the first t seconds: the open model's request
+    // count at time t is the target rate times this
+    double levelSeconds(double t) {
+        if (t <= 0) return 0;
+        int i = floorIndex(startSeconds, t);
+        double into = t - startSeconds[i];
+        double length = seconds[i];
+        if (into >= length) {
+            // Only the last stage: it holds its final level
+            return levelSecondsBefore[i] + (fromLevel[i] + toLevel[i]) / 2 * length + (into - length) * toLevel[i];
+        }
+        return levelSecondsBefore[i] + fromLevel[i] * into + (toLevel[i] - fromLevel[i]) * into * into / (2 * length);
+    }
+
+    // The inverse of levelSeconds
+    double secondsAt(double levelSeconds) {
+        if (levelSeconds <= 0) return 0;
+        int i = floorIndex(levelSecondsBefore, levelSeconds);
+        double n = levelSeconds - levelSecondsBefore[i];
+        double from = fromLevel[i];
+        double length = seconds[i];
+        double whole = (from + toLevel[i]) / 2 * length;
+        if (n >= whole) {
+            return startSeconds[i] + length + (n - whole) / toLevel[i];
+        }
+        // Solves from * t + k * t^2 = n; this form also holds for k = 0
+        double k = (toLevel[i] - from) / (2 * length);
+        return startSeconds[i] + 2 * n / (from + Math.sqrt(from * from + 4 * k * n));
+    }
+
+    // System.nanoTime() at which the closed loop starts user (numbered from
+    // 1 of users), or Long.MAX_VALUE if the level never reaches it
+    long userStartNanos(int user, int users) {
+        double need = user - 1 + EPSILON;
+        for (int i = 0; i < names.length; i++) {
+            double from = fromLevel[i] * users;
+            double to = toLevel[i] * users;
+            if (from > need) {
+                return runStartNanos + startNanos[i];
+            }
+            if (to > need) {
+                return runStartNanos + startNanos[i] + (long) ((need - from) / (to - from) * seconds[i] * 1e9);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    // sendNanos is when the request went out or was scheduled to;
+    // statusCode < 0 is a request that failed without a response
+    void record(int statusCode, long sendNanos, long latencyNanos, long expectedIntervalNanos) {
+        int i = floorIndex(startNanos, sendNanos - runStartNanos);
+        if (statusCode == 200) {
+            counts[i * 3].increment();
+            LatencyRecorder recorder = successLatency.get(i);
+            if (recorder == null) {
+                successLatency.compareAndSet(i, null, new LatencyRecorder());
+                recorder = successLatency.get(i);
+            }
+            recorder.record(latencyNanos, expectedIntervalNanos);
+        } else if (statusCode == 429) {
+            counts[i * 3 + 1].increment();
+        } else {
+            counts[i * 3 + 2].increment();
+        }
+    }
+
+    // One row per stage the run reached; nothing for a steady load without
+    // a ramp-up, which the rest of the summary already covers. runNanos is
+    // how long the run lasted.
+    List<String> report(TestConfig config, long runNanos) {
+        List<String> lines = new ArrayList<>();
+        if (names.length == 1 && profile == LoadProfile.STEADY) return lines;
+        boolean open = config.getLoadModel() == LoadModel.OPEN_ARRIVAL_RATE;
+        lines.add(String.format("Load Profile (%s, %s):", profile,
+                open ? String.format("up to %.1f req/s", config.getTargetRate())
+                        : "up to " + config.getThreads() + " users"));
+        int notReached = 0;
+        for (int i = 0; i < names.length; i++) {
+            long start = startNanos[i];
+            if (start >= runNanos) {
+                notReached++;
+                continue;
+            }
+            long end = i + 1 < names.length ? Math.min(startNanos[i + 1], runNanos) : runNanos;
+            double elapsed = (end - start) / 1e9;
+            long ok = counts[i * 3].sum();
+            long limited = counts[i * 3 + 1].sum();
+            long other = counts[i * 3 + 2].sum();
+            String load = open ? level(fromLevel[i] * config.getTargetRate(), toLevel[i] * config.getTargetRate(), "req/s")
+                    : level(users(fromLevel[i], config.getThreads()), users(toLevel[i], config.getThreads()), "users");
+            String range = String.format("%.0f-%.0f s", start / 1e9, end / 1e9);
+            StringBuilder line = new StringBuilder(String.format("  %-9s %-11s %-16s %7.1f req/s sent, 200=%d 429=%d other=%d",
+                    names[i], range, load, elapsed > 0 ? (ok + limited + other) / elapsed : 0, ok, limited, other));
+            LatencyRecorder recorder = successLatency.get(i);
+            if (recorder != null) {
+                LatencyHistogram latency = recorder.snapshot();
+                line.append(String.format("; 200 p50=%.1f p99=%.1f ms", latency.valueAtPercentile(50) / 1e6,
+                        latency.valueAtPercentile(99) / 1e6));
+            }
+            lines.add(line.toString());
+        }
+        if (notReached > 0) {
+            lines.add(String.format("  Run ended before the last %d of %d stages", notReached, names.length));
+        }
+        return lines;
+    }
+
+    // For the schedule's summary line
+    String summary() {
+        return switch (profile) {
+            case STEADY -> names.length > 1 ? String.format(" (ramp %.1f s)", seconds[0]) : "";
+            case STEPS -> String.format(" (%d steps of %.0f s)", names.length, seconds[0]);
+            case SOAK -> names.length > 1 && names[0].equals("Ramp-up")
+                    ? String.format(" (soak, ramp %.1f s)", seconds[0]) : " (soak)";
+        };
+    }
+
+    // The last stage holds its level to the end, so the achieved rate is
+    // measured from its start
+    double lastStageStartSeconds() {
+        return startSeconds[names.length - 1];
+    }
+
+    private static int users(double level, int users) {
+        return (int) Math.ceil(level * users - EPSILON);
+    }
+
+    private static String level(double from, double to, String unit) {
+        String format = unit.equals("users") ? "%.0f" : "%.1f";
+        return from == to ? String.format(format + " %s", from, unit)
+                : String.format(format + "->" + format + " %s", from, to, unit);
+    }
+
+    private static int floorIndex(double[] sorted, double value) {
+        int i = Arrays.binarySearch(sorted, value);
+        return i >= 0 ? i : Math.max(0, -i - 2);
+    }
+
+    private static int floorIndex(long[] sorted, long value) {
+        int i = Arrays.binarySearch(sorted, value);
+        return i >= 0 ? i : Math.max(0, -i - 2);
+    }
+}
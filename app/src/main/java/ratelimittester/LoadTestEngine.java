@@ -0,0 +1,785 @@
+package ratelimittester;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Runs one rate limit test. Has no UI dependencies: progress and results are
+// reported through a TestListener, so the same engine backs the Swing window
+// and the headless command-line runner. Create one engine per run.
+public class LoadTestEngine {
+
+    private final TestConfig config;
+    private final TestListener listener;
+
+    // One hour of per-second history
+    static final int HISTORY_SECONDS = 3600;
+    // Not an HTTP status: a 200 whose body failed an assertion, counted as
+    // an other error with its latency
+    private static final int INVALID_BODY = 1;
+    // Key indexes of requests sent without a key file, and of none left
+    private static final int NO_KEY = -1;
+    private static final int KEYS_LIMITED = -2;
+
+    // Test tracking variables
+    private final TimeSeriesCounters timeSeries = new TimeSeriesCounters(HISTORY_SECONDS);
+    private final LatencyRecorder successLatency = new LatencyRecorder();
+    private final LatencyRecorder rateLimitedLatency = new LatencyRecorder();
+    private final LatencyRecorder otherLatency = new LatencyRecorder();
+    private final RequestPhases requestPhases = new RequestPhases();
+    private final Scenario scenario;
+    private final BodyInspector bodies;
+    private final RateLimitTimeline rateLimitTimeline = new RateLimitTimeline(HISTORY_SECONDS);
+    private final LimitPhases phases = new LimitPhases();
+    // A 429 neither stops the run nor pauses its endpoint
+    private final boolean continuing;
+    private final LoadStages stages;
+    // Set when the run starts
+    private volatile ResourceSampler sampler;
+    // Null unless the run is recorded to a run file
+    private RunRecorder runRecorder;
+    // Null unless the run sends credentials from a key file
+    private CredentialPool keys;
+    private volatile boolean stopAll = false;
+    private volatile Long first429Time = null;
+    private long successBefore429;
+    private volatile long testStartMillis;
+    // System.nanoTime() at which a timed run ends
+    private volatile long deadlineNanos = Long.MAX_VALUE;
+
+    public LoadTestEngine(TestConfig config, TestListener listener) {
+        this.config = config;
+        this.listener = listener;
+        this.scenario = new Scenario(config.endpoints(), config.getScenarioOrder());
+        this.bodies = new BodyInspector(config);
+        this.continuing = config.continuesThroughLimit();
+        this.stages = LoadStages.of(config);
+    }
+
+    public long successCount() {
+        return timeSeries.total(TimeSeriesCounters.SUCCESS);
+    }
+
+    public long rateLimitedCount() {
+        return timeSeries.total(TimeSeriesCounters.RATE_LIMITED);
+    }
+
+    public long otherErrors() {
+        return timeSeries.total(TimeSeriesCounters.ERRORS);
+    }
+
+    // Live per-second counts for progress views
+    public TimeSeriesCounters timeSeries() {
+        return timeSeries;
+    }
+
+    // Adds every latency recorded so far, all status classes together
+    public void latencySnapshotInto(LatencyHistogram target) {
+        successLatency.snapshotInto(target);
+        rateLimitedLatency.snapshotInto(target);
+        otherLatency.snapshotInto(target);
+    }
+
+    // Latencies recorded so far for one status class: TimeSeriesCounters
+    // SUCCESS, RATE_LIMITED or ERRORS
+    public void latencySnapshotInto(int statusField, LatencyHistogram target) {
+        switch (statusField) {
+            case TimeSeriesCounters.SUCCESS -> successLatency.snapshotInto(target);
+            case TimeSeriesCounters.RATE_LIMITED -> rateLimitedLatency.snapshotInto(target);
+            default -> otherLatency.snapshotInto(target);
+        }
+    }
+
+    // The client's CPU and GC share over the last second, for progress views
+    public String clientStatus() {
+        ResourceSampler current = sampler;
+        return current != null ? current.status() : "";
+    }
+
+    // Mean time to first byte of 200s and 429s since the previous call, for
+    // one progress view
+    public String phaseStatus() {
+        return requestPhases.status();
+    }
+
+    RequestPhases requestPhases() {
+        return requestPhases;
+    }
+
+    // Null before the run starts
+    ResourceSampler resourceSampler() {
+        return sampler;
+    }
+
+    // Wall-clock time the workers were started, 0 before that. Second 0 of
+    // the time series begins here.
+    public long testStartMillis() {
+        return testStartMillis;
+    }
+
+    // Asks every worker to stop after its current request
+    public void stop() {
+        stopAll = true;
+    }
+
+    public TestResult run() {
+        config.validate();
+        int numThreads = config.getThreads();
+        ArrivalRateScheduler schedule = config.getLoadModel() == LoadModel.OPEN_ARRIVAL_RATE
+                ? new ArrivalRateScheduler(config.getTargetRate(), stages, config.isTimed()
+                        ? ArrivalRateScheduler.slotsWithin(config.getTargetRate(), stages, config.runSeconds())
+                        : config.totalRequests())
+                : null;
+        long testStart;
+        long setupStart;
+        long setupNanos;
+        long workersDone;
+        boolean async = config.getExecutionMode().isAsync();
+        // Whatever setup has opened is closed in the finally block, also when
+        // a later step fails
+        MetricsServer metrics = null;
+        ExecutorService executor = null;
+        HttpTransport transport = null;
+        boolean completed = false;
+        try {
+            if (config.getKeyFile() != null) {
+                try {
+                    keys = CredentialPool.load(config, scenario);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot read key file " + config.getKeyFile(), e);
+                }
+                listener.onStatus(String.format("Keys: %d, %s\n", keys.size(), config.getKeyAssignment()));
+            }
+            if (config.getMetricsAddress() != null) {
+                try {
+                    metrics = MetricsServer.start(this, config, config.getMetricsAddress());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot serve metrics on " + config.getMetricsAddress(), e);
+                }
+                listener.onStatus("Metrics: " + metrics.url() + "\n");
+            }
+            if (config.getRecordPath() != null) {
+                try {
+                    runRecorder = new RunRecorder(config.getRecordPath(), config);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot create run file " + config.getRecordPath(), e);
+                }
+            }
+
+            sampler = new ResourceSampler(listener);
+            sampler.start();
+            setupStart = System.nanoTime();
+
+            // In async mode the executor is the transport's event loop instead of
+            // one thread per user
+            executor = config.getExecutionMode().newExecutor(async ? "EventLoop-" : "User-");
+            transport = HttpTransport.create(config.getTransportMode(), config.getMaxConnections(),
+                    config.getSourceAddress(), async ? executor : null, bodies);
+
+            // The schedule starts only once the transport exists, so its setup
+            // cost does not show up as send lag
+            testStart = System.currentTimeMillis();
+            testStartMillis = testStart;
+            timeSeries.start();
+            long startNanos = System.nanoTime();
+            rateLimitTimeline.start(startNanos, testStart);
+            phases.start(startNanos);
+            stages.start(startNanos);
+            if (config.isTimed()) {
+                deadlineNanos = startNanos + config.runSeconds() * 1_000_000_000L;
+            }
+            if (runRecorder != null) {
+                runRecorder.start(testStart, startNanos);
+            }
+            if (schedule != null) {
+                schedule.start();
+            }
+            if (async) {
+                AsyncDriver driver = new AsyncDriver(transport, schedule);
+                driver.start();
+                setupNanos = System.nanoTime() - setupStart;
+                driver.awaitDone();
+            } else {
+                for (int i = 0; i < numThreads; i++) {
+                    executor.submit(new RequestWorker(i + 1, transport,
+                            config.getRequestsPerThread(), config.getDelayMs(), schedule));
+                }
+                setupNanos = System.nanoTime() - setupStart;
+                // Waits for every submitted worker to finish
+                executor.close();
+            }
+            workersDone = System.nanoTime();
+            completed = true;
+        } finally {
+            if (transport != null) {
+                transport.close();
+            }
+            if (executor != null) {
+                executor.close();
+            }
+            if (metrics != null) {
+                metrics.close();
+            }
+            if (!completed) {
+                if (sampler != null) {
+                    sampler.stop();
+                }
+                timeSeries.stop();
+                if (runRecorder != null) {
+                    try {
+                        runRecorder.close();
+                    } catch (IOException ignored) {
+                        // The setup failure is the error to report
+                    }
+                }
+            }
+        }
+        long teardownNanos = System.nanoTime() - workersDone;
+
+        sampler.stop();
+        timeSeries.stop();
+        long testEnd = System.currentTimeMillis();
+
+        // Calculate estimated RPM
+        long endTimeForCalc;
+        long requestsBefore429;
+        synchronized (this) {
+            endTimeForCalc = first429Time != null ? first429Time : testEnd;
+            requestsBefore429 = first429Time != null ? successBefore429 : successCount();
+        }
+
+        double durationMinutes = (endTimeForCalc - testStart) / 60000.0;
+        double estimatedRPM = 0;
+        if (durationMinutes > 0 && requestsBefore429 > 0) {
+            estimatedRPM = requestsBefore429 / durationMinutes;
+        }
+
+        if (runRecorder != null) {
+            runRecorder.finish(testEnd - testStart, setupNanos, teardownNanos);
+            try {
+                runRecorder.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot complete run file " + runRecorder.path(), e);
+            }
+        }
+
+        List<String> loadReport = new ArrayList<>(schedule != null ? schedule.report() : List.of());
+        loadReport.addAll(stages.report(config, workersDone - stages.runStartNanos()));
+
+        List<String> limitReport = new ArrayList<>();
+        if (continuing) {
+            limitReport.addAll(phases.report(config, workersDone));
+        }
+        limitReport.addAll(rateLimitTimeline.report(timeSeries, Math.min(numThreads, config.getMaxConnections()),
+                keys != null ? keys.size() : 1));
+
+        int inFlight = Math.min(numThreads, config.getMaxConnections());
+        List<String> endpointReport = new ArrayList<>(requestPhases.report(config.getTransportMode()));
+        endpointReport.addAll(scenario.report(testStart, inFlight));
+        if (keys != null) {
+            endpointReport.addAll(keys.report(testStart, inFlight));
+        }
+        return new TestResult(config, successCount(), rateLimitedCount(), otherErrors(),
+                successLatency.snapshot(), rateLimitedLatency.snapshot(), otherLatency.snapshot(),
+                estimatedRPM, testEnd - testStart, setupNanos, teardownNanos,
+                loadReport, timeSeries.report(),
+                sampler.report(numThreads, config.getExecutionMode()), List.of(),
+                endpointReport, bodies.report(),
+                limitReport);
+    }
+
+    class RequestWorker implements Runnable {
+        private final int user;
+        private final String name;
+        private final HttpTransport transport;
+        private final int maxRequests;
+        private final int delayMs;
+        private final ArrivalRateScheduler schedule;
+        // One per endpoint, rendered anew for every request; one send at a
+        // time per worker
+        private final byte[][] bodies = scenario.newBodies();
+        private long position;
+        // Null after a failed request
+        private TransportResponse lastResponse;
+        private int consecutive429s;
+
+        // schedule is null for the closed-loop model
+        // user numbers from 1 and names the worker "User-N"
+        public RequestWorker(int user, HttpTransport transport, int maxRequests, int delayMs,
+                             ArrivalRateScheduler schedule) {
+            this.user = user;
+            this.name = "User-" + user;
+            this.transport = transport;
+            this.maxRequests = maxRequests;
+            this.delayMs = delayMs;
+            this.schedule = schedule;
+        }
+
+        @Override
+        public void run() {
+            if (schedule == null) {
+                // Users join as the load profile's level reaches them
+                long startAt = stages.userStartNanos(user, config.getThreads());
+                if (startAt < deadlineNanos && startAt > System.nanoTime()) {
+                    pauseUntil(startAt);
+                    if (!stopAll) {
+                        listener.onEvent(String.format("[%s] Joined at t=%.1fs.\n", name,
+                                (System.nanoTime() - stages.runStartNanos()) / 1e9));
+                    }
+                }
+                if (startAt < deadlineNanos) {
+                    runClosedLoop();
+                }
+            } else {
+                runOpenModel();
+            }
+            listener.onEvent(String.format("[%s] Thread finished.\n", name));
+        }
+
+        // A timed run ignores the request count
+        private void runClosedLoop() {
+            boolean timed = config.isTimed();
+            for (int i = 0; timed ? System.nanoTime() < deadlineNanos : i < maxRequests; i++) {
+                if (stopAll) {
+                    listener.onEvent(String.format("[%s] Stopped due to global rate limit.\n", name));
+                    break;
+                }
+                if (!sendRequest(position++, 0)) {
+                    break;
+                }
+
+                consecutive429s = lastResponse != null && lastResponse.statusCode() == 429 ? consecutive429s + 1 : 0;
+                pause(waitAfter(lastResponse, consecutive429s, delayMs));
+            }
+        }
+
+        // Sends whenever the next scheduled slot falls due, independent of how
+        // long earlier responses took
+        private void runOpenModel() {
+            long slot;
+            while ((slot = schedule.claim()) >= 0) {
+                long scheduledNanos;
+                try {
+                    scheduledNanos = awaitSlot(schedule, slot);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (stopAll) {
+                    listener.onEvent(String.format("[%s] Stopped due to global rate limit.\n", name));
+                    break;
+                }
+                if (!sendRequest(slot, scheduledNanos)) {
+                    break;
+                }
+            }
+        }
+
+        // Returns false when this worker should stop sending. In the open model
+        // latency is measured from the scheduled send time, so time spent
+        // waiting for a free user is not hidden (coordinated omission); in the
+        // closed loop the configured delay is the expected interval instead.
+        boolean sendRequest(long position, long scheduledNanos) {
+            int endpoint = scenario.pick(position);
+            int key = pickKey(user);
+            if (endpoint < 0 || key == KEYS_LIMITED) {
+                return false;
+            }
+            RequestTemplate request = template(endpoint, key);
+            long start = System.nanoTime();
+            lastResponse = null;
+            try {
+                TransportResponse response = transport.send(request, request.render(bodies[endpoint]));
+                lastResponse = response;
+                return recordResponse(name, user, endpoint, key, response, start, scheduledNanos, delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception e) {
+                recordFailure(name, user, endpoint, key, e, start);
+                // An abandoned exchange may still hold the old buffer
+                bodies[endpoint] = request.newBody();
+            }
+            return true;
+        }
+    }
+
+    // The key for a user's next request: NO_KEY without a key file,
+    // KEYS_LIMITED when the user's key, or every key, is out
+    private int pickKey(int user) {
+        if (keys == null) return NO_KEY;
+        int key = keys.pick(user);
+        return key < 0 ? KEYS_LIMITED : key;
+    }
+
+    private RequestTemplate template(int endpoint, int key) {
+        return key == NO_KEY ? scenario.targets[endpoint].template : keys.template(endpoint, key);
+    }
+
+    // The wait before a sender's next request: the configured delay, or the
+    // backoff after its consecutive-th 429 in a row when that is longer
+    private long waitAfter(TransportResponse response, int consecutive, int delayMs) {
+        if (consecutive == 0 || config.getBackoff() == Backoff.NONE) return delayMs;
+        long backoff = config.getBackoff().waitMillis(consecutive, response.rateLimit(), System.currentTimeMillis(),
+                config.getBackoffMs(), config.getBackoffMaxMs());
+        phases.recordBackoff(backoff);
+        return Math.max(delayMs, backoff);
+    }
+
+    private void pause(long millis) {
+        pauseUntil(System.nanoTime() + millis * 1_000_000L);
+    }
+
+    // Parks until the given System.nanoTime(), cut short by stop() and at the
+    // end of a timed run. Parking to a deadline wakes within microseconds of
+    // it, where repeated sleeps drift by up to a millisecond each.
+    private void pauseUntil(long until) {
+        until = Math.min(until, deadlineNanos);
+        long now = System.nanoTime();
+        if (now >= until) return;
+        while (!stopAll && now < until) {
+            LockSupport.parkNanos(Math.min(100_000_000L, until - now));
+            // Interrupts are ignored, as stop() is the way to end a run
+            Thread.interrupted();
+            now = System.nanoTime();
+        }
+        if (!stopAll) {
+            sampler.recordWakeLag(now - until);
+        }
+    }
+
+    // Parks until the slot is due. Waking late is the client's lag; a slot
+    // already overdue when claimed is backlog, which the schedule reports.
+    private long awaitSlot(ArrivalRateScheduler schedule, long slot) throws InterruptedException {
+        boolean parks = System.nanoTime() < schedule.scheduledTime(slot);
+        long due = schedule.awaitSlot(slot);
+        if (parks) {
+            sampler.recordWakeLag(System.nanoTime() - due);
+        }
+        return due;
+    }
+
+    // Records one response that arrived now for a request sent at start.
+    // user is 1 and up for a simulated user, 0 for the async dispatcher.
+    // Returns false when the sender should stop.
+    private boolean recordResponse(String name, int user, int endpoint, int key, TransportResponse response, long start,
+                                   long scheduledNanos, int delayMs) {
+        long end = System.nanoTime();
+        double duration = (end - start) / 1e6;
+        long latencyNanos = end - (scheduledNanos != 0 ? scheduledNanos : start);
+        long expectedIntervalNanos = scheduledNanos != 0 ? 0 : delayMs * 1_000_000L;
+        int responseCode = response.bodyError() != null ? INVALID_BODY : response.statusCode();
+        LatencyRecorder recorder = responseCode == 200 ? successLatency
+                : responseCode == 429 ? rateLimitedLatency : otherLatency;
+        recorder.record(latencyNanos, expectedIntervalNanos);
+        timeSeries.record(responseCode, latencyNanos);
+        if (response.phases() != null) {
+            requestPhases.record(responseCode == 200 ? TimeSeriesCounters.SUCCESS
+                    : responseCode == 429 ? TimeSeriesCounters.RATE_LIMITED : TimeSeriesCounters.ERRORS, response.phases());
+        }
+        rateLimitTimeline.record(response.rateLimit(), end);
+        stages.record(responseCode, scheduledNanos != 0 ? scheduledNanos : start, latencyNanos, expectedIntervalNanos);
+        if (continuing) {
+            phases.record(responseCode, scheduledNanos != 0 ? scheduledNanos : start, end, latencyNanos,
+                    expectedIntervalNanos);
+        }
+        String target = logTarget(endpoint, key);
+        if (scenario.isMulti()) {
+            scenario.record(endpoint, responseCode, latencyNanos);
+        }
+        if (key != NO_KEY) {
+            keys.record(key, responseCode, latencyNanos);
+        }
+        if (runRecorder != null) {
+            runRecorder.record(scheduledNanos != 0 ? scheduledNanos : start, latencyNanos, response.statusCode(),
+                    responseCode == INVALID_BODY ? RunRecorder.FLAG_INVALID_BODY : 0, endpoint, user,
+                    response.bodyBytes());
+        }
+
+        if (responseCode == INVALID_BODY) {
+            listener.onEvent(String.format("[X] %s%s - HTTP %d but %s (%.1f ms)\n", name, target,
+                    response.statusCode(), response.bodyError(), duration));
+        } else if (responseCode == 200) {
+            listener.onEvent(String.format("[✓] %s%s - 200 OK (%.1f ms)\n", name, target, duration));
+        } else if (responseCode == 429) {
+            long now = System.currentTimeMillis();
+            boolean firstOfRun = false;
+            // Only 429s racing for the run's first take the lock
+            if (first429Time == null) {
+                synchronized (this) {
+                    if (first429Time == null) {
+                        first429Time = now;
+                        successBefore429 = timeSeries.total(TimeSeriesCounters.SUCCESS);
+                        firstOfRun = true;
+                    }
+                }
+            }
+            if (key != NO_KEY) {
+                return keyLimited(name, endpoint, key, target, now, firstOfRun, duration);
+            }
+            // With several endpoints only this one leaves the rotation; the
+            // run stops when the last one does. Unless it continues.
+            boolean limitedNow = scenario.markLimited(endpoint, now, !continuing);
+            if (continuing) {
+                if (firstOfRun) {
+                    listener.onRateLimited();
+                }
+                listener.onEvent(String.format("[⚠] %s%s - 429 Rate Limited%s (%.1f ms)\n", name, target,
+                        limitedNow ? " - first for this endpoint, continuing" : "", duration));
+                return true;
+            }
+            boolean stopRun = limitedNow && scenario.allLimited();
+            if (stopRun) {
+                listener.onRateLimited();
+            }
+            if (!scenario.isMulti()) {
+                listener.onEvent(String.format("[⚠] %s - 429 Rate Limited - Stopping all threads (%.1f ms)\n", name, duration));
+            } else if (stopRun) {
+                listener.onEvent(String.format("[⚠] %s%s - 429 Rate Limited - Every endpoint limited, stopping all threads (%.1f ms)\n",
+                        name, target, duration));
+            } else {
+                listener.onEvent(String.format("[⚠] %s%s - 429 Rate Limited%s (%.1f ms)\n", name, target,
+                        limitedNow ? " - Endpoint paused" : "", duration));
+            }
+            if (scenario.allLimited()) {
+                stopAll = true;
+                return false;
+            }
+        } else {
+            listener.onEvent(String.format("[X] %s%s - HTTP %d (%.1f ms)\n", name, target, responseCode, duration));
+        }
+        return true;
+    }
+
+    // With a key file a 429 takes the key out of the rotation instead of the
+    // endpoint; the run stops when the last key is limited. Unless it
+    // continues.
+    private boolean keyLimited(String name, int endpoint, int key, String target, long now, boolean firstOfRun,
+                               double duration) {
+        scenario.markLimited(endpoint, now, false);
+        boolean limitedNow = keys.markLimited(key, now);
+        boolean stopRun = !continuing && limitedNow && keys.allLimited();
+        if (continuing ? firstOfRun : stopRun) {
+            listener.onRateLimited();
+        }
+        if (stopRun) {
+            listener.onEvent(String.format("[⚠] %s%s - 429 Rate Limited - Every key limited, stopping all threads (%.1f ms)\n",
+                    name, target, duration));
+        } else {
+            listener.onEvent(String.format("[⚠] %s%s - 429 Rate Limited%s (%.1f ms)\n", name, target,
+                    !limitedNow ? "" : continuing ? " - first for this key, continuing" : " - Key paused", duration));
+        }
+        if (!continuing && keys.allLimited()) {
+            stopAll = true;
+            return false;
+        }
+        return true;
+    }
+
+    private String logTarget(int endpoint, int key) {
+        String suffix = scenario.targets[endpoint].logSuffix;
+        return key == NO_KEY ? suffix : suffix + " key#" + (key + 1);
+    }
+
+    private void recordFailure(String name, int user, int endpoint, int key, Throwable e, long start) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        timeSeries.record(-1, 0);
+        stages.record(-1, start, 0, 0);
+        if (continuing) {
+            phases.record(-1, start, System.nanoTime(), 0, 0);
+        }
+        if (runRecorder != null) {
+            runRecorder.record(start, System.nanoTime() - start, 0, RunRecorder.FLAG_FAILED, endpoint, user, -1);
+        }
+        if (scenario.isMulti()) {
+            scenario.recordFailure(endpoint);
+        }
+        if (key != NO_KEY) {
+            keys.recordFailure(key);
+        }
+        listener.onEvent(String.format("[!] %s%s - Error: %s\n", name, logTarget(endpoint, key), e.getMessage()));
+    }
+
+    // Drives every simulated user from callbacks instead of threads: a user
+    // is a chain of sendAsync calls, and the configured delay is a timer
+    // rather than a sleeping thread. The open model uses one dispatcher
+    // thread that issues each slot as it falls due, with at most one
+    // request in flight per user.
+    class AsyncDriver {
+        private final HttpTransport transport;
+        private final ArrivalRateScheduler schedule;
+        // Open model: per endpoint, bodies of completed sends reused by the next slots
+        private final List<Queue<byte[]>> freeBodies = new ArrayList<>();
+        private final int users = config.getThreads();
+        private final int delayMs = config.getDelayMs();
+        private final CountDownLatch usersDone = new CountDownLatch(users);
+        private final Semaphore freeUsers = new Semaphore(users);
+        private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("async-timer").daemon().factory());
+        private Thread dispatcher;
+
+        AsyncDriver(HttpTransport transport, ArrivalRateScheduler schedule) {
+            this.transport = transport;
+            this.schedule = schedule;
+            for (int i = 0; i < scenario.targets.length; i++) {
+                freeBodies.add(new ConcurrentLinkedQueue<>());
+            }
+        }
+
+        void start() {
+            if (schedule == null) {
+                for (int i = 0; i < users; i++) {
+                    AsyncUser user = new AsyncUser(i + 1, config.isTimed() ? Integer.MAX_VALUE : config.getRequestsPerThread());
+                    // Users join as the load profile's level reaches them
+                    long startAt = stages.userStartNanos(user.id, users);
+                    if (startAt < deadlineNanos) {
+                        join(user, startAt);
+                    } else {
+                        usersDone.countDown();
+                    }
+                }
+            } else {
+                dispatcher = Thread.ofPlatform().name("async-dispatcher").start(this::dispatch);
+            }
+        }
+
+        void awaitDone() {
+            try {
+                if (schedule == null) {
+                    usersDone.await();
+                } else {
+                    dispatcher.join();
+                    // Every user is free again once the last response is in
+                    freeUsers.acquire(users);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopAll = true;
+            } finally {
+                timer.shutdownNow();
+            }
+        }
+
+        // Starts the user at startAt, waiting in slices so that stop() does
+        // not wait for the rest of a ramp-up
+        private void join(AsyncUser user, long startAt) {
+            long delay = startAt - System.nanoTime();
+            if (delay <= 0 || stopAll) {
+                sendNext(user);
+            } else {
+                timer.schedule(() -> join(user, startAt), Math.min(delay, 100_000_000L), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void sendNext(AsyncUser user) {
+            int endpoint = user.remaining == 0 || stopAll || System.nanoTime() >= deadlineNanos
+                    ? -1 : scenario.pick(user.position++);
+            int key = endpoint < 0 ? NO_KEY : pickKey(user.id);
+            if (endpoint < 0 || key == KEYS_LIMITED) {
+                if (stopAll && user.remaining > 0) {
+                    listener.onEvent(String.format("[%s] Stopped due to global rate limit.\n", user.name));
+                }
+                listener.onEvent(String.format("[%s] Finished.\n", user.name));
+                usersDone.countDown();
+                return;
+            }
+            RequestTemplate request = template(endpoint, key);
+            long start = System.nanoTime();
+            transport.sendAsync(request, request.render(user.bodies[endpoint])).whenComplete((response, error) -> {
+                boolean more = true;
+                if (error != null) {
+                    recordFailure(user.name, user.id, endpoint, key, error, start);
+                    user.bodies[endpoint] = request.newBody();
+                } else {
+                    more = recordResponse(user.name, user.id, endpoint, key, response, start, 0, delayMs);
+                }
+                user.remaining = more ? user.remaining - 1 : 0;
+                user.consecutive429s = error == null && response.statusCode() == 429 ? user.consecutive429s + 1 : 0;
+                long wait = waitAfter(response, user.consecutive429s, delayMs);
+                if (config.isTimed()) {
+                    wait = Math.min(wait, Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000));
+                }
+                if (wait > 0 && user.remaining > 0) {
+                    long due = System.nanoTime() + wait * 1_000_000L;
+                    timer.schedule(() -> {
+                        sampler.recordWakeLag(System.nanoTime() - due);
+                        sendNext(user);
+                    }, wait, TimeUnit.MILLISECONDS);
+                } else if (error != null) {
+                    // A send that failed at once completes on this stack, so
+                    // carrying on here would recurse once per request
+                    timer.execute(() -> sendNext(user));
+                } else {
+                    sendNext(user);
+                }
+            });
+        }
+
+        private void dispatch() {
+            long slot;
+            try {
+                while ((slot = schedule.claim()) >= 0) {
+                    long scheduledNanos = awaitSlot(schedule, slot);
+                    // Waiting here for a free user shows up as send lag and backlog
+                    freeUsers.acquire();
+                    int endpoint = stopAll ? -1 : scenario.pick(slot);
+                    int key = endpoint < 0 ? NO_KEY : pickKey(0);
+                    if (endpoint < 0 || key == KEYS_LIMITED) {
+                        freeUsers.release();
+                        listener.onEvent("[dispatcher] Stopped due to global rate limit.\n");
+                        return;
+                    }
+                    long start = System.nanoTime();
+                    String name = "Slot-" + slot;
+                    RequestTemplate request = template(endpoint, key);
+                    Queue<byte[]> free = freeBodies.get(endpoint);
+                    byte[] reused = free.poll();
+                    byte[] body = reused != null ? reused : request.newBody();
+                    transport.sendAsync(request, request.render(body)).whenComplete((response, error) -> {
+                        if (error != null) {
+                            recordFailure(name, 0, endpoint, key, error, start);
+                        } else {
+                            recordResponse(name, 0, endpoint, key, response, start, scheduledNanos, 0);
+                            if (body != null) {
+                                free.offer(body);
+                            }
+                        }
+                        freeUsers.release();
+                    });
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // One closed-loop user of the async driver; only touched by the
+    // callback of its single in-flight request
+    private final class AsyncUser {
+        final int id;
+        final String name;
+        final byte[][] bodies = scenario.newBodies();
+        int remaining;
+        long position;
+        int consecutive429s;
+
+        AsyncUser(int id, int remaining) {
+            this.id = id;
+            this.name = "User-" + id;
+            this.remaining = remaining;
+        }
+    }
+}
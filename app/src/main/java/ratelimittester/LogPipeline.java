@@ -0,0 +1,123 @@
+package ratelimittester;
+
+import java.awt.Color;
+import javax.swing.JLabel;
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.text.BadLocationException;
+
+// Moves log lines from worker threads to the output area. Workers push into a
+// LogRingBuffer; a Swing timer drains it once per frame and applies the whole
+// batch as a single append, then trims the view to the last maxLines lines,
+// so the cost on the EDT stays flat however fast requests complete.
+public class LogPipeline {
+
+    private static final int FRAME_MS = 75;
+    static final int MAX_LINES_PER_FRAME = 4096;
+
+    private final LogRingBuffer buffer;
+    private final JTextArea outputArea;
+    private final JLabel droppedLabel;
+    private final int maxLines;
+    private final Color successColor;
+    private final Color errorColor;
+    private final Color warningColor;
+    private final StringBuilder batch = new StringBuilder();
+    private final Timer timer;
+
+    public LogPipeline(JTextArea outputArea, JLabel droppedLabel, int capacity, int maxLines,
+                       Color successColor, Color errorColor, Color warningColor) {
+        this.buffer = new LogRingBuffer(capacity);
+        this.outputArea = outputArea;
+        this.droppedLabel = droppedLabel;
+        this.maxLines = maxLines;
+        this.successColor = successColor;
+        this.errorColor = errorColor;
+        this.warningColor = warningColor;
+        this.timer = new Timer(FRAME_MS, e -> flush());
+        this.timer.setCoalesce(true);
+    }
+
+    public void start() {
+        timer.start();
+    }
+
+    // Hot path: never blocks, drops the line when the buffer is full
+    public void offer(String line) {
+        buffer.offer(line);
+    }
+
+    // For status and summary lines that must not be lost: waits for space
+    public void put(String line) {
+        while (!buffer.offer(line)) {
+            if (SwingUtilities.isEventDispatchThread()) {
+                flush();
+            } else {
+                try {
+                    Thread.sleep(FRAME_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // EDT only
+    public void clear() {
+        buffer.clear();
+        outputArea.setText("");
+        droppedLabel.setText(" ");
+    }
+
+    public int queuedLines() {
+        return buffer.size();
+    }
+
+    public long droppedLines() {
+        return buffer.droppedCount();
+    }
+
+    // EDT only
+    void flush() {
+        batch.setLength(0);
+        if (buffer.drainTo(batch, MAX_LINES_PER_FRAME) > 0) {
+            outputArea.setForeground(colorFor(lastLine(batch)));
+            outputArea.append(batch.toString());
+            trim();
+            outputArea.setCaretPosition(outputArea.getDocument().getLength());
+        }
+        long dropped = buffer.droppedCount();
+        if (dropped > 0) {
+            droppedLabel.setText(String.format("Dropped %,d log lines (buffer full); showing last %,d lines", dropped, maxLines));
+        }
+    }
+
+    private void trim() {
+        int excess = outputArea.getLineCount() - maxLines;
+        if (excess <= 0) return;
+        try {
+            outputArea.replaceRange(null, 0, outputArea.getLineEndOffset(excess - 1));
+        } catch (BadLocationException ignored) {
+        }
+    }
+
+    private static String lastLine(StringBuilder text) {
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) == '\n') end--;
+        int start = text.lastIndexOf("\n", end - 1) + 1;
+        return text.substring(start, end);
+    }
+
+    private Color colorFor(String line) {
+        if (line.contains("[✓]")) {
+            return successColor;
+        } else if (line.contains("[⚠]") || line.contains("[X]")) {
+            return errorColor;
+        } else if (line.contains("[!]")) {
+            return warningColor;
+        }
+        return Color.BLACK;
+    }
+}
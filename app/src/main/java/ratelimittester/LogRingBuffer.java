@@ -0,0 +1,77 @@
+package ratelimittester;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded multi-producer, single-consumer ring of log lines. Producers never
+// block: when the ring is full the line is dropped and counted instead.
+public class LogRingBuffer {
+
+    private final AtomicReferenceArray<String> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    public LogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    public boolean offer(String line) {
+        long t;
+        do {
+            t = tail.get();
+            if (t - head.get() >= slots.length()) {
+                dropped.increment();
+                return false;
+            }
+        } while (!tail.compareAndSet(t, t + 1));
+        slots.lazySet((int) (t & mask), line);
+        return true;
+    }
+
+    // Consumer only. Appends up to maxLines published lines and returns how
+    // many were taken.
+    public int drainTo(StringBuilder target, int maxLines) {
+        long h = head.get();
+        int taken = 0;
+        while (taken < maxLines) {
+            int index = (int) (h & mask);
+            String line = slots.get(index);
+            if (line == null) {
+                // Empty, or claimed by a producer that has not published yet
+                break;
+            }
+            slots.lazySet(index, null);
+            target.append(line);
+            h++;
+            taken++;
+        }
+        head.lazySet(h);
+        return taken;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    // Consumer only: discard everything queued and reset the drop counter
+    public void clear() {
+        StringBuilder discard = new StringBuilder();
+        while (drainTo(discard, slots.length()) > 0) {
+            discard.setLength(0);
+        }
+        dropped.reset();
+    }
+}
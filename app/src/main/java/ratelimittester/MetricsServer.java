@@ -0,0 +1,192 @@
+package ratelimittester;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Serves a running engine's live metrics at /metrics in the OpenMetrics text
+// format, or Prometheus' older text format to scrapers that do not ask for
+// OpenMetrics. A scrape reads the engine's counters and latency recorders
+// the way the progress views do, without locks the workers take, and is
+// answered on one thread of its own.
+final class MetricsServer implements AutoCloseable {
+
+    static final String PATH = "/metrics";
+    private static final String OPENMETRICS_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    private static final String PROMETHEUS_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    // Upper bounds of the latency histogram buckets, in seconds
+    private static final double[] BUCKETS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    private static final String[] STATUSES = {"200", "429", "other"};
+    private static final int[] FIELDS = {TimeSeriesCounters.SUCCESS, TimeSeriesCounters.RATE_LIMITED,
+            TimeSeriesCounters.ERRORS};
+
+    private final LoadTestEngine engine;
+    private final TestConfig config;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("metrics-server").daemon().factory());
+
+    private MetricsServer(LoadTestEngine engine, TestConfig config, InetSocketAddress address) throws IOException {
+        this.engine = engine;
+        this.config = config;
+        server = HttpServer.create(address, 16);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    static MetricsServer start(LoadTestEngine engine, TestConfig config, InetSocketAddress address) throws IOException {
+        MetricsServer metrics = new MetricsServer(engine, config, address);
+        metrics.server.start();
+        return metrics;
+    }
+
+    String url() {
+        InetSocketAddress address = server.getAddress();
+        String host = address.getAddress().getHostAddress();
+        return "http://" + (host.contains(":") ? "[" + host + "]" : host) + ":" + address.getPort() + PATH;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!PATH.equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            String accept = exchange.getRequestHeaders().getFirst("Accept");
+            boolean openMetrics = accept != null && accept.contains("application/openmetrics-text");
+            byte[] body = scrape(openMetrics).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", openMetrics ? OPENMETRICS_TYPE : PROMETHEUS_TYPE);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    String scrape(boolean openMetrics) {
+        StringBuilder out = new StringBuilder(4096);
+        // The older format has no info type; a gauge of 1 is its convention
+        header(out, openMetrics ? "ratelimit_tester_run" : "ratelimit_tester_run_info", openMetrics ? "info" : "gauge",
+                "The run's configuration");
+        out.append("ratelimit_tester_run_info{execution=\"").append(escape(config.getExecutionMode().name()))
+                .append("\",transport=\"").append(escape(config.getTransportMode().name()))
+                .append("\",model=\"").append(escape(config.getLoadModel().name()))
+                .append("\",profile=\"").append(escape(config.getLoadProfile().name()))
+                .append("\"} 1\n");
+
+        long startMillis = engine.testStartMillis();
+        if (startMillis > 0) {
+            header(out, "ratelimit_tester_start_time_seconds", "gauge", "Wall-clock time the run started");
+            sample(out, "ratelimit_tester_start_time_seconds", "", startMillis / 1000.0);
+        }
+
+        TimeSeriesCounters series = engine.timeSeries();
+        String requests = openMetrics ? "ratelimit_tester_requests" : "ratelimit_tester_requests_total";
+        header(out, requests, "counter", "Requests completed, by status; other includes failures without a response");
+        for (int i = 0; i < STATUSES.length; i++) {
+            sample(out, "ratelimit_tester_requests_total", label(STATUSES[i]), series.total(FIELDS[i]));
+        }
+
+        // Seconds are complete only once harvested, a few seconds behind
+        header(out, "ratelimit_tester_request_rate", "gauge", "Requests per second in the last complete second, by status");
+        long second = series.lastHarvestedSecond();
+        long[] row = new long[TimeSeriesCounters.FIELDS];
+        boolean harvested = second >= 0 && series.copyHistory(second, second + 1, row) == 1;
+        for (int i = 0; i < STATUSES.length; i++) {
+            sample(out, "ratelimit_tester_request_rate", label(STATUSES[i]), harvested ? row[FIELDS[i]] : 0);
+        }
+
+        header(out, "ratelimit_tester_latency_seconds", "histogram",
+                "Request latency by status, with the samples coordinated omission would hide");
+        LatencyHistogram latency = new LatencyHistogram();
+        for (int i = 0; i < STATUSES.length; i++) {
+            latency.reset();
+            engine.latencySnapshotInto(FIELDS[i], latency);
+            for (double bound : BUCKETS) {
+                sample(out, "ratelimit_tester_latency_seconds_bucket",
+                        label(STATUSES[i]) + ",le=\"" + format(bound) + "\"", latency.countAtOrBelow((long) (bound * 1e9)));
+            }
+            // The count is the last bucket's, so the two agree even when a
+            // recording lands midway through the snapshot
+            long count = latency.countAtOrBelow(Long.MAX_VALUE);
+            sample(out, "ratelimit_tester_latency_seconds_bucket", label(STATUSES[i]) + ",le=\"+Inf\"", count);
+            sample(out, "ratelimit_tester_latency_seconds_count", label(STATUSES[i]), count);
+            sample(out, "ratelimit_tester_latency_seconds_sum", label(STATUSES[i]), latency.totalNanos() / 1e9);
+        }
+
+        // Count and sum only: the phases would be eighteen histograms
+        header(out, "ratelimit_tester_phase_seconds", "summary",
+                "Time in each phase of a request, by status, without coordinated omission correction");
+        for (RequestPhases.Phase phase : RequestPhases.Phase.values()) {
+            for (int i = 0; i < STATUSES.length; i++) {
+                LatencyRecorder recorder = engine.requestPhases().recorder(phase, FIELDS[i]);
+                long count = recorder.count();
+                if (count == 0) continue;
+                String labels = "phase=\"" + phase.name().toLowerCase() + "\"," + label(STATUSES[i]);
+                sample(out, "ratelimit_tester_phase_seconds_count", labels, count);
+                sample(out, "ratelimit_tester_phase_seconds_sum", labels, recorder.totalNanos() / 1e9);
+            }
+        }
+
+        ResourceSampler sampler = engine.resourceSampler();
+        if (sampler != null) {
+            header(out, "ratelimit_tester_client_cpu_ratio", "gauge", "Share of all cores the tester used in the last second");
+            sample(out, "ratelimit_tester_client_cpu_ratio", "", sampler.cpuShare());
+            header(out, "ratelimit_tester_client_gc_ratio", "gauge", "Share of the last second the tester spent in GC");
+            sample(out, "ratelimit_tester_client_gc_ratio", "", sampler.gcShare());
+        }
+        if (openMetrics) {
+            out.append("# EOF\n");
+        }
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static String label(String status) {
+        return "status=\"" + status + "\"";
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return Double.toString(value);
+        // Plain decimals: 1792296579.038, not 1.792296579038E9
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value)
+                : BigDecimal.valueOf(value).toPlainString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,11 @@
+package ratelimittester;
+
+// Where one exchange's time went, in nanoseconds, as its transport saw it.
+// A phase is NOT_SEEN when it did not happen (no TLS for plain HTTP) or the
+// transport cannot see it: the pooled transports leave DNS, connect and TLS
+// to the HTTP client, so a new connection's setup is part of first byte.
+public record PhaseTimes(long poolWaitNanos, long dnsNanos, long connectNanos, long tlsNanos, long firstByteNanos,
+                         long transferNanos) {
+
+    public static final long NOT_SEEN = -1;
+}
@@ -0,0 +1,243 @@
+package ratelimittester;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+
+// java.net.http.HttpClient with a bounded connection pool. With HTTP/1.1 each
+// in-flight request holds one kept-alive connection, so at most
+// maxConnections sockets are ever open. With HTTP/2 requests are multiplexed
+// as streams over a shared connection and the limit caps in-flight streams.
+public class PooledHttpTransport implements HttpTransport {
+
+    static {
+        // Read once by the JDK when the first client is built; idle connections
+        // beyond this are closed instead of being returned to the pool.
+        if (System.getProperty("jdk.httpclient.connectionPoolSize") == null) {
+            System.setProperty("jdk.httpclient.connectionPoolSize", "1024");
+        }
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout", "30");
+        }
+    }
+
+    private final HttpClient client;
+    private final Semaphore permits;
+    // Async sends waiting for a permit; started as earlier ones complete
+    private final Queue<Runnable> pendingAsync = new ConcurrentLinkedQueue<>();
+    private final Duration readTimeout = Duration.ofMillis(READ_TIMEOUT_MS);
+    // Consumes the body so the connection can go back to the pool; the
+    // response's body is the completed scan, null when discarding
+    private final HttpResponse.BodyHandler<BodyInspector.Scan> bodyHandler;
+
+    public PooledHttpTransport(boolean http2, int maxConnections) {
+        this(http2, maxConnections, null);
+    }
+
+    public PooledHttpTransport(boolean http2, int maxConnections, InetAddress sourceAddress) {
+        this(http2, maxConnections, sourceAddress, null);
+    }
+
+    public PooledHttpTransport(boolean http2, int maxConnections, InetAddress sourceAddress, Executor asyncExecutor) {
+        this(http2, maxConnections, sourceAddress, asyncExecutor, null);
+    }
+
+    PooledHttpTransport(boolean http2, int maxConnections, InetAddress sourceAddress, Executor asyncExecutor,
+                        BodyInspector bodies) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("maxConnections must be positive");
+        }
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT_MS))
+                .followRedirects(HttpClient.Redirect.NEVER);
+        if (sourceAddress != null) {
+            builder.localAddress(sourceAddress);
+        }
+        if (asyncExecutor != null) {
+            builder.executor(asyncExecutor);
+        }
+        this.client = builder.build();
+        this.permits = new Semaphore(maxConnections, true);
+        this.bodyHandler = bodies == null || bodies.discards()
+                ? HttpResponse.BodyHandlers.replacing(null)
+                : info -> HttpResponse.BodySubscribers.fromSubscriber(
+                        new ScanSubscriber(bodies.begin(info.statusCode())), subscriber -> subscriber.scan);
+    }
+
+    @Override
+    public TransportResponse send(RequestTemplate template, byte[] body) throws IOException, InterruptedException {
+        HttpRequest request = buildRequest(template, body);
+        Exchange exchange = new Exchange();
+        permits.acquire();
+        try {
+            exchange.sentAt = System.nanoTime();
+            return toResponse(client.send(request, exchange), exchange);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Never blocks: when every permit is taken the send is queued and started
+    // by whichever in-flight request completes first
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(RequestTemplate template, byte[] body) {
+        // A request the client refuses fails like any other, through the
+        // future: callers count users down only on completion
+        HttpRequest request;
+        try {
+            request = buildRequest(template, body);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+        Exchange exchange = new Exchange();
+        pendingAsync.add(() -> {
+            exchange.sentAt = System.nanoTime();
+            CompletableFuture<HttpResponse<BodyInspector.Scan>> sent;
+            try {
+                sent = client.sendAsync(request, exchange);
+            } catch (RuntimeException e) {
+                // startPendingAsync took a permit for this send
+                permits.release();
+                result.completeExceptionally(e);
+                return;
+            }
+            sent.whenComplete((response, error) -> {
+                permits.release();
+                startPendingAsync();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                    return;
+                }
+                // An exception thrown here would be lost, leaving the caller
+                // waiting forever
+                try {
+                    result.complete(toResponse(response, exchange));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        });
+        startPendingAsync();
+        return result;
+    }
+
+    // A discarded body's size is taken from Content-Length, when sent
+    private static TransportResponse toResponse(HttpResponse<BodyInspector.Scan> response, Exchange exchange) {
+        PhaseTimes phases = exchange.phases(System.nanoTime());
+        RateLimitHeaders rateLimit = RateLimitHeaders.parse(
+                name -> response.headers().firstValue(name).orElse(null), System.currentTimeMillis());
+        BodyInspector.Scan scan = response.body();
+        if (scan == null) {
+            return new TransportResponse(response.statusCode(), rateLimit, null,
+                    response.headers().firstValueAsLong("Content-Length").orElse(-1), phases);
+        }
+        return new TransportResponse(response.statusCode(), rateLimit, scan.finish(), scan.size(), phases);
+    }
+
+    private void startPendingAsync() {
+        while (!pendingAsync.isEmpty() && permits.tryAcquire()) {
+            Runnable send = pendingAsync.poll();
+            if (send == null) {
+                permits.release();
+            } else {
+                send.run();
+            }
+        }
+    }
+
+    // Package-private so the benchmarks can time it on its own. An
+    // HttpRequest can be sent any number of times, so a static template is
+    // built once and then reused; it is kept on the template, so endpoints
+    // and credential variants each keep theirs.
+    HttpRequest buildRequest(RequestTemplate template, byte[] body) {
+        if (template.isStatic()) {
+            HttpRequest cached = template.prebuilt;
+            if (cached == null) {
+                cached = newRequest(template, body);
+                template.prebuilt = cached;
+            }
+            return cached;
+        }
+        return newRequest(template, body);
+    }
+
+    private HttpRequest newRequest(RequestTemplate template, byte[] body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(template.uri()).timeout(readTimeout);
+        String[] headers = template.headers();
+        for (int i = 0; i < headers.length; i += 2) {
+            builder.header(headers[i], headers[i + 1]);
+        }
+        builder.method(template.method(), body != null
+                ? HttpRequest.BodyPublishers.ofByteArray(body) : HttpRequest.BodyPublishers.noBody());
+        return builder.build();
+    }
+
+    // Times one exchange with System.nanoTime() marks: queued for a
+    // connection permit, sent, and response headers in, which the client
+    // reports by asking this handler for a body subscriber. The client
+    // completes the exchange after that, so the marks need no fences.
+    private final class Exchange implements HttpResponse.BodyHandler<BodyInspector.Scan> {
+        final long queuedAt = System.nanoTime();
+        long sentAt;
+        long headersAt;
+
+        @Override
+        public HttpResponse.BodySubscriber<BodyInspector.Scan> apply(HttpResponse.ResponseInfo info) {
+            headersAt = System.nanoTime();
+            return bodyHandler.apply(info);
+        }
+
+        PhaseTimes phases(long doneAt) {
+            return new PhaseTimes(sentAt - queuedAt, PhaseTimes.NOT_SEEN, PhaseTimes.NOT_SEEN, PhaseTimes.NOT_SEEN,
+                    headersAt - sentAt, doneAt - headersAt);
+        }
+    }
+
+    // Feeds each chunk to the scan as the client hands it over
+    private static final class ScanSubscriber implements Flow.Subscriber<List<ByteBuffer>> {
+        private final BodyInspector.Scan scan;
+
+        ScanSubscriber(BodyInspector.Scan scan) {
+            this.scan = scan;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> chunks) {
+            for (ByteBuffer chunk : chunks) {
+                scan.update(chunk);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            // surfaces as the send's exception
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
@@ -0,0 +1,279 @@
+package ratelimittester;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+// Load generator process for distributed runs. Waits for a coordinator
+// (the GUI or CLI with --agents), runs the configuration it pushes with a
+// local LoadTestEngine at the agreed start time and sends back the result.
+// Serves one coordinator at a time. Run several on one machine with
+// different --port and --source-address values to test per-IP limits.
+// An agent sends whatever load it is told to, so it listens on loopback
+// unless bound elsewhere, and takes a configuration only from a
+// coordinator that knows its token.
+public class RateLimitAgent {
+
+    // A coordinator has this long to send its version and token
+    private static final int HANDSHAKE_TIMEOUT_MS = 10_000;
+
+    private final InetAddress sourceAddress;
+    private final String token;
+
+    public RateLimitAgent(InetAddress sourceAddress, String token) {
+        this.sourceAddress = sourceAddress;
+        this.token = token;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = AgentProtocol.DEFAULT_PORT;
+        InetAddress bind = InetAddress.getLoopbackAddress();
+        InetAddress source = null;
+        String token = System.getenv(AgentProtocol.TOKEN_ENV);
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if ("--help".equals(arg) || "-h".equals(arg)) {
+                    printUsage();
+                    return;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--port" -> port = Integer.parseInt(value);
+                    case "--bind" -> bind = InetAddress.getByName(value);
+                    case "--source-address" -> source = InetAddress.getByName(value);
+                    case "--token" -> token = value;
+                    default -> throw new IllegalArgumentException("Unexpected argument: " + arg);
+                }
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            printUsage();
+            System.exit(TestResult.EXIT_USAGE);
+            return;
+        }
+
+        boolean generated = token == null || token.isBlank();
+        if (generated) {
+            byte[] random = new byte[16];
+            new SecureRandom().nextBytes(random);
+            token = HexFormat.of().formatHex(random);
+        }
+        RateLimitAgent agent = new RateLimitAgent(source, token);
+        try (ServerSocket server = new ServerSocket()) {
+            server.bind(new InetSocketAddress(bind, port));
+            System.out.println("Agent listening on " + server.getLocalSocketAddress()
+                    + (source != null ? ", sending from " + source.getHostAddress() : ""));
+            if (generated) {
+                System.out.println("Agent token: " + token + " (pass it to the coordinator with --agent-token)");
+            }
+            while (true) {
+                try (Socket socket = server.accept()) {
+                    agent.serve(socket);
+                } catch (IOException e) {
+                    System.out.println("Session ended: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    static void printUsage() {
+        System.out.println("Usage: java ratelimittester.RateLimitAgent [--port N] [--bind ADDRESS] [--source-address IP] [--token TOKEN]");
+        System.out.println("  --port N               port the coordinator connects to (default " + AgentProtocol.DEFAULT_PORT + ")");
+        System.out.println("  --bind ADDRESS         listen address (default loopback; 0.0.0.0 for all interfaces)");
+        System.out.println("  --source-address IP    local address for outgoing test requests");
+        System.out.println("  --token TOKEN          secret a coordinator must send (default $" + AgentProtocol.TOKEN_ENV
+                + ", else a random one printed at start)");
+    }
+
+    // Handles one coordinator session until the result has been sent
+    void serve(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        String peer = socket.getRemoteSocketAddress().toString();
+        System.out.println("Coordinator connected from " + peer);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT_MS);
+        int version = in.readInt();
+        if (version != AgentProtocol.VERSION) {
+            sendError(out, "Protocol version " + version + " not supported (agent speaks " + AgentProtocol.VERSION + ").");
+            return;
+        }
+        if (!AgentProtocol.tokenMatches(token, AgentProtocol.readToken(in))) {
+            System.out.println("Rejected " + peer + ": wrong token");
+            sendError(out, "Wrong agent token.");
+            return;
+        }
+        socket.setSoTimeout(0);
+
+        LoadTestEngine engine = null;
+        TestConfig config = null;
+        Thread runner = null;
+        try {
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case AgentProtocol.SYNC -> {
+                        in.readLong();
+                        synchronized (out) {
+                            out.writeByte(AgentProtocol.SYNC_REPLY);
+                            out.writeLong(System.currentTimeMillis());
+                            out.flush();
+                        }
+                    }
+                    case AgentProtocol.CONFIG -> {
+                        try {
+                            config = TestConfig.fromProperties(AgentProtocol.readProperties(in));
+                            config.setSourceAddress(sourceAddress);
+                            config.validate();
+                        } catch (IllegalArgumentException e) {
+                            sendError(out, e.getMessage());
+                            return;
+                        }
+                        engine = new LoadTestEngine(config, agentListener(out));
+                    }
+                    case AgentProtocol.START -> {
+                        long startAt = in.readLong();
+                        if (engine == null) {
+                            sendError(out, "START before CONFIG.");
+                            return;
+                        }
+                        System.out.printf("Running %s %s with %d users, starting in %d ms%n", config.getMethod(),
+                                config.getTargetUri(), config.getThreads(), startAt - System.currentTimeMillis());
+                        LoadTestEngine started = engine;
+                        runner = new Thread(() -> runAndReport(started, startAt, out), "agent-runner");
+                        runner.start();
+                    }
+                    case AgentProtocol.STOP -> {
+                        if (engine != null) {
+                            engine.stop();
+                        }
+                    }
+                    default -> throw new IOException("Unexpected message type " + type);
+                }
+            }
+        } catch (EOFException | SocketException e) {
+            // Coordinator closed the connection: done, or gone mid-run
+            if (engine != null) {
+                engine.stop();
+            }
+        } finally {
+            if (runner != null) {
+                try {
+                    runner.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void runAndReport(LoadTestEngine engine, long startAt, DataOutputStream out) {
+        Thread progress = null;
+        try {
+            long wait = startAt - System.currentTimeMillis();
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+            progress = new Thread(() -> sendProgress(engine, out), "agent-progress");
+            progress.setDaemon(true);
+            progress.start();
+
+            TestResult result = engine.run();
+            progress.interrupt();
+            progress.join();
+
+            TimeSeriesCounters series = engine.timeSeries();
+            long[] history = new long[series.historySeconds() * TimeSeriesCounters.FIELDS];
+            int rows = series.copyHistory(0, series.lastHarvestedSecond() + 1, history);
+            synchronized (out) {
+                out.writeByte(AgentProtocol.RESULT);
+                AgentProtocol.writeResult(out, result, engine.testStartMillis(), history, rows);
+                out.flush();
+            }
+            System.out.printf("Done: 200=%d 429=%d other=%d%n",
+                    result.successCount(), result.rateLimitedCount(), result.otherErrors());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.out.println("Could not send result: " + e.getMessage());
+        } catch (RuntimeException e) {
+            try {
+                sendError(out, e.toString());
+            } catch (IOException ignored) {
+            }
+        } finally {
+            if (progress != null) {
+                progress.interrupt();
+            }
+        }
+    }
+
+    private static void sendProgress(LoadTestEngine engine, DataOutputStream out) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(1000);
+                synchronized (out) {
+                    out.writeByte(AgentProtocol.PROGRESS);
+                    out.writeLong(engine.successCount());
+                    out.writeLong(engine.rateLimitedCount());
+                    out.writeLong(engine.otherErrors());
+                    out.flush();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                engine.stop();
+                return;
+            }
+        }
+    }
+
+    private static TestListener agentListener(DataOutputStream out) {
+        return new TestListener() {
+            @Override
+            public void onEvent(String line) {
+            }
+
+            @Override
+            public void onStatus(String line) {
+                System.out.print(line);
+            }
+
+            @Override
+            public void onRateLimited() {
+                try {
+                    synchronized (out) {
+                        out.writeByte(AgentProtocol.RATE_LIMITED);
+                        out.flush();
+                    }
+                } catch (IOException ignored) {
+                    // The result or the lost connection will tell the coordinator
+                }
+            }
+        };
+    }
+
+    private static void sendError(DataOutputStream out, String message) throws IOException {
+        System.out.println("Error: " + message);
+        synchronized (out) {
+            out.writeByte(AgentProtocol.ERROR);
+            AgentProtocol.writeString(out, message);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ratelimittester;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
+
+// Rate limit hints a server attached to a response: Retry-After and the
+// X-RateLimit-Limit / -Remaining / -Reset family (as sent by flask-limiter
+// with headers enabled). Absent values are -1.
+public record RateLimitHeaders(long limit, long remaining, long resetEpochMillis, long retryAfterMillis) {
+
+    public static final RateLimitHeaders NONE = new RateLimitHeaders(-1, -1, -1, -1);
+
+    // Values above this are absolute epoch seconds, below it delta seconds
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+
+    public static RateLimitHeaders parse(Function<String, String> header, long nowMillis) {
+        String limit = header.apply("X-RateLimit-Limit");
+        String remaining = header.apply("X-RateLimit-Remaining");
+        String reset = header.apply("X-RateLimit-Reset");
+        String retryAfter = header.apply("Retry-After");
+        if (limit == null && remaining == null && reset == null && retryAfter == null) {
+            return NONE;
+        }
+        long resetMillis = -1;
+        long resetValue = parseLong(reset);
+        if (resetValue >= 0) {
+            resetMillis = resetValue >= EPOCH_SECONDS_THRESHOLD ? resetValue * 1000 : nowMillis + resetValue * 1000;
+        }
+        return new RateLimitHeaders(parseLong(limit), parseLong(remaining), resetMillis,
+                parseRetryAfter(retryAfter, nowMillis));
+    }
+
+    public boolean isPresent() {
+        return this != NONE;
+    }
+
+    // How long the server asked us to wait, from Retry-After or the reset time
+    public long suggestedWaitMillis(long nowMillis) {
+        if (retryAfterMillis >= 0) return retryAfterMillis;
+        if (resetEpochMillis >= 0) return Math.max(0, resetEpochMillis - nowMillis);
+        return -1;
+    }
+
+    // Parsed on every response of a load run: plain digits, the usual case,
+    // without going through Double
+    private static long parseLong(String value) {
+        if (value == null) return -1;
+        int length = value.length();
+        if (length > 0 && length < 19) {
+            long result = 0;
+            int i = 0;
+            for (; i < length; i++) {
+                int digit = value.charAt(i) - '0';
+                if (digit < 0 || digit > 9) break;
+                result = result * 10 + digit;
+            }
+            if (i == length) return result;
+        }
+        try {
+            return (long) Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Retry-After is either delta seconds or an HTTP date
+    private static long parseRetryAfter(String value, long nowMillis) {
+        if (value == null) return -1;
+        long seconds = parseLong(value);
+        if (seconds >= 0) return seconds * 1000;
+        try {
+            long at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return Math.max(0, at - nowMillis);
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+}
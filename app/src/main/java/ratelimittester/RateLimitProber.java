@@ -0,0 +1,347 @@
+package ratelimittester;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+// Finds a server's rate limit by probing instead of flooding. A single
+// sender bursts until the first 429, times how long the budget takes to come
+// back (honoring Retry-After / X-RateLimit-Reset when present), and from how
+// much comes back tells window limiters from refilling buckets. Window
+// limiters are then measured directly; for buckets the sustainable rate is
+// bracketed by paced trials and narrowed by binary search. Every estimate is
+// reported with the range the measurements leave open.
+public class RateLimitProber {
+
+    private static final long MIN_POLL_NANOS = 25_000_000L;
+    private static final long MAX_POLL_NANOS = 10_000_000_000L;
+    // Retry-After and X-RateLimit-Reset are whole seconds
+    private static final long HINT_ROUNDING_MILLIS = 1000;
+    // Polls spent around a hint: at most 40 for the two seconds
+    private static final long HINT_POLL_NANOS = 50_000_000L;
+    private static final int MAX_OTHER_ERRORS = 10;
+    private static final double FULL_RESTORE = 0.8;
+    private static final double SEARCH_PRECISION = 1.1;
+    // A trial that starts with a fraction of a token left can hide a rate up
+    // to 1/TRIAL_REQUESTS too fast, so keep this in line with SEARCH_PRECISION
+    private static final int TRIAL_REQUESTS = 20;
+
+    private final TestConfig config;
+    private final TestListener listener;
+    private final RequestTemplate request;
+    private final byte[] body;
+    private final long probeIntervalNanos;
+    private final long maxWaitNanos;
+
+    private HttpTransport transport;
+    private int requestsSent;
+    private int otherErrors;
+    private RateLimitHeaders lastHeaders = RateLimitHeaders.NONE;
+    private RateLimitHeaders advertised = RateLimitHeaders.NONE;
+    private volatile boolean stopped;
+
+    public RateLimitProber(TestConfig config, TestListener listener) {
+        this.config = config;
+        this.listener = listener;
+        // A scenario is probed through its first endpoint
+        this.request = config.endpoints().get(0).compile();
+        this.body = request.newBody();
+        this.probeIntervalNanos = (long) (1e9 / config.getProbeRate());
+        this.maxWaitNanos = config.getProbeMaxWaitSeconds() * 1_000_000_000L;
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    public DiscoveryResult run() {
+        config.validate();
+        long start = System.nanoTime();
+        DiscoveryResult result = new DiscoveryResult();
+        transport = HttpTransport.create(config.getTransportMode(), 1, config.getSourceAddress());
+        try {
+            probe(result);
+        } catch (ProbeAborted e) {
+            result.note(e.getMessage());
+        } finally {
+            transport.close();
+        }
+        result.headers(advertised);
+        result.usage(requestsSent, System.nanoTime() - start);
+        return result;
+    }
+
+    private void probe(DiscoveryResult result) {
+        status("Burst 1: sending at up to %.0f req/s until the first 429...", config.getProbeRate());
+        Burst first = burst(Math.max(1, config.getProbeBudget() / 3));
+        if (!first.limited) {
+            result.algorithm("No limit detected");
+            result.note(String.format("%d requests at %.1f req/s were all accepted; raise the budget or probe rate.",
+                    first.accepted, first.rate()));
+            return;
+        }
+        status("Burst 1: %d accepted before 429 (%.1f req/s)", first.accepted, first.rate());
+        result.burstCapacity(first.accepted);
+
+        Recovery firstRecovery = recover();
+        status("Recovered after %.2f s", firstRecovery.nanos / 1e9);
+        // Replay burst 1's timing so a sliding log hands back its budget as
+        // fast as it was spent, while a bucket still refills slower than we send
+        Burst second = burst(Math.max(1, config.getProbeBudget() / 3), firstRecovery, first);
+        status("Burst 2: %d accepted after recovery", second.accepted);
+
+        if (second.accepted >= FULL_RESTORE * first.accepted) {
+            measureWindow(result, first, second, firstRecovery);
+        } else {
+            measureBucket(result, first, firstRecovery);
+        }
+    }
+
+    // The whole budget came back at once: a fixed window, a sliding log, or a
+    // sliding window counter. Time one full window, then spread requests over
+    // it to see whether the next window restores all or part of the budget.
+    private void measureWindow(DiscoveryResult result, Burst first, Burst second, Recovery start) {
+        Recovery recovery = recover();
+        // Burst 2 started at a restore point and recovery ends at the next
+        // one. Each restore happened up to its recovery's resolution before
+        // it was seen, so the window is at most the first resolution longer
+        // and the second's shorter than measured.
+        double measured = (second.nanos + recovery.nanos) / 1e9;
+        double low = Math.max(0.001, measured - recovery.resolutionNanos / 1e9);
+        double high = measured + start.resolutionNanos / 1e9;
+        double windowSeconds = (low + high) / 2;
+        double resolution = (high - low) / 2;
+        int limitLow = Math.min(first.accepted, second.accepted);
+        int limitHigh = Math.max(first.accepted, second.accepted);
+        status("Window: %.2f s (+/- %.2f s), %d-%d requests per window", windowSeconds, resolution, limitLow, limitHigh);
+
+        result.window(second.accepted, windowSeconds, low, high);
+        result.rate(second.accepted / windowSeconds, limitLow / high, limitHigh / low);
+
+        String algorithm = classifyWindow(second, windowSeconds, resolution, recovery);
+        result.algorithm(algorithm);
+    }
+
+    private String classifyWindow(Burst second, double windowSeconds, double resolution, Recovery restore) {
+        int limit = second.accepted;
+        long restoreNanos = restore.endNanos;
+        int half = Math.max(1, limit / 2);
+        if (requestsSent + 2L * limit > config.getProbeBudget()) {
+            return "Fixed or sliding window (budget too small to tell apart)";
+        }
+        status("Spreading %d requests over half a window to tell window types apart...", limit);
+        // From the poll that detected the restore, at burst 2's timing so a
+        // sliding log has a slot free for each
+        burst(half, restore, second);
+        parkUntil(restoreNanos + (long) (windowSeconds * 0.5e9));
+        burst(limit);
+        parkUntil(restoreNanos + (long) ((windowSeconds * 1.05 + resolution) * 1e9));
+        Burst next = burst(limit);
+        double restored = next.accepted / (double) limit;
+        status("One window later %d of %d requests were accepted", next.accepted, limit);
+        if (restored >= FULL_RESTORE) return "Fixed window";
+        if (restored >= 0.3) return "Sliding log";
+        return "Sliding window counter";
+    }
+
+    // Only a little of the budget came back: a token (or leaky) bucket.
+    // Bracket the refill rate around the first recovery time, then bisect.
+    private void measureBucket(DiscoveryResult result, Burst first, Recovery recovery) {
+        result.algorithm("Token bucket (gradual refill)");
+        double guess = 1e9 / recovery.nanos;
+        double low = guess / 2;
+        double high = guess * 2;
+        status("Refill estimate from recovery: %.3f req/s; searching %.3f-%.3f req/s", guess, low, high);
+
+        try {
+            while (trial(high)) {
+                low = high;
+                high *= 2;
+            }
+            while (!trial(low)) {
+                high = low;
+                low /= 2;
+            }
+            while (high / low > SEARCH_PRECISION && requestsSent + 2 * TRIAL_REQUESTS < config.getProbeBudget()) {
+                double mid = Math.sqrt(low * high);
+                if (trial(mid)) {
+                    low = mid;
+                } else {
+                    high = mid;
+                }
+            }
+        } finally {
+            // Report the bracket reached so far, even if the budget ran out
+            double rate = Math.sqrt(low * high);
+            result.rate(rate, low, high);
+            result.window(first.accepted, first.accepted / rate, first.accepted / high, first.accepted / low);
+        }
+    }
+
+    // Empties the bucket, then sends at a fixed rate; true if nothing was limited
+    private boolean trial(double ratePerSec) {
+        if (requestsSent + 2 * TRIAL_REQUESTS > config.getProbeBudget()) {
+            throw new ProbeAborted("Request budget exhausted during rate search.");
+        }
+        burst(config.getProbeBudget());
+        long interval = (long) (1e9 / ratePerSec);
+        long next = System.nanoTime() + interval;
+        for (int i = 0; i < TRIAL_REQUESTS; i++) {
+            parkUntil(next);
+            next += interval;
+            if (send() == 429) {
+                status("  %.3f req/s: limited", ratePerSec);
+                return false;
+            }
+        }
+        status("  %.3f req/s: clean", ratePerSec);
+        return true;
+    }
+
+    private Burst burst(int maxAccepted) {
+        return burst(maxAccepted, null, null);
+    }
+
+    // Sends one request per probe interval until a 429 or maxAccepted
+    // successes. A recovery's successful poll counts as the first success,
+    // and the requests after it keep to replay's timing: the nth success no
+    // earlier after the poll than replay's nth response came after its first
+    // request. A sliding log admitted replay's nth request no later than
+    // that, and the poll no earlier than a window after the first, so every
+    // request finds its slot free however uneven replay's latency was.
+    private Burst burst(int maxAccepted, Recovery after, Burst replay) {
+        long start = after != null ? after.endNanos : System.nanoTime();
+        int accepted = after != null ? 1 : 0;
+        long[] acceptedAt = new long[Math.min(maxAccepted, 1024)];
+        long next = start;
+        while (accepted < maxAccepted) {
+            if (replay != null && accepted < replay.accepted) {
+                next = Math.max(next, start + replay.acceptedAt[accepted]);
+            }
+            parkUntil(next);
+            next += probeIntervalNanos;
+            int status = send();
+            if (status == 429) {
+                return new Burst(accepted, System.nanoTime() - start, true, acceptedAt);
+            }
+            if (status == 200) {
+                if (accepted == acceptedAt.length) {
+                    acceptedAt = Arrays.copyOf(acceptedAt, accepted * 2);
+                }
+                acceptedAt[accepted++] = System.nanoTime() - start;
+            }
+        }
+        return new Burst(accepted, System.nanoTime() - start, false, acceptedAt);
+    }
+
+    // Waits for the next accepted request after a 429. A server's hint comes
+    // in whole seconds, rounded either way, so the wait stops a second short
+    // of it and polls finely through the second either side. Without a hint
+    // it polls at an interval that grows with the time already waited, so
+    // the result is accurate to about 1/8. The resolution is the time since
+    // the last 429 seen: the budget came back somewhere in between.
+    private Recovery recover() {
+        long limitedAt = System.nanoTime();
+        long hint = lastHeaders.suggestedWaitMillis(System.currentTimeMillis());
+        long hintEnd = limitedAt;
+        if (hint >= 0) {
+            parkUntil(limitedAt + Math.max(0, hint - HINT_ROUNDING_MILLIS) * 1_000_000L);
+            hintEnd = limitedAt + (hint + HINT_ROUNDING_MILLIS) * 1_000_000L;
+        }
+        long lastLimited = limitedAt;
+        while (true) {
+            long sentAt = System.nanoTime();
+            if (send() != 429) {
+                long end = System.nanoTime();
+                return new Recovery(end - limitedAt, end - lastLimited, end);
+            }
+            lastLimited = sentAt;
+            long now = System.nanoTime();
+            long waited = now - limitedAt;
+            if (waited > maxWaitNanos) {
+                throw new ProbeAborted(String.format("No recovery within %d s after a 429.", maxWaitNanos / 1_000_000_000L));
+            }
+            long poll = now < hintEnd ? HINT_POLL_NANOS
+                    : Math.min(MAX_POLL_NANOS, Math.max(MIN_POLL_NANOS, waited / 8));
+            parkUntil(now + poll);
+        }
+    }
+
+    private int send() {
+        if (stopped) {
+            throw new ProbeAborted("Discovery stopped.");
+        }
+        if (requestsSent >= config.getProbeBudget()) {
+            throw new ProbeAborted("Request budget of " + config.getProbeBudget() + " exhausted.");
+        }
+        requestsSent++;
+        try {
+            TransportResponse response = transport.send(request, request.render(body));
+            lastHeaders = response.rateLimit();
+            if (lastHeaders.isPresent() && lastHeaders.limit() >= 0) {
+                advertised = lastHeaders;
+            }
+            int status = response.statusCode();
+            if (status != 200 && status != 429 && ++otherErrors > MAX_OTHER_ERRORS) {
+                throw new ProbeAborted("Too many unexpected responses (last: HTTP " + status + ").");
+            }
+            return status;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProbeAborted("Discovery interrupted.");
+        } catch (java.io.IOException e) {
+            if (++otherErrors > MAX_OTHER_ERRORS) {
+                throw new ProbeAborted("Too many request errors (last: " + e.getMessage() + ").");
+            }
+            return -1;
+        }
+    }
+
+    private void parkUntil(long deadline) {
+        long now;
+        while ((now = System.nanoTime()) < deadline) {
+            if (stopped) return;
+            LockSupport.parkNanos(deadline - now);
+        }
+    }
+
+    private void status(String format, Object... args) {
+        listener.onStatus("[probe] " + String.format(format, args) + "\n");
+    }
+
+    private static final class Burst {
+        final int accepted;
+        final long nanos;
+        final boolean limited;
+        // When each success came back, from the start of the burst
+        final long[] acceptedAt;
+
+        Burst(int accepted, long nanos, boolean limited, long[] acceptedAt) {
+            this.accepted = accepted;
+            this.nanos = nanos;
+            this.limited = limited;
+            this.acceptedAt = acceptedAt;
+        }
+
+        double rate() {
+            return nanos > 0 ? accepted * 1e9 / nanos : 0;
+        }
+    }
+
+    private static final class Recovery {
+        final long nanos;
+        final long resolutionNanos;
+        final long endNanos;
+
+        Recovery(long nanos, long resolutionNanos, long endNanos) {
+            this.nanos = nanos;
+            this.resolutionNanos = resolutionNanos;
+            this.endNanos = endNanos;
+        }
+    }
+
+    private static final class ProbeAborted extends RuntimeException {
+        ProbeAborted(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package ratelimittester;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// A rate-limited HTTP target with a known limit, to calibrate the tester
+// against: does the estimate match the configured limit, and how fast can
+// the tester go before it, not the target, is the bottleneck? Answers every
+// request with a small JSON 200, or a 429 once the limiter says so, with
+// X-RateLimit-* and Retry-After headers the way flask-limiter sends them.
+// A minimal HTTP/1.1 keep-alive server, one virtual thread per connection;
+// it serves tens of thousands of requests per second on loopback.
+public class RateLimitStubServer implements AutoCloseable {
+
+    private static final byte[] OK_BODY = "{\"message\":\"ok\"}".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LIMITED_BODY = "{\"error\":\"rate limit exceeded\"}".getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_SIZE = 16384;
+
+    private final LimiterAlgorithm algorithm;
+    private final int limit;
+    private final long windowNanos;
+    // "global", "ip" or "header:NAME"
+    private final String key;
+    private final String keyHeader;
+    private final int latencyMs;
+    private final int jitterMs;
+    private final boolean headers;
+
+    private final StubLimiter globalLimiter;
+    private final ConcurrentHashMap<String, StubLimiter> limiters = new ConcurrentHashMap<>();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+    private final LongAdder connections = new LongAdder();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private ServerSocket server;
+
+    public RateLimitStubServer(LimiterAlgorithm algorithm, int limit, double windowSeconds, String key,
+                               int latencyMs, int jitterMs, boolean headers) {
+        if (limit <= 0 || windowSeconds <= 0 || latencyMs < 0 || jitterMs < 0) {
+            throw new IllegalArgumentException("Limit and window must be positive, latency and jitter non-negative");
+        }
+        if (!key.equals("global") && !key.equals("ip") && !(key.startsWith("header:") && key.length() > 7)) {
+            throw new IllegalArgumentException("Key must be global, ip or header:NAME, not " + key);
+        }
+        this.algorithm = algorithm;
+        this.limit = limit;
+        this.windowNanos = (long) (windowSeconds * 1e9);
+        this.key = key;
+        this.keyHeader = key.startsWith("header:") ? key.substring(7).toLowerCase(Locale.ROOT) : null;
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.headers = headers;
+        this.globalLimiter = key.equals("global") ? new StubLimiter(algorithm, limit, windowNanos) : null;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        InetAddress bind = InetAddress.getLoopbackAddress();
+        LimiterAlgorithm algorithm = LimiterAlgorithm.FIXED_WINDOW;
+        int limit = 50;
+        double window = 60;
+        String key = "global";
+        int latency = 0;
+        int jitter = 0;
+        boolean headers = true;
+        boolean quiet = false;
+        RateLimitStubServer stub;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if ("--help".equals(arg) || "-h".equals(arg)) {
+                    printUsage();
+                    return;
+                }
+                if ("--no-headers".equals(arg)) {
+                    headers = false;
+                    continue;
+                }
+                if ("--quiet".equals(arg)) {
+                    quiet = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--port" -> port = Integer.parseInt(value);
+                    case "--bind" -> bind = InetAddress.getByName(value);
+                    case "--algorithm" -> algorithm = LimiterAlgorithm.fromLabel(value);
+                    case "--limit" -> limit = Integer.parseInt(value);
+                    case "--window" -> window = Double.parseDouble(value);
+                    case "--key" -> key = value;
+                    case "--latency" -> latency = Integer.parseInt(value);
+                    case "--jitter" -> jitter = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unexpected argument: " + arg);
+                }
+            }
+            stub = new RateLimitStubServer(algorithm, limit, window, key, latency, jitter, headers);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            printUsage();
+            System.exit(TestResult.EXIT_USAGE);
+            return;
+        }
+
+        stub.start(new InetSocketAddress(bind, port));
+        System.out.println("Stub listening on http://" + stub.server.getInetAddress().getHostAddress() + ":"
+                + stub.port() + "/");
+        System.out.println("Ground Truth: " + stub.describe());
+        if (!quiet) {
+            stub.printEverySecond();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.printf(
+                "Served: 200=%d 429=%d over %d connections%n", stub.admitted.sum(), stub.limited.sum(),
+                stub.connections.sum())));
+    }
+
+    static void printUsage() {
+        System.out.println("Usage: java ratelimittester.RateLimitStubServer [options]");
+        System.out.println("  --port N               listen port (default 8080, 0 picks a free one)");
+        System.out.println("  --bind ADDRESS         listen address (default loopback)");
+        System.out.println("  --algorithm NAME       fixed_window, sliding_log, sliding_counter or token_bucket (default fixed_window)");
+        System.out.println("  --limit N              requests per window (default 50)");
+        System.out.println("  --window SECONDS       window length; a token bucket refills limit per window (default 60)");
+        System.out.println("  --key KEY              global, ip, or header:NAME for one limit per header value (default global)");
+        System.out.println("  --latency MS           added to every response (default 0)");
+        System.out.println("  --jitter MS            plus a random 0..MS on top (default 0)");
+        System.out.println("  --no-headers           leave out X-RateLimit-* and Retry-After");
+        System.out.println("  --quiet                no per-second counts");
+    }
+
+    // Binds and starts accepting; port 0 picks a free port
+    public void start(InetSocketAddress address) throws IOException {
+        server = new ServerSocket();
+        server.bind(address, 4096);
+        Thread.ofPlatform().name("stub-accept").daemon(false).start(this::acceptLoop);
+    }
+
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    public String describe() {
+        return String.format("%d requests per %.3f s, %s, %s key%s%s", limit, windowNanos / 1e9, algorithm,
+                key, latencyMs > 0 || jitterMs > 0 ? String.format(", latency %d+0..%d ms", latencyMs, jitterMs) : "",
+                headers ? "" : ", no rate limit headers");
+    }
+
+    public long admitted() {
+        return admitted.sum();
+    }
+
+    public long limited() {
+        return limited.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        executor.shutdownNow();
+    }
+
+    private void printEverySecond() {
+        Thread.ofPlatform().name("stub-stats").daemon().start(() -> {
+            long start = System.nanoTime();
+            long lastOk = 0;
+            long lastLimited = 0;
+            for (long second = 1; ; second++) {
+                try {
+                    Thread.sleep(Math.max(1, (start + second * 1_000_000_000L - System.nanoTime()) / 1_000_000L));
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long ok = admitted.sum();
+                long rejected = limited.sum();
+                if (ok != lastOk || rejected != lastLimited) {
+                    System.out.printf("[%5ds] 200=%d 429=%d (%d req/s)%n", second, ok, rejected,
+                            ok - lastOk + rejected - lastLimited);
+                }
+                lastOk = ok;
+                lastLimited = rejected;
+            }
+        });
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                connections.increment();
+                executor.submit(() -> serve(socket));
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    System.err.println("Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Requests on one keep-alive connection, one at a time
+    private void serve(Socket socket) {
+        byte[] line = new byte[BUFFER_SIZE];
+        StringBuilder head = new StringBuilder(256);
+        try (socket) {
+            Reader in = new Reader(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            String ip = socket.getInetAddress().getHostAddress();
+            while (true) {
+                int length = in.readLine(line);
+                if (length < 0) return;
+                if (length == 0) continue;
+                boolean http10 = endsWith(line, length, "HTTP/1.0");
+                long contentLength = 0;
+                boolean chunked = false;
+                boolean close = http10;
+                String keyValue = keyHeader == null ? null : "";
+                while ((length = in.readLine(line)) > 0) {
+                    int colon = indexOf(line, length, (byte) ':');
+                    if (colon < 0) continue;
+                    String name = new String(line, 0, colon, StandardCharsets.ISO_8859_1).toLowerCase(Locale.ROOT);
+                    switch (name) {
+                        case "content-length" -> contentLength = Long.parseLong(value(line, colon, length));
+                        case "transfer-encoding" -> chunked = value(line, colon, length).equalsIgnoreCase("chunked");
+                        case "connection" -> {
+                            String value = value(line, colon, length);
+                            close = value.equalsIgnoreCase("close") || (http10 && !value.equalsIgnoreCase("keep-alive"));
+                        }
+                        default -> {
+                            if (name.equals(keyHeader)) keyValue = value(line, colon, length);
+                        }
+                    }
+                }
+                if (length < 0) return;
+                if (chunked) {
+                    in.skipChunked(line);
+                } else {
+                    in.skip(contentLength);
+                }
+
+                StubLimiter limiter = globalLimiter != null ? globalLimiter
+                        : limiters.computeIfAbsent(keyValue != null ? keyValue : ip,
+                                k -> new StubLimiter(algorithm, limit, windowNanos));
+                long now = System.nanoTime();
+                boolean ok;
+                long remaining;
+                long nextAdmit;
+                synchronized (limiter) {
+                    ok = limiter.acquire(now);
+                    remaining = limiter.remaining;
+                    nextAdmit = limiter.nextAdmitNanos;
+                }
+                (ok ? admitted : limited).increment();
+                if (latencyMs > 0 || jitterMs > 0) {
+                    Thread.sleep(latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextInt(jitterMs + 1) : 0));
+                }
+                writeResponse(out, head, ok, remaining, nextAdmit - now, close);
+                if (close) return;
+            }
+        } catch (SocketException | EOFException e) {
+            // The client went away
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Connection failed: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeResponse(OutputStream out, StringBuilder head, boolean ok, long remaining, long waitNanos,
+                               boolean close) throws IOException {
+        byte[] body = ok ? OK_BODY : LIMITED_BODY;
+        head.setLength(0);
+        head.append(ok ? "HTTP/1.1 200 OK\r\n" : "HTTP/1.1 429 Too Many Requests\r\n")
+                .append("Content-Type: application/json\r\nContent-Length: ").append(body.length).append("\r\n");
+        if (headers) {
+            // Reset in epoch seconds and Retry-After in whole seconds, both
+            // rounded up, as flask-limiter sends them
+            long waitMillis = Math.max(0, waitNanos / 1_000_000L);
+            head.append("X-RateLimit-Limit: ").append(limit)
+                    .append("\r\nX-RateLimit-Remaining: ").append(remaining)
+                    .append("\r\nX-RateLimit-Reset: ").append((System.currentTimeMillis() + waitMillis + 999) / 1000)
+                    .append("\r\n");
+            if (!ok) {
+                head.append("Retry-After: ").append((waitMillis + 999) / 1000).append("\r\n");
+            }
+        }
+        if (close) {
+            head.append("Connection: close\r\n");
+        }
+        head.append("\r\n");
+        byte[] response = new byte[head.length() + body.length];
+        for (int i = 0; i < head.length(); i++) {
+            response[i] = (byte) head.charAt(i);
+        }
+        System.arraycopy(body, 0, response, head.length(), body.length);
+        out.write(response);
+    }
+
+    private static String value(byte[] line, int colon, int length) {
+        return new String(line, colon + 1, length - colon - 1, StandardCharsets.ISO_8859_1).trim();
+    }
+
+    private static int indexOf(byte[] line, int length, byte b) {
+        for (int i = 0; i < length; i++) {
+            if (line[i] == b) return i;
+        }
+        return -1;
+    }
+
+    private static boolean endsWith(byte[] line, int length, String suffix) {
+        if (length < suffix.length()) return false;
+        for (int i = 0; i < suffix.length(); i++) {
+            if (line[length - suffix.length() + i] != suffix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // Buffered reads of one connection, without the per-call locking of
+    // BufferedInputStream
+    private static final class Reader {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+
+        Reader(InputStream in) {
+            this.in = in;
+        }
+
+        // Reads up to LF into line and returns its length without the CRLF,
+        // or -1 at the end of the stream
+        int readLine(byte[] line) throws IOException {
+            int length = 0;
+            while (true) {
+                if (position == limit && !fill()) return -1;
+                while (position < limit) {
+                    byte b = buffer[position++];
+                    if (b == '\n') {
+                        return length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+                    }
+                    if (length == line.length) throw new IOException("Header line too long");
+                    line[length++] = b;
+                }
+            }
+        }
+
+        void skip(long bytes) throws IOException {
+            while (bytes > 0) {
+                if (position == limit && !fill()) throw new EOFException();
+                int n = (int) Math.min(bytes, limit - position);
+                position += n;
+                bytes -= n;
+            }
+        }
+
+        void skipChunked(byte[] line) throws IOException {
+            while (true) {
+                int length = readLine(line);
+                if (length < 0) throw new EOFException();
+                int end = indexOf(line, length, (byte) ';');
+                long size = Long.parseLong(new String(line, 0, end < 0 ? length : end, StandardCharsets.ISO_8859_1).trim(), 16);
+                if (size == 0) {
+                    // Trailers, up to the empty line
+                    while ((length = readLine(line)) > 0) {
+                        // skip
+                    }
+                    return;
+                }
+                skip(size);
+                readLine(line);
+            }
+        }
+
+        private boolean fill() throws IOException {
+            int n = in.read(buffer);
+            if (n <= 0) return false;
+            position = 0;
+            limit = n;
+            return true;
+        }
+    }
+}
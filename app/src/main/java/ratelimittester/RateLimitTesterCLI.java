@@ -0,0 +1,382 @@
+package ratelimittester;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+// Headless front end over LoadTestEngine for CI load agents. Never touches
+// AWT or Swing. Options come from an optional properties file (--config)
+// and are overridden by command-line flags; the process exit status is
+// TestResult.exitCode(), or 64 for bad arguments.
+public class RateLimitTesterCLI {
+
+    private static final long PROGRESS_INTERVAL_MS = 1000;
+    private static final long FLUSH_INTERVAL_MS = 100;
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        long jvmStartupMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        long parseStart = System.nanoTime();
+
+        TestConfig config;
+        boolean verbose = false;
+        boolean discover = false;
+        List<Path> runFiles = new ArrayList<>();
+        Path csv = null;
+        try {
+            Properties fileProps = null;
+            Properties argProps = new Properties();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if ("--help".equals(arg) || "-h".equals(arg)) {
+                    printUsage(out);
+                    return TestResult.EXIT_OK;
+                }
+                if ("--verbose".equals(arg) || "-v".equals(arg)) {
+                    verbose = true;
+                    continue;
+                }
+                if ("--discover".equals(arg)) {
+                    discover = true;
+                    continue;
+                }
+                // Analysis of recorded runs instead of a test
+                if ("--replay".equals(arg) || "--diff".equals(arg) || "--csv".equals(arg)) {
+                    int values = "--diff".equals(arg) ? 2 : 1;
+                    if (i + values >= args.length) {
+                        throw new IllegalArgumentException("Missing value for " + arg);
+                    }
+                    if ("--csv".equals(arg)) {
+                        csv = Path.of(args[++i]);
+                    } else {
+                        for (int v = 0; v < values; v++) {
+                            runFiles.add(Path.of(args[++i]));
+                        }
+                    }
+                    continue;
+                }
+                if (!arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Unexpected argument: " + arg);
+                }
+                String key = arg.substring(2);
+                String value;
+                int eq = key.indexOf('=');
+                if (eq >= 0) {
+                    value = key.substring(eq + 1);
+                    key = key.substring(0, eq);
+                } else if (i + 1 < args.length) {
+                    value = args[++i];
+                } else {
+                    throw new IllegalArgumentException("Missing value for --" + key);
+                }
+                if ("config".equals(key)) {
+                    fileProps = TestConfig.loadProperties(Path.of(value));
+                } else {
+                    argProps.setProperty(key, value);
+                }
+            }
+            if (!runFiles.isEmpty()) {
+                return analyze(runFiles, csv, out, err);
+            }
+            config = new TestConfig();
+            if (fileProps != null) {
+                config.apply(fileProps);
+            }
+            config.apply(argProps);
+            config.validate();
+        } catch (IllegalArgumentException | IOException e) {
+            err.println("Error: " + e.getMessage());
+            printUsage(err);
+            return TestResult.EXIT_USAGE;
+        }
+        long parseNanos = System.nanoTime() - parseStart;
+
+        if (discover) {
+            return discover(config, out, err);
+        }
+
+        out.println("Starting test...");
+        if (config.hasScenario()) {
+            out.println("Scenario: " + config.getScenarioOrder());
+            for (Endpoint endpoint : config.getScenario()) {
+                out.println("  " + endpoint.getName() + ": " + endpoint.spec());
+            }
+        } else {
+            out.println("Target: " + config.getMethod() + " " + config.getTargetUri());
+            out.println("Using payload: " + config.getPayload());
+        }
+        out.println("Execution mode: " + config.getExecutionMode());
+        out.println("Transport: " + config.getTransportMode());
+        out.println("Load model: " + config.getLoadModel());
+        out.println("Load profile: " + config.getLoadProfile() + (config.isTimed() ? ", " + config.runSeconds() + " s" : ""));
+        if (config.getBodyMode() != BodyMode.DISCARD) {
+            out.println("Response bodies: " + config.getBodyMode());
+        }
+
+        if (config.isDistributed()) {
+            return distribute(config, out, err, jvmStartupMs, parseNanos);
+        }
+
+        LogRingBuffer events = new LogRingBuffer(16384);
+        final boolean printEvents = verbose;
+        LoadTestEngine engine = new LoadTestEngine(config, new TestListener() {
+            @Override
+            public void onEvent(String line) {
+                if (printEvents) {
+                    events.offer(line);
+                }
+            }
+
+            @Override
+            public void onStatus(String line) {
+                synchronized (out) {
+                    out.print(line);
+                }
+            }
+        });
+
+        Thread reporter = new Thread(() -> report(engine, events, out), "cli-progress");
+        reporter.setDaemon(true);
+        reporter.start();
+
+        TestResult result;
+        try {
+            result = engine.run();
+        } catch (RuntimeException e) {
+            err.println("Test failed: " + e);
+            return TestResult.EXIT_FAILURE;
+        } finally {
+            reporter.interrupt();
+            try {
+                reporter.join(1000);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushEvents(events, new StringBuilder(), out);
+        if (config.getRecordPath() != null) {
+            out.println("Run File: " + config.getRecordPath());
+        }
+        return printResult(result, events.droppedCount(), out, jvmStartupMs, parseNanos);
+    }
+
+    private static int printResult(TestResult result, long droppedLines, PrintStream out,
+                                   long jvmStartupMs, long parseNanos) {
+        for (String line : result.summaryLines()) {
+            out.println(line);
+        }
+        if (droppedLines > 0) {
+            out.println("Dropped Log Lines: " + droppedLines);
+        }
+        out.println(String.format("Startup Overhead: JVM start to main %d ms, argument parsing %.1f ms",
+                jvmStartupMs, parseNanos / 1e6));
+        out.println("Exit Code: " + result.exitCode());
+        return result.exitCode();
+    }
+
+    private static int distribute(TestConfig config, PrintStream out, PrintStream err,
+                                  long jvmStartupMs, long parseNanos) {
+        out.println("Agents: " + String.join(", ", config.getAgents()));
+        DistributedCoordinator coordinator = new DistributedCoordinator(config, new TestListener() {
+            @Override
+            public void onEvent(String line) {
+            }
+
+            @Override
+            public void onStatus(String line) {
+                out.print(line);
+            }
+        });
+        TestResult result;
+        try {
+            result = coordinator.run();
+        } catch (RuntimeException e) {
+            err.println("Test failed: " + e.getMessage());
+            return TestResult.EXIT_FAILURE;
+        }
+        return printResult(result, 0, out, jvmStartupMs, parseNanos);
+    }
+
+    // One run file: its summary recomputed. Two: the second compared with the first.
+    private static int analyze(List<Path> files, Path csv, PrintStream out, PrintStream err) {
+        if (files.size() > 2) {
+            throw new IllegalArgumentException("Give one run file to --replay or two to --diff");
+        }
+        List<RunFile> runs = new ArrayList<>();
+        try {
+            List<RunAnalysis> analyses = new ArrayList<>();
+            for (Path file : files) {
+                RunFile run = RunFile.open(file);
+                runs.add(run);
+                analyses.add(RunAnalysis.of(run));
+            }
+            List<String> lines = new ArrayList<>();
+            if (analyses.size() == 1) {
+                lines.addAll(analyses.get(0).describe());
+                lines.addAll(analyses.get(0).toResult().summaryLines());
+            } else {
+                lines.addAll(RunAnalysis.diff(analyses.get(0), analyses.get(1)));
+            }
+            for (String line : lines) {
+                out.println(line);
+            }
+            if (csv != null) {
+                analyses.get(analyses.size() - 1).writeSeries(csv);
+                out.println("Per-second series written to " + csv);
+            }
+            return TestResult.EXIT_OK;
+        } catch (IOException e) {
+            err.println("Cannot read run file: " + e.getMessage());
+            return TestResult.EXIT_FAILURE;
+        } finally {
+            for (RunFile run : runs) {
+                try {
+                    run.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static int discover(TestConfig config, PrintStream out, PrintStream err) {
+        Endpoint probed = config.endpoints().get(0);
+        out.println("Discovering rate limit for " + probed.getMethod() + " " + probed.getTargetUri()
+                + " (budget " + config.getProbeBudget() + " requests)...");
+        RateLimitProber prober = new RateLimitProber(config, new TestListener() {
+            @Override
+            public void onEvent(String line) {
+            }
+
+            @Override
+            public void onStatus(String line) {
+                out.print(line);
+            }
+        });
+        DiscoveryResult result;
+        try {
+            result = prober.run();
+        } catch (RuntimeException e) {
+            err.println("Discovery failed: " + e);
+            return TestResult.EXIT_FAILURE;
+        }
+        for (String line : result.summaryLines()) {
+            out.println(line);
+        }
+        return TestResult.EXIT_OK;
+    }
+
+    // Streams queued request lines and prints a progress line once a second
+    private static void report(LoadTestEngine engine, LogRingBuffer events, PrintStream out) {
+        StringBuilder batch = new StringBuilder();
+        long start = System.nanoTime();
+        long nextProgress = start + PROGRESS_INTERVAL_MS * 1_000_000L;
+        long lastTotal = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(FLUSH_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            flushEvents(events, batch, out);
+            long now = System.nanoTime();
+            if (now >= nextProgress) {
+                long total = engine.successCount() + engine.rateLimitedCount() + engine.otherErrors();
+                String phases = engine.phaseStatus();
+                synchronized (out) {
+                    out.printf("[%5.1fs] 200=%d 429=%d other=%d (%.0f req/s)%s%n", (now - start) / 1e9,
+                            engine.successCount(), engine.rateLimitedCount(), engine.otherErrors(),
+                            (total - lastTotal) * 1000.0 / PROGRESS_INTERVAL_MS, phases.isEmpty() ? "" : ", " + phases);
+                }
+                lastTotal = total;
+                nextProgress += PROGRESS_INTERVAL_MS * 1_000_000L;
+            }
+        }
+    }
+
+    private static void flushEvents(LogRingBuffer events, StringBuilder batch, PrintStream out) {
+        batch.setLength(0);
+        if (events.drainTo(batch, events.capacity()) > 0) {
+            synchronized (out) {
+                out.print(batch);
+            }
+        }
+    }
+
+    private static String names(Enum<?>[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (Enum<?> value : values) {
+            if (sb.length() > 0) sb.append(" | ");
+            sb.append(value.name().toLowerCase());
+        }
+        return sb.toString();
+    }
+
+    static void printUsage(PrintStream out) {
+        out.println("Usage: java ratelimittester.RateLimitTesterCLI --url URL [options]");
+        out.println("       java ratelimittester.RateLimitTesterCLI --config test.properties [options]");
+        out.println("       java ratelimittester.RateLimitTesterCLI --replay RUN_FILE [--csv FILE]");
+        out.println("       java ratelimittester.RateLimitTesterCLI --diff BASE_RUN_FILE NEW_RUN_FILE");
+        out.println();
+        out.println("Options (also usable as keys in the --config properties file):");
+        out.println("  --url URL                 target endpoint (http or https)");
+        out.println("  --method METHOD           GET, POST, PUT or DELETE (default GET)");
+        out.println("  --threads N               concurrent users (default 5)");
+        out.println("  --requests N              max requests per user (default 100)");
+        out.println("  --delay MS                closed loop delay between requests (default 100)");
+        out.println("  --payload JSON            request body for non-GET methods");
+        out.println("  --payload-file FILE       read the request body from a file");
+        out.println("                            ${counter}, ${random} and ${timestamp} in the body change per request");
+        out.println("  --endpoint.NAME SPEC      add a scenario endpoint, SPEC = \"WEIGHT METHOD URL [PAYLOAD]\";");
+        out.println("                            repeat for more endpoints, then --url/--method/--payload are unused");
+        out.println("  --scenario ORDER          " + names(ScenarioOrder.values()) + " (default weighted)");
+        out.println("  --execution MODE          " + names(ExecutionMode.values()));
+        out.println("  --transport MODE          " + names(TransportMode.values()));
+        out.println("  --max-connections N       connection pool size (default 64)");
+        out.println("  --model MODEL             " + names(LoadModel.values()));
+        out.println("  --rate N                  open model arrival rate in req/s (default 50)");
+        out.println("  --ramp SECONDS            linear ramp-up from 0 to the users or rate (default 0)");
+        out.println("  --duration SECONDS        run for this long instead of a request count (default 0: by count)");
+        out.println("  --profile PROFILE         " + names(LoadProfile.values()) + " (default steady)");
+        out.println("  --steps N                 steps profile: reach the users or rate in N equal steps (default 4)");
+        out.println("  --hold SECONDS            seconds per step, or per summary row of a soak (default 30)");
+        out.println("  --on-limit BEHAVIOR       " + names(LimitBehavior.values()) + " (default stop)");
+        out.println("  --backoff POLICY          " + names(Backoff.values()) + ", after a 429 when continuing (default none)");
+        out.println("  --backoff-ms MS           fixed wait, exponential base, or fallback without Retry-After (default 1000)");
+        out.println("  --backoff-max-ms MS       longest single backoff (default 30000)");
+        out.println("  --body-mode MODE          " + names(BodyMode.values()) + " (default discard)");
+        out.println("  --body-sample-every N     sample mode keeps 1 in N bodies (default 100)");
+        out.println("  --body-sample-keep N      samples shown in the summary (default 10, at most 1000)");
+        out.println("  --body-sample-bytes N     bytes kept per sample (default 2048, at most 1048576)");
+        out.println("  --body-contains TEXT      a 200 whose body lacks TEXT counts as an error");
+        out.println("  --body-not-contains TEXT  a 200 whose body has TEXT counts as an error");
+        out.println("  --record FILE             write every request outcome to a run file for --replay / --diff");
+        out.println("  --metrics [HOST:]PORT     serve live OpenMetrics at /metrics during the run (host default 127.0.0.1)");
+        out.println("  --keys FILE               API keys or tenant IDs, one per line; every request sends one");
+        out.println("  --key-header HEADER       header for the key: a name, or \"Name: value\" with {key} (default X-API-Key)");
+        out.println("  --key-assign MODE         " + names(KeyAssignment.values()) + " (default per_user)");
+        out.println("  --key-count N             use only the first N keys of the file (default 0: all, at most 100000)");
+        out.println("  --verbose                 print every request");
+        out.println("  --source-address IP       local address for outgoing requests (pooled transports)");
+        out.println("  --agents HOST:PORT,...    run on these RateLimitAgent processes instead of locally;");
+        out.println("                            each agent runs the full configuration");
+        out.println("  --agent-token TOKEN       the agents' shared secret (default $" + AgentProtocol.TOKEN_ENV + ")");
+        out.println();
+        out.println("  --discover                probe for the limit instead of running a load test");
+        out.println("  --budget N                max requests the discovery may send (default 500)");
+        out.println("  --probe-rate N            fastest discovery send rate in req/s (default 100)");
+        out.println("  --probe-max-wait SECONDS  give up if a 429 does not clear within this time (default 300)");
+        out.println();
+        out.println("  --replay RUN_FILE         print the summary of a recorded run, recomputed from its records");
+        out.println("  --csv FILE                with --replay: also write per-second counts and mean latency");
+        out.println("  --diff BASE NEW           compare two recorded runs side by side");
+        out.println();
+        out.println("Exit status: 0 completed, 2 completed with request errors, 1 test failed, 64 bad arguments");
+    }
+}
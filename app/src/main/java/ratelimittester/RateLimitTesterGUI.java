@@ -0,0 +1,1005 @@
+package ratelimittester;
+
+import java.awt.*;
+import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+
+public class RateLimitTesterGUI extends JFrame {
+
+    // Colors and styling
+    private static final Color PRIMARY_COLOR = new Color(48, 63, 159);
+    private static final Color SECONDARY_COLOR = new Color(255, 255, 255);
+    private static final Color ACCENT_COLOR = new Color(255, 152, 0);
+    private static final Color ERROR_COLOR = new Color(198, 40, 40);
+    private static final Color SUCCESS_COLOR = new Color(56, 142, 60);
+    private static final Color BUTTON_BG = new Color(66, 165, 245);
+    private static final Color BUTTON_HOVER = new Color(33, 150, 243);
+    private static final Color BUTTON_PRESSED = new Color(30, 136, 229);
+
+    // Output log limits
+    private static final int LOG_BUFFER_CAPACITY = 16384;
+    private static final int LOG_VIEW_MAX_LINES = 5000;
+
+    // UI Components
+    private JTextField urlField;
+    private JComboBox<String> methodCombo;
+    private JTextField threadsField;
+    private JTextField requestsField;
+    private JTextField delayField;
+    private JComboBox<ExecutionMode> executionModeCombo;
+    private JComboBox<TransportMode> transportCombo;
+    private JTextField maxConnectionsField;
+    private JComboBox<LoadModel> loadModelCombo;
+    private JTextField targetRateField;
+    private JTextField rampField;
+    private JComboBox<LoadProfile> loadProfileCombo;
+    private JTextField stepsField;
+    private JTextField holdField;
+    private JTextArea payloadArea;
+    private JButton startButton;
+    private JButton discoverButton;
+    private JTextField probeBudgetField;
+    private JTextField agentsField;
+    private JPasswordField agentTokenField;
+    private JComboBox<BodyMode> bodyModeCombo;
+    private JTextField bodyContainsField;
+    private JTextField recordField;
+    private JTextField metricsField;
+    private JTextField keysField;
+    private JComboBox<KeyAssignment> keyAssignmentCombo;
+    private JComboBox<LimitBehavior> limitBehaviorCombo;
+    private JComboBox<Backoff> backoffCombo;
+    private JTextField durationField;
+    private JTextField backoffField;
+    private JButton analyzeButton;
+    private JButton scenarioButton;
+    private final List<Endpoint> scenario = new ArrayList<>();
+    private ScenarioOrder scenarioOrder = ScenarioOrder.WEIGHTED;
+    private JTextArea outputArea;
+    private JLabel droppedLinesLabel;
+    private JLabel throughputLabel;
+    private ThroughputChartPanel chartPanel;
+    private Timer throughputTimer;
+    private volatile LoadTestEngine currentEngine;
+    private final long[] lastTotals = new long[TimeSeriesCounters.FIELDS];
+    private LogPipeline logPipeline;
+    private JPanel jsonEditorPanel;
+    private JButton addFieldButton;
+    private JButton toggleJsonInput;
+    private JScrollPane payloadScroll;
+    private boolean jsonEditorMode = false;
+
+    public RateLimitTesterGUI() {
+        setTitle("Rate Limit Tester - Stop on 429 + Estimate RPM");
+        setSize(1250, 700);
+        setDefaultCloseOperation(EXIT_ON_CLOSE);
+        setLocationRelativeTo(null);
+        initComponents();
+        applyStyles();
+    }
+
+    private void initComponents() {
+        // Main panel
+        JPanel mainPanel = new JPanel(new BorderLayout());
+        
+        // Input panel with GridBagLayout for precise control
+        JPanel inputPanel = new JPanel(new GridBagLayout());
+        inputPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        GridBagConstraints c = new GridBagConstraints();
+
+        // URL components
+        JLabel urlLabel = new JLabel("Target URL:");
+        urlField = new JTextField(30);
+        urlField.setToolTipText("Enter the target endpoint URL");
+
+        scenarioButton = new JButton("Scenario...");
+        scenarioButton.setToolTipText("Several endpoints with weights, run together instead of the single URL");
+        scenarioButton.addActionListener(e -> editScenario());
+
+        // Method selection
+        JLabel methodLabel = new JLabel("HTTP Method:");
+        methodCombo = new JComboBox<>(new String[]{"GET", "POST", "PUT", "DELETE"});
+        methodCombo.setToolTipText("Select HTTP method");
+
+        // Test configuration
+        JLabel threadsLabel = new JLabel("Number of Threads:");
+        threadsField = new JTextField("5", 5);
+        threadsField.setToolTipText("Number of concurrent threads to use");
+
+        JLabel requestsLabel = new JLabel("Max Requests per Thread:");
+        requestsField = new JTextField("100", 5);
+        requestsField.setToolTipText("Maximum requests each thread will send");
+
+        JLabel delayLabel = new JLabel("Delay between Requests (ms):");
+        delayField = new JTextField("100", 5);
+        delayField.setToolTipText("Delay between consecutive requests in milliseconds");
+
+        JLabel executionModeLabel = new JLabel("Execution Mode:");
+        executionModeCombo = new JComboBox<>(ExecutionMode.values());
+        executionModeCombo.setSelectedItem(ExecutionMode.VIRTUAL_THREADS);
+        executionModeCombo.setToolTipText("Virtual threads scale to tens of thousands of users; platform threads use one OS thread each; async drives all users from a few event-loop threads");
+
+        JLabel transportLabel = new JLabel("Transport:");
+        transportCombo = new JComboBox<>(TransportMode.values());
+        transportCombo.setToolTipText("Pooled keep-alive connections, HTTP/2 multiplexing, or a fresh connection per request");
+
+        JLabel maxConnectionsLabel = new JLabel("Max Connections:");
+        maxConnectionsField = new JTextField("64", 5);
+        maxConnectionsField.setToolTipText("Connection pool size (in-flight requests) for the pooled transports");
+
+        JLabel loadModelLabel = new JLabel("Load Model:");
+        loadModelCombo = new JComboBox<>(LoadModel.values());
+        loadModelCombo.setToolTipText("Closed loop waits for each response; open model sends on a fixed schedule");
+
+        JLabel targetRateLabel = new JLabel("Target Rate (req/s):");
+        targetRateField = new JTextField("50", 5);
+        targetRateField.setToolTipText("Open model only: requests per second issued across all users");
+        targetRateField.setEnabled(false);
+
+        JLabel rampLabel = new JLabel("Ramp-up (s):");
+        rampField = new JTextField("0", 5);
+        rampField.setToolTipText("Seconds to ramp linearly from 0 to the users (closed loop) or the target rate (open model)");
+
+        loadModelCombo.addActionListener(e -> {
+            boolean open = loadModelCombo.getSelectedItem() == LoadModel.OPEN_ARRIVAL_RATE;
+            targetRateField.setEnabled(open);
+            delayField.setEnabled(!open);
+        });
+
+        JLabel loadProfileLabel = new JLabel("Load Profile:");
+        loadProfileCombo = new JComboBox<>(LoadProfile.values());
+        loadProfileCombo.setToolTipText("Steady load, equal steps up to the full load, or a soak summarized every hold time");
+
+        JLabel stepsLabel = new JLabel("Steps x Hold (s):");
+        stepsField = new JTextField("4", 3);
+        stepsField.setToolTipText("Steps profile: number of equal steps up to the users or target rate");
+        stepsField.setEnabled(false);
+        holdField = new JTextField("30", 4);
+        holdField.setToolTipText("Seconds each step is held, or per summary row of a soak");
+        holdField.setEnabled(false);
+        JPanel stepsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+        stepsPanel.setOpaque(false);
+        stepsPanel.add(stepsField);
+        stepsPanel.add(new JLabel("x"));
+        stepsPanel.add(holdField);
+
+        loadProfileCombo.addActionListener(e -> {
+            LoadProfile profile = (LoadProfile) loadProfileCombo.getSelectedItem();
+            stepsField.setEnabled(profile == LoadProfile.STEPS);
+            holdField.setEnabled(profile != LoadProfile.STEADY);
+        });
+
+        // JSON Payload components
+        JLabel payloadLabel = new JLabel("POST JSON Payload:");
+        payloadArea = new JTextArea(4, 30);
+        payloadArea.setEnabled(false);
+        payloadArea.setToolTipText("${counter}, ${random} and ${timestamp} are filled in for every request");
+        payloadScroll = new JScrollPane(payloadArea);
+        payloadScroll.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
+
+        // JSON Editor Panel
+        jsonEditorPanel = new JPanel();
+        jsonEditorPanel.setLayout(new BoxLayout(jsonEditorPanel, BoxLayout.Y_AXIS));
+        jsonEditorPanel.setBorder(BorderFactory.createTitledBorder("JSON Key-Value Editor"));
+        jsonEditorPanel.setVisible(false);
+
+        // Add field button
+        addFieldButton = new JButton("Add Field");
+        addFieldButton.addActionListener(e -> addJsonField("", ""));
+        addFieldButton.setVisible(false);
+
+        // Toggle between JSON modes
+        toggleJsonInput = new JButton("Switch to JSON Editor");
+        toggleJsonInput.addActionListener(e -> toggleJsonEditor());
+
+        // Start test button
+        startButton = new JButton("Start Test");
+        startButton.setToolTipText("Begin the rate limit test");
+        startButton.addActionListener(new StartButtonListener());
+
+        // Discovery button
+        discoverButton = new JButton("Discover Limit");
+        discoverButton.setToolTipText("Probe adaptively for the limit, window type and refill rate");
+        discoverButton.addActionListener(new DiscoverButtonListener());
+
+        JLabel probeBudgetLabel = new JLabel("Probe Budget (requests):");
+        probeBudgetField = new JTextField("500", 5);
+        probeBudgetField.setToolTipText("Maximum requests the limit discovery may send");
+
+        JLabel agentsLabel = new JLabel("Agents (host:port, ...):");
+        agentsField = new JTextField(30);
+        agentsField.setToolTipText("Leave empty to run here; otherwise every listed RateLimitAgent runs the full test");
+        JLabel agentTokenLabel = new JLabel("Agent Token:");
+        agentTokenField = new JPasswordField(15);
+        agentTokenField.setToolTipText("The token the agents print at start or got with --token; empty uses "
+                + AgentProtocol.TOKEN_ENV);
+
+        JLabel bodyModeLabel = new JLabel("Response Bodies:");
+        bodyModeCombo = new JComboBox<>(BodyMode.values());
+        bodyModeCombo.setToolTipText("Discard is cheapest; checksum counts distinct bodies; sample also keeps 1 in 100 for the summary");
+
+        JLabel bodyContainsLabel = new JLabel("Body Must Contain:");
+        bodyContainsField = new JTextField(15);
+        bodyContainsField.setToolTipText("Optional: a 200 whose body lacks this text counts as an error (needs checksum or sample)");
+
+        JLabel limitBehaviorLabel = new JLabel("On 429:");
+        limitBehaviorCombo = new JComboBox<>(LimitBehavior.values());
+        limitBehaviorCombo.setToolTipText("Stop at the first 429, or keep the load on and report before/limited/recovered phases");
+
+        JLabel backoffLabel = new JLabel("Backoff:");
+        backoffCombo = new JComboBox<>(Backoff.values());
+        backoffCombo.setToolTipText("How long each user waits after a 429 (closed loop only)");
+        backoffCombo.setEnabled(false);
+
+        JLabel durationLabel = new JLabel("Duration (s):");
+        durationField = new JTextField("0", 5);
+        durationField.setToolTipText("Run for this long instead of a request count; 0 ends the run by count");
+
+        JLabel backoffBaseLabel = new JLabel("Backoff Base (ms):");
+        backoffField = new JTextField("1000", 5);
+        backoffField.setToolTipText("Fixed wait, exponential base, or the wait when no Retry-After is sent");
+        backoffField.setEnabled(false);
+
+        limitBehaviorCombo.addActionListener(e -> {
+            boolean continuing = limitBehaviorCombo.getSelectedItem() == LimitBehavior.CONTINUE;
+            backoffCombo.setEnabled(continuing);
+            backoffField.setEnabled(continuing);
+            if (!continuing) {
+                backoffCombo.setSelectedItem(Backoff.NONE);
+            }
+        });
+
+        JLabel recordLabel = new JLabel("Record Run To:");
+        recordField = new JTextField(15);
+        recordField.setToolTipText("Optional: a run file keeping every request outcome, for later analysis");
+
+        JLabel metricsLabel = new JLabel("Metrics Port:");
+        metricsField = new JTextField(15);
+        metricsField.setToolTipText("Optional: [host:]port to serve live OpenMetrics at /metrics during the run");
+
+        JLabel keysLabel = new JLabel("Key File:");
+        keysField = new JTextField(15);
+        keysField.setToolTipText("Optional: API keys or tenant IDs, one per line, sent in the X-API-Key header");
+
+        JLabel keyAssignmentLabel = new JLabel("Keys:");
+        keyAssignmentCombo = new JComboBox<>(KeyAssignment.values());
+        keyAssignmentCombo.setToolTipText("One key per user, or the next key for every request");
+
+        analyzeButton = new JButton("Analyze Runs...");
+        analyzeButton.setToolTipText("Summarize one recorded run file, or compare two");
+        analyzeButton.addActionListener(e -> analyzeRuns());
+
+        // Method change listener
+        methodCombo.addActionListener(e -> {
+            String method = (String) methodCombo.getSelectedItem();
+            boolean isPayloadMethod = !"GET".equalsIgnoreCase(method);
+            payloadArea.setEnabled(isPayloadMethod);
+            toggleJsonInput.setEnabled(isPayloadMethod);
+            addFieldButton.setEnabled(isPayloadMethod);
+            
+            if (!isPayloadMethod) {
+                jsonEditorMode = false;
+                jsonEditorPanel.setVisible(false);
+                toggleJsonInput.setText("Switch to JSON Editor");
+                payloadScroll.setVisible(true);
+            }
+        });
+
+        // Layout configuration
+        c.insets = new Insets(5, 5, 5, 5);
+        c.fill = GridBagConstraints.HORIZONTAL;
+
+        // URL row
+        c.gridx = 0; c.gridy = 0; inputPanel.add(urlLabel, c);
+        c.gridx = 1; c.gridy = 0; c.gridwidth = 2; inputPanel.add(urlField, c);
+        c.gridx = 3; c.gridy = 0; c.gridwidth = 1; inputPanel.add(scenarioButton, c);
+
+        // Method and threads row
+        c.gridwidth = 1;
+        c.gridx = 0; c.gridy = 1; inputPanel.add(methodLabel, c);
+        c.gridx = 1; c.gridy = 1; inputPanel.add(methodCombo, c);
+        c.gridx = 2; c.gridy = 1; inputPanel.add(threadsLabel, c);
+        c.gridx = 3; c.gridy = 1; inputPanel.add(threadsField, c);
+
+        // Requests and delay row
+        c.gridx = 0; c.gridy = 2; inputPanel.add(requestsLabel, c);
+        c.gridx = 1; c.gridy = 2; inputPanel.add(requestsField, c);
+        c.gridx = 2; c.gridy = 2; inputPanel.add(delayLabel, c);
+        c.gridx = 3; c.gridy = 2; inputPanel.add(delayField, c);
+
+        // Execution mode row
+        c.gridx = 0; c.gridy = 3; inputPanel.add(executionModeLabel, c);
+        c.gridx = 1; c.gridy = 3; inputPanel.add(executionModeCombo, c);
+        c.gridx = 2; c.gridy = 3; inputPanel.add(transportLabel, c);
+        c.gridx = 3; c.gridy = 3; inputPanel.add(transportCombo, c);
+
+        // Connection pool row
+        c.gridx = 0; c.gridy = 4; inputPanel.add(maxConnectionsLabel, c);
+        c.gridx = 1; c.gridy = 4; inputPanel.add(maxConnectionsField, c);
+        c.gridx = 2; c.gridy = 4; inputPanel.add(loadModelLabel, c);
+        c.gridx = 3; c.gridy = 4; inputPanel.add(loadModelCombo, c);
+
+        // Arrival rate row
+        c.gridx = 0; c.gridy = 5; inputPanel.add(targetRateLabel, c);
+        c.gridx = 1; c.gridy = 5; inputPanel.add(targetRateField, c);
+        c.gridx = 2; c.gridy = 5; inputPanel.add(rampLabel, c);
+        c.gridx = 3; c.gridy = 5; inputPanel.add(rampField, c);
+
+        // Load profile row
+        c.gridx = 0; c.gridy = 6; inputPanel.add(loadProfileLabel, c);
+        c.gridx = 1; c.gridy = 6; inputPanel.add(loadProfileCombo, c);
+        c.gridx = 2; c.gridy = 6; inputPanel.add(stepsLabel, c);
+        c.gridx = 3; c.gridy = 6; inputPanel.add(stepsPanel, c);
+
+        // Payload row
+        c.gridx = 0; c.gridy = 7; inputPanel.add(payloadLabel, c);
+        c.gridx = 1; c.gridy = 7; c.gridwidth = 3; inputPanel.add(payloadScroll, c);
+        
+        // JSON mode toggle
+        c.gridx = 0; c.gridy = 8; c.gridwidth = 4; inputPanel.add(toggleJsonInput, c);
+        
+        // JSON editor panel
+        c.gridx = 0; c.gridy = 9; c.gridwidth = 4; inputPanel.add(jsonEditorPanel, c);
+        
+        // Add field button
+        c.gridx = 0; c.gridy = 10; c.gridwidth = 2; inputPanel.add(addFieldButton, c);
+
+        // Discovery budget
+        c.gridwidth = 1;
+        c.gridx = 2; c.gridy = 10; inputPanel.add(probeBudgetLabel, c);
+        c.gridx = 3; c.gridy = 10; inputPanel.add(probeBudgetField, c);
+        
+        // Distributed agents
+        c.gridx = 0; c.gridy = 11; c.gridwidth = 1; inputPanel.add(agentsLabel, c);
+        c.gridx = 1; c.gridy = 11; inputPanel.add(agentsField, c);
+        c.gridx = 2; c.gridy = 11; inputPanel.add(agentTokenLabel, c);
+        c.gridx = 3; c.gridy = 11; inputPanel.add(agentTokenField, c);
+
+        // Response body handling
+        c.gridx = 0; c.gridy = 12; c.gridwidth = 1; inputPanel.add(bodyModeLabel, c);
+        c.gridx = 1; c.gridy = 12; inputPanel.add(bodyModeCombo, c);
+        c.gridx = 2; c.gridy = 12; inputPanel.add(bodyContainsLabel, c);
+        c.gridx = 3; c.gridy = 12; inputPanel.add(bodyContainsField, c);
+
+        // Behavior at the limit
+        c.gridx = 0; c.gridy = 13; c.gridwidth = 1; inputPanel.add(limitBehaviorLabel, c);
+        c.gridx = 1; c.gridy = 13; inputPanel.add(limitBehaviorCombo, c);
+        c.gridx = 2; c.gridy = 13; inputPanel.add(backoffLabel, c);
+        c.gridx = 3; c.gridy = 13; inputPanel.add(backoffCombo, c);
+        c.gridx = 0; c.gridy = 14; inputPanel.add(durationLabel, c);
+        c.gridx = 1; c.gridy = 14; inputPanel.add(durationField, c);
+        c.gridx = 2; c.gridy = 14; inputPanel.add(backoffBaseLabel, c);
+        c.gridx = 3; c.gridy = 14; inputPanel.add(backoffField, c);
+
+        // Run files
+        c.gridx = 0; c.gridy = 15; c.gridwidth = 1; inputPanel.add(recordLabel, c);
+        c.gridx = 1; c.gridy = 15; c.gridwidth = 2; inputPanel.add(recordField, c);
+        c.gridx = 3; c.gridy = 15; c.gridwidth = 1; inputPanel.add(analyzeButton, c);
+
+        c.gridx = 0; c.gridy = 16; c.gridwidth = 1; inputPanel.add(metricsLabel, c);
+        c.gridx = 1; c.gridy = 16; inputPanel.add(metricsField, c);
+
+        // Credentials
+        c.gridx = 0; c.gridy = 17; inputPanel.add(keysLabel, c);
+        c.gridx = 1; c.gridy = 17; inputPanel.add(keysField, c);
+        c.gridx = 2; c.gridy = 17; inputPanel.add(keyAssignmentLabel, c);
+        c.gridx = 3; c.gridy = 17; inputPanel.add(keyAssignmentCombo, c);
+
+        // Start button
+        c.gridx = 0; c.gridy = 18; c.gridwidth = 2; inputPanel.add(startButton, c);
+        c.gridx = 2; c.gridy = 18; c.gridwidth = 2; inputPanel.add(discoverButton, c);
+
+        // Output area
+        outputArea = new JTextArea();
+        outputArea.setEditable(false);
+        JScrollPane scrollPane = new JScrollPane(outputArea);
+        scrollPane.setBorder(BorderFactory.createTitledBorder("Test Output"));
+        droppedLinesLabel = new JLabel(" ");
+        droppedLinesLabel.setForeground(ACCENT_COLOR);
+        droppedLinesLabel.setBorder(BorderFactory.createEmptyBorder(2, 10, 2, 10));
+        logPipeline = new LogPipeline(outputArea, droppedLinesLabel, LOG_BUFFER_CAPACITY, LOG_VIEW_MAX_LINES,
+                SUCCESS_COLOR, ERROR_COLOR, ACCENT_COLOR);
+        logPipeline.start();
+
+        // Add components to main panel
+        mainPanel.add(inputPanel, BorderLayout.NORTH);
+        chartPanel = new ThroughputChartPanel(SUCCESS_COLOR, ACCENT_COLOR, ERROR_COLOR);
+        chartPanel.setBorder(BorderFactory.createTitledBorder("Live Throughput and Latency"));
+        JSplitPane outputSplit = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, scrollPane, chartPanel);
+        outputSplit.setResizeWeight(0.6);
+        mainPanel.add(outputSplit, BorderLayout.CENTER);
+        throughputLabel = new JLabel(" ");
+        throughputLabel.setBorder(BorderFactory.createEmptyBorder(2, 10, 2, 10));
+        throughputTimer = new Timer(1000, e -> updateThroughput());
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.add(throughputLabel, BorderLayout.WEST);
+        statusPanel.add(droppedLinesLabel, BorderLayout.EAST);
+        mainPanel.add(statusPanel, BorderLayout.SOUTH);
+
+        getContentPane().add(mainPanel);
+    }
+
+    private void toggleJsonEditor() {
+        jsonEditorMode = !jsonEditorMode;
+        
+        if (jsonEditorMode) {
+            // Switch to editor mode
+            jsonEditorPanel.setVisible(true);
+            addFieldButton.setVisible(true);
+            payloadScroll.setVisible(false);
+            toggleJsonInput.setText("Switch to Raw JSON");
+            
+            // Clear existing fields
+            jsonEditorPanel.removeAll();
+            
+            // Parse existing JSON if any
+            String currentJson = payloadArea.getText().trim();
+            if (!currentJson.isEmpty()) {
+                try {
+                    for (JsonSupport.Member member : JsonSupport.members(currentJson)) {
+                        addJsonField(member.name(), member.value(), !member.string());
+                    }
+                } catch (IllegalArgumentException ex) {
+                    appendOutput("[!] Payload is not a JSON object the editor can show: " + ex.getMessage() + "\n");
+                    // If parsing fails, start with one empty field
+                    addJsonField("", "");
+                }
+            } else {
+                // Start with one empty field
+                addJsonField("", "");
+            }
+        } else {
+            // Switch to raw mode
+            jsonEditorPanel.setVisible(false);
+            addFieldButton.setVisible(false);
+            payloadScroll.setVisible(true);
+            toggleJsonInput.setText("Switch to JSON Editor");
+            
+            // Generate JSON from fields and update payload area
+            String generatedJson = generateJsonFromEditor();
+            payloadArea.setText(generatedJson);
+        }
+        
+        revalidate();
+        repaint();
+    }
+
+    private String generateJsonFromEditor() {
+        List<JsonSupport.Member> members = new ArrayList<>();
+        for (Component comp : jsonEditorPanel.getComponents()) {
+            if (comp instanceof JPanel fieldPanel) {
+                JTextField keyField = (JTextField) fieldPanel.getComponent(0);
+                JTextField valueField = (JTextField) fieldPanel.getComponent(2);
+                JCheckBox rawBox = (JCheckBox) fieldPanel.getComponent(4);
+
+                String key = keyField.getText().trim();
+                if (!key.isEmpty()) {
+                    members.add(new JsonSupport.Member(key, valueField.getText().trim(), !rawBox.isSelected()));
+                }
+            }
+        }
+        return JsonSupport.toJson(members);
+    }
+
+    private void addJsonField(String key, String value) {
+        addJsonField(key, value, false);
+    }
+
+    // raw: the value is JSON text (number, true, object, ...) rather than a string
+    private void addJsonField(String key, String value, boolean raw) {
+        JPanel fieldPanel = new JPanel();
+        fieldPanel.setLayout(new BoxLayout(fieldPanel, BoxLayout.X_AXIS));
+        fieldPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 60));
+        
+        JTextField keyField = new JTextField(key);
+        keyField.setBorder(BorderFactory.createTitledBorder("Key"));
+        keyField.setMaximumSize(new Dimension(Integer.MAX_VALUE, keyField.getPreferredSize().height));
+        
+        JTextField valueField = new JTextField(value);
+        valueField.setBorder(BorderFactory.createTitledBorder("Value"));
+        valueField.setMaximumSize(new Dimension(Integer.MAX_VALUE, valueField.getPreferredSize().height));
+
+        JCheckBox rawBox = new JCheckBox("JSON", raw);
+        rawBox.setToolTipText("Send the value as JSON (number, true, null, object, array) instead of a string");
+        
+        JButton removeButton = createRemoveButton(fieldPanel);
+        
+        fieldPanel.add(keyField);
+        fieldPanel.add(Box.createHorizontalStrut(10));
+        fieldPanel.add(valueField);
+        fieldPanel.add(Box.createHorizontalStrut(5));
+        fieldPanel.add(rawBox);
+        fieldPanel.add(removeButton);
+        
+        jsonEditorPanel.add(fieldPanel);
+        jsonEditorPanel.revalidate();
+        jsonEditorPanel.repaint();
+    }
+
+    private JButton createRemoveButton(JPanel fieldPanel) {
+        JButton removeButton = new JButton("×");
+        removeButton.setFont(new Font("Arial", Font.BOLD, 14));
+        removeButton.setForeground(ERROR_COLOR);
+        removeButton.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+        removeButton.setContentAreaFilled(false);
+        removeButton.addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseEntered(java.awt.event.MouseEvent evt) {
+                removeButton.setForeground(ERROR_COLOR.darker());
+            }
+            public void mouseExited(java.awt.event.MouseEvent evt) {
+                removeButton.setForeground(ERROR_COLOR);
+            }
+        });
+        removeButton.addActionListener(e -> {
+            jsonEditorPanel.remove(fieldPanel);
+            jsonEditorPanel.revalidate();
+            jsonEditorPanel.repaint();
+        });
+        return removeButton;
+    }
+
+    // Edits the scenario endpoints in a table; an empty table goes back to
+    // the single URL
+    private void editScenario() {
+        DefaultTableModel model = new DefaultTableModel(new Object[]{"Name", "Weight", "Method", "URL", "Payload"}, 0);
+        for (Endpoint endpoint : scenario) {
+            model.addRow(new Object[]{endpoint.getName(), Integer.toString(endpoint.getWeight()), endpoint.getMethod(),
+                    endpoint.getTargetUri().toString(), endpoint.getPayload()});
+        }
+        if (scenario.isEmpty()) {
+            String method = (String) methodCombo.getSelectedItem();
+            model.addRow(new Object[]{"a", "1", method, urlField.getText().trim(),
+                    "GET".equals(method) ? "" : payloadArea.getText().trim()});
+        }
+        JTable table = new JTable(model);
+        table.getColumnModel().getColumn(2).setCellEditor(
+                new DefaultCellEditor(new JComboBox<>(new String[]{"GET", "POST", "PUT", "DELETE"})));
+        table.getColumnModel().getColumn(0).setPreferredWidth(60);
+        table.getColumnModel().getColumn(1).setPreferredWidth(50);
+        table.getColumnModel().getColumn(2).setPreferredWidth(60);
+        table.getColumnModel().getColumn(3).setPreferredWidth(260);
+        table.getColumnModel().getColumn(4).setPreferredWidth(260);
+        JScrollPane tableScroll = new JScrollPane(table);
+        tableScroll.setPreferredSize(new Dimension(720, 180));
+
+        JComboBox<ScenarioOrder> orderCombo = new JComboBox<>(ScenarioOrder.values());
+        orderCombo.setSelectedItem(scenarioOrder);
+        JButton addRow = new JButton("Add Endpoint");
+        addRow.addActionListener(e -> model.addRow(new Object[]{"e" + (model.getRowCount() + 1), "1", "GET", "", ""}));
+        JButton removeRow = new JButton("Remove Selected");
+        removeRow.addActionListener(e -> {
+            int row = table.getSelectedRow();
+            if (row >= 0) model.removeRow(row);
+        });
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(new JLabel("Order:"));
+        controls.add(orderCombo);
+        controls.add(addRow);
+        controls.add(removeRow);
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.add(tableScroll, BorderLayout.CENTER);
+        panel.add(controls, BorderLayout.SOUTH);
+
+        while (true) {
+            int option = JOptionPane.showConfirmDialog(this, panel, "Scenario Endpoints",
+                    JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+            if (option != JOptionPane.OK_OPTION) return;
+            if (table.isEditing()) {
+                table.getCellEditor().stopCellEditing();
+            }
+            List<Endpoint> endpoints = new ArrayList<>();
+            try {
+                for (int row = 0; row < model.getRowCount(); row++) {
+                    String name = String.valueOf(model.getValueAt(row, 0)).trim();
+                    String url = String.valueOf(model.getValueAt(row, 3)).trim();
+                    if (name.isEmpty() && url.isEmpty()) continue;
+                    endpoints.add(Endpoint.parse(name, model.getValueAt(row, 1) + " " + model.getValueAt(row, 2)
+                            + " " + url + " " + String.valueOf(model.getValueAt(row, 4)).trim()));
+                }
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(this, ex.getMessage(), "Invalid endpoint", JOptionPane.ERROR_MESSAGE);
+                continue;
+            }
+            // One endpoint is just the single URL form
+            scenario.clear();
+            scenarioOrder = (ScenarioOrder) orderCombo.getSelectedItem();
+            if (endpoints.size() == 1) {
+                Endpoint only = endpoints.get(0);
+                urlField.setText(only.getTargetUri().toString());
+                methodCombo.setSelectedItem(only.getMethod());
+                payloadArea.setText(only.getPayload());
+            } else {
+                scenario.addAll(endpoints);
+            }
+            boolean single = scenario.isEmpty();
+            urlField.setEnabled(single);
+            methodCombo.setEnabled(single);
+            scenarioButton.setText(single ? "Scenario..." : "Scenario (" + scenario.size() + ")...");
+            return;
+        }
+    }
+
+    private void applyStyles() {
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (Exception e) {
+            // Fallback to default if system L&F fails
+        }
+
+        // Frame style
+        getContentPane().setBackground(SECONDARY_COLOR);
+        
+        // Style all buttons
+        styleButton(startButton, BUTTON_BG);
+        styleButton(discoverButton, BUTTON_BG);
+        styleButton(toggleJsonInput, BUTTON_BG);
+        styleButton(addFieldButton, BUTTON_BG);
+        styleButton(scenarioButton, BUTTON_BG);
+        styleButton(analyzeButton, BUTTON_BG);
+        
+        // Input fields styling
+        urlField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        methodCombo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        threadsField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        requestsField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        delayField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        executionModeCombo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        transportCombo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        maxConnectionsField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        loadModelCombo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        targetRateField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        rampField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        loadProfileCombo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        stepsField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        holdField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        probeBudgetField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        agentsField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        agentTokenField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        bodyModeCombo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        bodyContainsField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        recordField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        metricsField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        keysField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        keyAssignmentCombo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        limitBehaviorCombo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        backoffCombo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        durationField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        backoffField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        payloadArea.setFont(new Font("Consolas", Font.PLAIN, 12));
+        
+        // Output area styling
+        outputArea.setFont(new Font("Consolas", Font.PLAIN, 12));
+        outputArea.setBackground(new Color(245, 245, 245));
+        
+        // Labels styling
+        for (Component comp : getComponents()) {
+            if (comp instanceof JLabel) {
+                ((JLabel) comp).setFont(new Font("Segoe UI", Font.BOLD, 12));
+            }
+        }
+    }
+
+    private void styleButton(JButton button, Color bgColor) {
+        button.setBackground(bgColor);
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        button.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        button.setBorder(BorderFactory.createEmptyBorder(5, 15, 5, 15));
+        
+        button.addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseEntered(java.awt.event.MouseEvent evt) {
+                button.setBackground(BUTTON_HOVER);
+            }
+            public void mouseExited(java.awt.event.MouseEvent evt) {
+                button.setBackground(bgColor);
+            }
+            public void mousePressed(java.awt.event.MouseEvent evt) {
+                button.setBackground(BUTTON_PRESSED);
+            }
+            public void mouseReleased(java.awt.event.MouseEvent evt) {
+                button.setBackground(BUTTON_HOVER);
+            }
+        });
+    }
+
+    // Reads and validates the form; shows a dialog and returns null when invalid
+    private TestConfig buildConfig() {
+        final String url = urlField.getText().trim();
+        final String method = (String) methodCombo.getSelectedItem();
+        
+        // Initialize payload
+        String payload = "";
+        if (!"GET".equalsIgnoreCase(method)) {
+            if (jsonEditorMode) {
+                // Checked with the rest of the form by TestConfig.validate
+                payload = generateJsonFromEditor();
+            } else {
+                payload = payloadArea.getText().trim();
+            }
+        }
+
+        final TestConfig config = new TestConfig();
+        try {
+            config.setScenario(scenario);
+            config.setScenarioOrder(scenarioOrder);
+            config.setTargetUri(TestConfig.parseTargetUri(url));
+            config.setMethod(method);
+            config.setPayload(payload);
+            config.setThreads(Integer.parseInt(threadsField.getText().trim()));
+            config.setRequestsPerThread(Integer.parseInt(requestsField.getText().trim()));
+            config.setDelayMs(Integer.parseInt(delayField.getText().trim()));
+            config.setMaxConnections(Integer.parseInt(maxConnectionsField.getText().trim()));
+            config.setTargetRate(Double.parseDouble(targetRateField.getText().trim()));
+            config.setRampSeconds(Double.parseDouble(rampField.getText().trim()));
+            config.setLoadProfile((LoadProfile) loadProfileCombo.getSelectedItem());
+            config.setSteps(Integer.parseInt(stepsField.getText().trim()));
+            config.setHoldSeconds(Integer.parseInt(holdField.getText().trim()));
+            config.setProbeBudget(Integer.parseInt(probeBudgetField.getText().trim()));
+            config.setExecutionMode((ExecutionMode) executionModeCombo.getSelectedItem());
+            config.setTransportMode((TransportMode) transportCombo.getSelectedItem());
+            config.setLoadModel((LoadModel) loadModelCombo.getSelectedItem());
+            config.setAgents(TestConfig.parseAgents(agentsField.getText()));
+            config.setAgentToken(new String(agentTokenField.getPassword()));
+            config.setBodyMode((BodyMode) bodyModeCombo.getSelectedItem());
+            config.setBodyContains(bodyContainsField.getText().trim());
+            config.setLimitBehavior((LimitBehavior) limitBehaviorCombo.getSelectedItem());
+            config.setBackoff((Backoff) backoffCombo.getSelectedItem());
+            config.setDurationSeconds(Integer.parseInt(durationField.getText().trim()));
+            config.setBackoffMs(Integer.parseInt(backoffField.getText().trim()));
+            String record = recordField.getText().trim();
+            config.setRecordPath(record.isEmpty() ? null : java.nio.file.Path.of(record));
+            config.setMetricsAddress(TestConfig.parseMetricsAddress(metricsField.getText().trim()));
+            String keyFile = keysField.getText().trim();
+            config.setKeyFile(keyFile.isEmpty() ? null : java.nio.file.Path.of(keyFile));
+            config.setKeyAssignment((KeyAssignment) keyAssignmentCombo.getSelectedItem());
+            config.validate();
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(RateLimitTesterGUI.this,
+                    "Please enter valid numeric values.",
+                    "Invalid input", JOptionPane.ERROR_MESSAGE);
+            return null;
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(RateLimitTesterGUI.this,
+                    ex.getMessage(),
+                    "Invalid input", JOptionPane.ERROR_MESSAGE);
+            return null;
+        } catch (java.io.IOException ex) {
+            JOptionPane.showMessageDialog(RateLimitTesterGUI.this,
+                    "Unknown metrics host: " + ex.getMessage(),
+                    "Invalid input", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+
+        if (!config.hasScenario() && config.hasBody() && payload.isEmpty()) {
+            int option = JOptionPane.showConfirmDialog(RateLimitTesterGUI.this,
+                    "JSON payload is empty. Continue with empty payload?",
+                    "Empty Payload", JOptionPane.YES_NO_OPTION);
+            if (option != JOptionPane.YES_OPTION) return null;
+        }
+        return config;
+    }
+
+    private TestListener outputListener() {
+        return new TestListener() {
+            @Override
+            public void onEvent(String line) {
+                logEvent(line);
+            }
+
+            @Override
+            public void onStatus(String line) {
+                appendOutput(line);
+            }
+
+            @Override
+            public int queuedLines() {
+                return logPipeline.queuedLines();
+            }
+
+            @Override
+            public long droppedLines() {
+                return logPipeline.droppedLines();
+            }
+        };
+    }
+
+    private void setRunning(boolean running) {
+        startButton.setEnabled(!running);
+        discoverButton.setEnabled(!running);
+        analyzeButton.setEnabled(!running);
+    }
+
+    // Once a second: requests and mean latency since the previous tick
+    private void updateThroughput() {
+        LoadTestEngine engine = currentEngine;
+        if (engine == null) return;
+        TimeSeriesCounters series = engine.timeSeries();
+        long[] delta = new long[TimeSeriesCounters.FIELDS];
+        for (int field = 0; field < delta.length; field++) {
+            long total = series.total(field);
+            delta[field] = total - lastTotals[field];
+            lastTotals[field] = total;
+        }
+        long requests = delta[TimeSeriesCounters.SUCCESS] + delta[TimeSeriesCounters.RATE_LIMITED]
+                + delta[TimeSeriesCounters.ERRORS];
+        double meanMs = delta[TimeSeriesCounters.LATENCY_COUNT] > 0
+                ? delta[TimeSeriesCounters.LATENCY_SUM_NANOS] / 1e6 / delta[TimeSeriesCounters.LATENCY_COUNT] : 0;
+        String phases = engine.phaseStatus();
+        throughputLabel.setText(String.format("t=%ds  %d req/s  (200=%d 429=%d other=%d)  mean %.1f ms%s  |  %s",
+                series.currentSecond(), requests, delta[TimeSeriesCounters.SUCCESS],
+                delta[TimeSeriesCounters.RATE_LIMITED], delta[TimeSeriesCounters.ERRORS], meanMs,
+                phases.isEmpty() ? "" : "  |  " + phases, engine.clientStatus()));
+    }
+
+    class StartButtonListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            logPipeline.clear();
+            final TestConfig config = buildConfig();
+            if (config == null) return;
+
+            setRunning(true);
+            appendOutput("Starting test...\n");
+            if (config.hasScenario()) {
+                appendOutput("Scenario: " + config.getScenarioOrder() + "\n");
+                for (Endpoint endpoint : config.getScenario()) {
+                    appendOutput("  " + endpoint.getName() + ": " + endpoint.spec() + "\n");
+                }
+            } else {
+                appendOutput("Using payload: " + config.getPayload() + "\n");
+            }
+            appendOutput("Execution mode: " + config.getExecutionMode() + "\n");
+            appendOutput("Transport: " + config.getTransportMode() + "\n");
+            appendOutput("Load model: " + config.getLoadModel() + "\n");
+            appendOutput("Load profile: " + config.getLoadProfile()
+                    + (config.isTimed() ? ", " + config.runSeconds() + " s" : "") + "\n");
+            appendOutput("On 429: " + config.getLimitBehavior()
+                    + (config.continuesThroughLimit() ? ", backoff " + config.getBackoff() : "") + "\n");
+
+            if (config.isDistributed()) {
+                runDistributed(config);
+                return;
+            }
+
+            LoadTestEngine engine = new LoadTestEngine(config, outputListener());
+            java.util.Arrays.fill(lastTotals, 0);
+            currentEngine = engine;
+            throughputTimer.start();
+            chartPanel.start(engine);
+
+            new Thread(() -> {
+                TestResult result = null;
+                try {
+                    result = engine.run();
+                } catch (java.io.UncheckedIOException ex) {
+                    appendOutput("[!] " + ex.getMessage() + ": " + ex.getCause().getMessage() + "\n");
+                } catch (RuntimeException ex) {
+                    // A bad key file and the like: report it and reset the UI
+                    appendOutput("[!] Test failed: " + ex.getMessage() + "\n");
+                }
+                SwingUtilities.invokeLater(() -> {
+                    throughputTimer.stop();
+                    chartPanel.stop();
+                    currentEngine = null;
+                });
+                if (result != null) {
+                    for (String line : result.summaryLines()) {
+                        appendOutput(line + "\n");
+                    }
+                    if (config.getRecordPath() != null) {
+                        appendOutput("Run File: " + config.getRecordPath() + "\n");
+                    }
+                }
+                if (logPipeline.droppedLines() > 0) {
+                    appendOutput(String.format("Dropped Log Lines: %d\n", logPipeline.droppedLines()));
+                }
+
+                SwingUtilities.invokeLater(() -> setRunning(false));
+            }, "test-runner").start();
+        }
+    }
+
+    private void runDistributed(TestConfig config) {
+        appendOutput("Agents: " + String.join(", ", config.getAgents()) + "\n");
+        DistributedCoordinator coordinator = new DistributedCoordinator(config, outputListener());
+
+        new Thread(() -> {
+            try {
+                TestResult result = coordinator.run();
+                for (String line : result.summaryLines()) {
+                    appendOutput(line + "\n");
+                }
+            } catch (RuntimeException ex) {
+                appendOutput("[!] Distributed test failed: " + ex.getMessage() + "\n");
+            }
+
+            SwingUtilities.invokeLater(() -> setRunning(false));
+        }, "test-coordinator").start();
+    }
+
+    class DiscoverButtonListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            logPipeline.clear();
+            final TestConfig config = buildConfig();
+            if (config == null) return;
+
+            setRunning(true);
+            appendOutput("Discovering rate limit (budget " + config.getProbeBudget() + " requests)...\n");
+
+            RateLimitProber prober = new RateLimitProber(config, outputListener());
+
+            new Thread(() -> {
+                DiscoveryResult result = prober.run();
+                for (String line : result.summaryLines()) {
+                    appendOutput(line + "\n");
+                }
+
+                SwingUtilities.invokeLater(() -> setRunning(false));
+            }, "rate-limit-prober").start();
+        }
+    }
+
+    // One chosen run file is summarized again, two are compared (the first
+    // chosen is the base)
+    private void analyzeRuns() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Choose one run file, or two to compare");
+        chooser.setMultiSelectionEnabled(true);
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        java.io.File[] files = chooser.getSelectedFiles();
+        if (files.length == 0 || files.length > 2) {
+            JOptionPane.showMessageDialog(this, "Choose one run file, or two to compare.",
+                    "Analyze Runs", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        logPipeline.clear();
+        setRunning(true);
+        new Thread(() -> {
+            List<RunAnalysis> analyses = new ArrayList<>();
+            try {
+                for (java.io.File file : files) {
+                    appendOutput("Reading " + file + "...\n");
+                    try (RunFile run = RunFile.open(file.toPath())) {
+                        analyses.add(RunAnalysis.of(run));
+                    }
+                }
+                List<String> lines = new ArrayList<>();
+                if (analyses.size() == 1) {
+                    lines.addAll(analyses.get(0).describe());
+                    lines.addAll(analyses.get(0).toResult().summaryLines());
+                } else {
+                    lines.addAll(RunAnalysis.diff(analyses.get(0), analyses.get(1)));
+                }
+                for (String line : lines) {
+                    appendOutput(line + "\n");
+                }
+            } catch (java.io.IOException ex) {
+                appendOutput("[!] Cannot read run file: " + ex.getMessage() + "\n");
+            }
+
+            SwingUtilities.invokeLater(() -> setRunning(false));
+        }, "run-analysis").start();
+    }
+
+    // Status and summary lines; never dropped
+    private void appendOutput(String text) {
+        logPipeline.put(text);
+    }
+
+    // Per-request lines from workers; dropped when the log buffer is full
+    private void logEvent(String text) {
+        logPipeline.offer(text);
+    }
+
+    public static void main(String[] args) {
+        SwingUtilities.invokeLater(() -> {
+            RateLimitTesterGUI gui = new RateLimitTesterGUI();
+            gui.setVisible(true);
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,306 @@
+package ratelimittester;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// What the server's rate limit headers said during a load run, per second:
+// the lowest and highest X-RateLimit-Remaining, the advertised limit, and
+// when X-RateLimit-Reset and Retry-After said the budget comes back, plus
+// the Remaining of the first and last response of the second. From
+// that the report reconstructs the limiter as the server sees it: burst
+// capacity, refills, window length and whether Retry-After was right,
+// without sending any extra traffic. Writers only touch a cell when it
+// moves a minimum or maximum, so most responses cost a few reads. Covers
+// the first HISTORY_SECONDS of a run.
+final class RateLimitTimeline {
+
+    private static final int MIN_REMAINING = 0;
+    private static final int MAX_REMAINING = 1;
+    private static final int MAX_LIMIT = 2;
+    // Times below are milliseconds from the start of the run
+    private static final int MIN_RESET_AT = 3;
+    private static final int MAX_RESET_AT = 4;
+    private static final int MIN_RETRY_AT = 5;
+    private static final int MAX_RETRY_AT = 6;
+    // Arrival millisecond within the second above Remaining, so the lowest
+    // value is the first response and the highest the last
+    private static final int FIRST_REMAINING = 7;
+    private static final int LAST_REMAINING = 8;
+    private static final int FIELDS = 9;
+    private static final int ARRIVAL_SHIFT = 40;
+    private static final long REMAINING_MASK = (1L << ARRIVAL_SHIFT) - 1;
+
+    private static final long UNSET_MIN = Long.MAX_VALUE;
+    private static final long UNSET_MAX = Long.MIN_VALUE;
+    // Rows of the remaining budget shown in the summary
+    private static final int MAX_ROWS = 20;
+
+    private final int seconds;
+    private final AtomicLongArray cells;
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder withHeaders = new LongAdder();
+    private long startNanos;
+    private long startMillis;
+
+    RateLimitTimeline(int seconds) {
+        this.seconds = seconds;
+        this.cells = new AtomicLongArray(seconds * FIELDS);
+        for (int second = 0; second < seconds; second++) {
+            int row = second * FIELDS;
+            for (int field : new int[] {MIN_REMAINING, MIN_RESET_AT, MIN_RETRY_AT, FIRST_REMAINING}) {
+                cells.set(row + field, UNSET_MIN);
+            }
+            for (int field : new int[] {MAX_REMAINING, MAX_LIMIT, MAX_RESET_AT, MAX_RETRY_AT, LAST_REMAINING}) {
+                cells.set(row + field, UNSET_MAX);
+            }
+        }
+    }
+
+    // Time zero of the timeline, on both clocks. Before any record().
+    void start(long startNanos, long startMillis) {
+        this.startNanos = startNanos;
+        this.startMillis = startMillis;
+    }
+
+    // A response arrived at nowNanos; headers is NONE when it had none
+    void record(RateLimitHeaders headers, long nowNanos) {
+        responses.increment();
+        if (!headers.isPresent()) return;
+        withHeaders.increment();
+        long atMillis = (nowNanos - startNanos) / 1_000_000L;
+        long second = atMillis / 1000;
+        if (second < 0 || second >= seconds) return;
+        int row = (int) second * FIELDS;
+        if (headers.remaining() >= 0) {
+            lower(row + MIN_REMAINING, headers.remaining());
+            raise(row + MAX_REMAINING, headers.remaining());
+            long arrival = (atMillis % 1000) << ARRIVAL_SHIFT | Math.min(headers.remaining(), REMAINING_MASK);
+            lower(row + FIRST_REMAINING, arrival);
+            raise(row + LAST_REMAINING, arrival);
+        }
+        if (headers.limit() >= 0) {
+            raise(row + MAX_LIMIT, headers.limit());
+        }
+        if (headers.resetEpochMillis() >= 0) {
+            long resetAt = headers.resetEpochMillis() - startMillis;
+            lower(row + MIN_RESET_AT, resetAt);
+            raise(row + MAX_RESET_AT, resetAt);
+        }
+        if (headers.retryAfterMillis() >= 0) {
+            long retryAt = atMillis + headers.retryAfterMillis();
+            lower(row + MIN_RETRY_AT, retryAt);
+            raise(row + MAX_RETRY_AT, retryAt);
+        }
+    }
+
+    private void lower(int cell, long value) {
+        long current;
+        while (value < (current = cells.get(cell)) && !cells.compareAndSet(cell, current, value)) {
+            // retry
+        }
+    }
+
+    private void raise(int cell, long value) {
+        long current;
+        while (value > (current = cells.get(cell)) && !cells.compareAndSet(cell, current, value)) {
+            // retry
+        }
+    }
+
+    // series gives the 200 and 429 counts per second. reorder is how many
+    // responses can be in flight at once: a rise in Remaining no larger than
+    // that may just be responses arriving out of order, not a refill. keys
+    // is how many credentials the run spread its requests over; with more
+    // than one, each has its own budget and their headers interleave here.
+    List<String> report(TimeSeriesCounters series, int reorder, int keys) {
+        List<String> lines = new ArrayList<>();
+        long total = responses.sum();
+        if (total == 0) return lines;
+        long headed = withHeaders.sum();
+        if (headed == 0) {
+            lines.add("Rate Limit Headers: none in " + total + " responses");
+            return lines;
+        }
+
+        int last = seconds - 1;
+        while (last >= 0 && !hasRemaining(last) && !has(last, MAX_RETRY_AT) && !has(last, MAX_LIMIT)) {
+            last--;
+        }
+        long[] counts = new long[(last + 1) * TimeSeriesCounters.FIELDS];
+        int harvested = series.copyHistory(0, last + 1, counts);
+
+        long limit = UNSET_MAX;
+        long highest = UNSET_MAX;
+        long lowest = UNSET_MIN;
+        int lowestAt = -1;
+        for (int second = 0; second <= last; second++) {
+            limit = Math.max(limit, get(second, MAX_LIMIT));
+            highest = Math.max(highest, get(second, MAX_REMAINING));
+            if (hasRemaining(second) && get(second, MIN_REMAINING) < lowest) {
+                lowest = get(second, MIN_REMAINING);
+                lowestAt = second;
+            }
+        }
+        lines.add(String.format("Rate Limit Headers: %d of %d responses%s", headed, total,
+                limit != UNSET_MAX ? ", advertised limit " + limit : ""));
+        if (highest != UNSET_MAX) {
+            lines.add(String.format("  Burst Capacity Seen: %d requests (highest Remaining %d, plus the request it answered)%s",
+                    highest + 1, highest, limit != UNSET_MAX && highest + 1 != limit ? " - differs from the advertised limit" : ""));
+            lines.add(String.format("  Lowest Remaining: %d, first at t=%ds", lowest, lowestAt));
+        }
+        if (keys > 1) {
+            lines.add(String.format("  Refills, window and Retry-After: not analysed - the headers of %d keys are mixed"
+                    + " in one timeline; rerun with a key count of 1 to see them", keys));
+            return lines;
+        }
+
+        // Refills: Remaining rose, from the last response of one second to
+        // the first of the next or within a second, by more than
+        // reordering explains
+        List<Integer> refills = new ArrayList<>();
+        long slack = Math.max(1, reorder);
+        int previous = -1;
+        for (int second = 0; second <= last; second++) {
+            if (!hasRemaining(second)) continue;
+            long first = get(second, FIRST_REMAINING) & REMAINING_MASK;
+            boolean between = previous >= 0 && first - (get(previous, LAST_REMAINING) & REMAINING_MASK) > slack;
+            if (between || get(second, MAX_REMAINING) - first > slack) {
+                refills.add(second);
+            }
+            previous = second;
+        }
+        if (!refills.isEmpty()) {
+            StringBuilder line = new StringBuilder("  Refills: ");
+            for (int i = 0; i < Math.min(refills.size(), MAX_ROWS); i++) {
+                line.append(i == 0 ? "t=" : ", t=").append(refills.get(i)).append('s');
+            }
+            if (refills.size() > MAX_ROWS) {
+                line.append(String.format(" and %d more", refills.size() - MAX_ROWS));
+            }
+            lines.add(line.toString());
+        }
+
+        lines.add("  Window: " + describeWindow(last, refills));
+        lines.add("  Retry-After: " + describeRetry(last, refills));
+
+        lines.add("  Remaining Budget (second: remaining, reset at, 200/429):");
+        List<Integer> rows = new ArrayList<>();
+        for (int second = 0; second <= last; second++) {
+            if (hasRemaining(second) || has(second, MAX_RESET_AT)) rows.add(second);
+        }
+        int step = Math.max(1, (rows.size() + MAX_ROWS - 1) / MAX_ROWS);
+        for (int i = 0; i < rows.size(); i++) {
+            int second = rows.get(i);
+            if (i % step != 0 && i != rows.size() - 1 && !refills.contains(second)) continue;
+            long ok = second < harvested ? counts[second * TimeSeriesCounters.FIELDS + TimeSeriesCounters.SUCCESS] : 0;
+            long limited = second < harvested ? counts[second * TimeSeriesCounters.FIELDS + TimeSeriesCounters.RATE_LIMITED] : 0;
+            lines.add(String.format("    t=%4ds  %-11s %-16s %d/%d%s", second,
+                    hasRemaining(second) ? get(second, MIN_REMAINING) + ".." + get(second, MAX_REMAINING) : "-",
+                    has(second, MAX_RESET_AT) ? "reset t=" + range(get(second, MIN_RESET_AT), get(second, MAX_RESET_AT)) : "",
+                    ok, limited, refills.contains(second) ? "  refill" : ""));
+        }
+        if (step > 1) {
+            lines.add(String.format("    (every %d%s second with headers shown, plus refills)", step, step == 2 ? "nd" : step == 3 ? "rd" : "th"));
+        }
+        return lines;
+    }
+
+    // A fixed window keeps one reset time until it refills, then moves it a
+    // whole window ahead; a sliding window or token bucket moves it along
+    // with the requests, in most seconds
+    private String describeWindow(int last, List<Integer> refills) {
+        List<Long> jumps = new ArrayList<>();
+        int observed = 0;
+        int changed = 0;
+        long previousMax = UNSET_MAX;
+        for (int second = 0; second <= last; second++) {
+            if (!has(second, MAX_RESET_AT)) continue;
+            observed++;
+            long min = get(second, MIN_RESET_AT);
+            long max = get(second, MAX_RESET_AT);
+            long jump = Math.max(max - min, previousMax != UNSET_MAX ? min - previousMax : 0);
+            // Reset headers count whole seconds
+            if (jump >= 1000) {
+                jumps.add(jump);
+                changed++;
+            } else if (max - min > 0 || (previousMax != UNSET_MAX && min != previousMax)) {
+                changed++;
+            }
+            previousMax = max;
+        }
+        String fromRefills = "";
+        if (refills.size() >= 2) {
+            List<Long> gaps = new ArrayList<>();
+            for (int i = 1; i < refills.size(); i++) {
+                gaps.add((long) (refills.get(i) - refills.get(i - 1)));
+            }
+            fromRefills = String.format("; refills every %d s", median(gaps));
+        }
+        if (observed == 0) {
+            return "no X-RateLimit-Reset" + fromRefills;
+        }
+        if (observed >= 3 && changed * 2 > observed) {
+            return "reset time moves with the requests (sliding window or token bucket)" + fromRefills;
+        }
+        if (jumps.isEmpty()) {
+            long at = get(firstWith(MAX_RESET_AT, last), MAX_RESET_AT);
+            return String.format("fixed, resets at t=%.1fs%s%s", at / 1000.0,
+                    at > (last + 1) * 1000L ? ", after the last response" : "", fromRefills);
+        }
+        return String.format("fixed, %.0f s (reset time moved ahead %d times)%s", median(jumps) / 1000.0, jumps.size(),
+                fromRefills);
+    }
+
+    // Compares when 429s were told to come back with the first refill after them
+    private String describeRetry(int last, List<Integer> refills) {
+        int first = firstWith(MIN_RETRY_AT, last);
+        if (first < 0) return "not sent";
+        long minAt = UNSET_MIN;
+        long maxAt = UNSET_MAX;
+        for (int second = first; second <= last; second++) {
+            if (!has(second, MIN_RETRY_AT)) continue;
+            minAt = Math.min(minAt, get(second, MIN_RETRY_AT));
+            maxAt = Math.max(maxAt, get(second, MAX_RETRY_AT));
+        }
+        String said = "said retry at t=" + range(minAt, maxAt);
+        for (int refill : refills) {
+            if (refill > first) {
+                return String.format("%s; budget refilled at t=%ds (%+.1f s against the earliest)", said, refill,
+                        refill - minAt / 1000.0);
+            }
+        }
+        return said + "; no refill seen after it (the run ended first)";
+    }
+
+    private static String range(long minMillis, long maxMillis) {
+        if (maxMillis - minMillis < 100) return String.format("%.1fs", minMillis / 1000.0);
+        return String.format("%.1f..%.1fs", minMillis / 1000.0, maxMillis / 1000.0);
+    }
+
+    private static long median(List<Long> values) {
+        values.sort(null);
+        return values.get(values.size() / 2);
+    }
+
+    private int firstWith(int field, int last) {
+        for (int second = 0; second <= last; second++) {
+            if (has(second, field)) return second;
+        }
+        return -1;
+    }
+
+    private boolean hasRemaining(int second) {
+        return has(second, MAX_REMAINING);
+    }
+
+    private boolean has(int second, int field) {
+        long value = get(second, field);
+        return value != UNSET_MIN && value != UNSET_MAX;
+    }
+
+    private long get(int second, int field) {
+        return cells.get(second * FIELDS + field);
+    }
+}
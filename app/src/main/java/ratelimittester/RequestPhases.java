@@ -0,0 +1,142 @@
+package ratelimittester;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Per-phase latency of a run: one histogram per phase and status class,
+// filled from the PhaseTimes the transports attach to their responses. The
+// breakdown shows whether time goes to connection setup, the server or the
+// body, and whether 429s are turned away quickly ahead of the backend or
+// come back as slowly as the work they refuse.
+final class RequestPhases {
+
+    enum Phase {
+        POOL_WAIT("Pool wait"),
+        DNS("DNS"),
+        CONNECT("Connect"),
+        TLS("TLS"),
+        FIRST_BYTE("First byte"),
+        TRANSFER("Transfer");
+
+        final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        long nanos(PhaseTimes times) {
+            return switch (this) {
+                case POOL_WAIT -> times.poolWaitNanos();
+                case DNS -> times.dnsNanos();
+                case CONNECT -> times.connectNanos();
+                case TLS -> times.tlsNanos();
+                case FIRST_BYTE -> times.firstByteNanos();
+                case TRANSFER -> times.transferNanos();
+            };
+        }
+    }
+
+    // Status classes, indexed like the TimeSeriesCounters fields
+    static final String[] STATUSES = {"200", "429", "Other"};
+    private static final Phase[] PHASES = Phase.values();
+    // Eighteen recorders: fewer stripes each than the main latency recorders
+    private static final int STRIPES = 4;
+    // Responses of each class before the summary compares 429s with 200s
+    private static final int MIN_COMPARED = 10;
+
+    // [phase][status class]
+    private final LatencyRecorder[][] recorders = new LatencyRecorder[PHASES.length][STATUSES.length];
+    // Totals at the previous status() call: [status class][count, nanos]
+    private final long[][] lastFirstByte = new long[STATUSES.length][2];
+
+    RequestPhases() {
+        for (LatencyRecorder[] byStatus : recorders) {
+            for (int i = 0; i < byStatus.length; i++) {
+                byStatus[i] = new LatencyRecorder(STRIPES);
+            }
+        }
+    }
+
+    // statusField is TimeSeriesCounters SUCCESS, RATE_LIMITED or ERRORS
+    void record(int statusField, PhaseTimes times) {
+        for (Phase phase : PHASES) {
+            long nanos = phase.nanos(times);
+            if (nanos >= 0) {
+                recorders[phase.ordinal()][statusField].record(nanos);
+            }
+        }
+    }
+
+    LatencyRecorder recorder(Phase phase, int statusField) {
+        return recorders[phase.ordinal()][statusField];
+    }
+
+    // Mean time to first byte of 200s and 429s since the previous call, for
+    // progress views; one caller at a time
+    synchronized String status() {
+        StringBuilder status = new StringBuilder();
+        for (int s = 0; s < 2; s++) {
+            LatencyRecorder recorder = recorders[Phase.FIRST_BYTE.ordinal()][s];
+            long count = recorder.count();
+            long nanos = recorder.totalNanos();
+            long deltaCount = count - lastFirstByte[s][0];
+            if (deltaCount > 0) {
+                status.append(status.isEmpty() ? "first byte " : ", ").append(STATUSES[s]).append(' ')
+                        .append(String.format("%.1f ms", (nanos - lastFirstByte[s][1]) / 1e6 / deltaCount));
+            }
+            lastFirstByte[s][0] = count;
+            lastFirstByte[s][1] = nanos;
+        }
+        return status.toString();
+    }
+
+    List<String> report(TransportMode transport) {
+        LatencyHistogram[][] histograms = new LatencyHistogram[PHASES.length][STATUSES.length];
+        boolean[] statusSeen = new boolean[STATUSES.length];
+        for (Phase phase : PHASES) {
+            for (int s = 0; s < STATUSES.length; s++) {
+                histograms[phase.ordinal()][s] = recorders[phase.ordinal()][s].snapshot();
+                statusSeen[s] |= histograms[phase.ordinal()][s].count() > 0;
+            }
+        }
+        List<String> lines = new ArrayList<>();
+        if (histograms[Phase.FIRST_BYTE.ordinal()][0].count() + histograms[Phase.FIRST_BYTE.ordinal()][1].count()
+                + histograms[Phase.FIRST_BYTE.ordinal()][2].count() == 0) {
+            return lines;
+        }
+        lines.add(transport == TransportMode.FRESH_CONNECTION
+                ? "Request Phases (as measured, p50 / p99 ms):"
+                : "Request Phases (as measured, p50 / p99 ms; new connections' DNS, connect and TLS are in first byte):");
+        StringBuilder heading = new StringBuilder(String.format("  %-12s", "Phase"));
+        for (int s = 0; s < STATUSES.length; s++) {
+            if (statusSeen[s]) heading.append(String.format("%-20s", STATUSES[s]));
+        }
+        lines.add(heading.toString().stripTrailing());
+        for (Phase phase : PHASES) {
+            LatencyHistogram[] byStatus = histograms[phase.ordinal()];
+            if (byStatus[0].count() + byStatus[1].count() + byStatus[2].count() == 0) continue;
+            StringBuilder row = new StringBuilder(String.format("  %-12s", phase.label));
+            for (int s = 0; s < STATUSES.length; s++) {
+                if (!statusSeen[s]) continue;
+                row.append(String.format("%-20s", byStatus[s].count() == 0 ? "-" : String.format("%.2f / %.2f",
+                        byStatus[s].valueAtPercentile(50) / 1e6, byStatus[s].valueAtPercentile(99) / 1e6)));
+            }
+            lines.add(row.toString().stripTrailing());
+        }
+
+        LatencyHistogram success = histograms[Phase.FIRST_BYTE.ordinal()][0];
+        LatencyHistogram limited = histograms[Phase.FIRST_BYTE.ordinal()][1];
+        if (success.count() >= MIN_COMPARED && limited.count() >= MIN_COMPARED) {
+            double successMs = success.valueAtPercentile(50) / 1e6;
+            double limitedMs = limited.valueAtPercentile(50) / 1e6;
+            String verdict = limitedMs < successMs * 0.5
+                    ? "fast rejections, turned away before the backend does the work"
+                    : limitedMs > successMs * 0.8
+                    ? "about as slow as 200s, so the limit is checked behind or alongside the backend work"
+                    : "faster than 200s, but not by enough to call them edge rejections";
+            lines.add(String.format("  429s: first byte p50 %.2f ms vs %.2f ms for 200s - %s", limitedMs, successMs,
+                    verdict));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,188 @@
+package ratelimittester;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A request compiled once per run: method, URI, headers and the body already
+// encoded as UTF-8. Variables in the payload become fixed-width slots in the
+// encoded body, so rendering a request only overwrites those bytes in a
+// buffer the sender reuses; nothing is re-encoded or concatenated per send.
+//
+//   ${counter}    run-wide sequence number, 12 zero-padded digits
+//   ${random}     16 random hex digits
+//   ${timestamp}  epoch milliseconds, 13 digits
+//
+// Shared by every user of a run. A template without variables hands out one
+// body array to everybody, and transports may reuse whatever they build from it.
+public final class RequestTemplate {
+
+    static final String CONTENT_TYPE = "application/json; charset=UTF-8";
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    enum Variable {
+        COUNTER("counter", 12),
+        RANDOM("random", 16),
+        TIMESTAMP("timestamp", 13);
+
+        final String name;
+        final int width;
+
+        Variable(String name, int width) {
+            this.name = name;
+            this.width = width;
+        }
+    }
+
+    private final String method;
+    private final URI uri;
+    // Name, value pairs
+    private final String[] headers;
+    // Null without a body; slots hold zeros until rendered
+    private final byte[] body;
+    private final int[] slotOffsets;
+    private final Variable[] slotVariables;
+    // Shared with the variants from withHeader()
+    private final AtomicLong counter;
+    // A static template as the pooled transport sends it, built on first use
+    volatile HttpRequest prebuilt;
+
+    private RequestTemplate(String method, URI uri, String[] headers, byte[] body,
+                            int[] slotOffsets, Variable[] slotVariables) {
+        this(method, uri, headers, body, slotOffsets, slotVariables, new AtomicLong());
+    }
+
+    private RequestTemplate(String method, URI uri, String[] headers, byte[] body,
+                            int[] slotOffsets, Variable[] slotVariables, AtomicLong counter) {
+        this.method = method;
+        this.uri = uri;
+        this.headers = headers;
+        this.body = body;
+        this.slotOffsets = slotOffsets;
+        this.slotVariables = slotVariables;
+        this.counter = counter;
+    }
+
+    // payload is null for requests without a body. Throws
+    // IllegalArgumentException for an unknown or unterminated ${...}.
+    public static RequestTemplate compile(String method, URI uri, String payload) {
+        if (payload == null) {
+            return new RequestTemplate(method, uri, new String[0], null, new int[0], new Variable[0]);
+        }
+        StringBuilder text = new StringBuilder(payload.length());
+        List<Integer> offsets = new ArrayList<>();
+        List<Variable> variables = new ArrayList<>();
+        int encoded = 0;
+        int pos = 0;
+        while (true) {
+            int open = payload.indexOf("${", pos);
+            String literal = payload.substring(pos, open < 0 ? payload.length() : open);
+            text.append(literal);
+            encoded += literal.getBytes(StandardCharsets.UTF_8).length;
+            if (open < 0) break;
+            int close = payload.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unterminated variable in payload at position " + open + ".");
+            }
+            Variable variable = variable(payload.substring(open + 2, close).trim());
+            offsets.add(encoded);
+            variables.add(variable);
+            text.append("0".repeat(variable.width));
+            encoded += variable.width;
+            pos = close + 1;
+        }
+        int[] slotOffsets = new int[offsets.size()];
+        for (int i = 0; i < slotOffsets.length; i++) {
+            slotOffsets[i] = offsets.get(i);
+        }
+        return new RequestTemplate(method, uri, new String[]{"Content-Type", CONTENT_TYPE},
+                text.toString().getBytes(StandardCharsets.UTF_8), slotOffsets, variables.toArray(new Variable[0]));
+    }
+
+    // The same request with one more header, e.g. a credential. Renders into
+    // the same buffers as this template and continues its ${counter}.
+    public RequestTemplate withHeader(String name, String value) {
+        String[] more = Arrays.copyOf(headers, headers.length + 2);
+        more[headers.length] = name;
+        more[headers.length + 1] = value;
+        return new RequestTemplate(method, uri, more, body, slotOffsets, slotVariables, counter);
+    }
+
+    private static Variable variable(String name) {
+        for (Variable variable : Variable.values()) {
+            if (variable.name.equals(name)) {
+                return variable;
+            }
+        }
+        throw new IllegalArgumentException("Unknown payload variable ${" + name
+                + "}; use ${counter}, ${random} or ${timestamp}.");
+    }
+
+    public String method() { return method; }
+    public URI uri() { return uri; }
+    public String[] headers() { return headers; }
+    public boolean hasBody() { return body != null; }
+
+    // True when every request is identical
+    public boolean isStatic() {
+        return slotOffsets.length == 0;
+    }
+
+    // A buffer for render(): the shared body for static templates, a
+    // private copy otherwise. One per sender, reused for every request
+    // whose send has completed.
+    public byte[] newBody() {
+        if (body == null || isStatic()) {
+            return body;
+        }
+        return body.clone();
+    }
+
+    // Writes the next values into buffer (from newBody()) and returns it
+    public byte[] render(byte[] buffer) {
+        if (buffer == null || slotOffsets.length == 0) {
+            return buffer;
+        }
+        long now = 0;
+        for (int i = 0; i < slotOffsets.length; i++) {
+            Variable variable = slotVariables[i];
+            switch (variable) {
+                case COUNTER -> writeDecimal(buffer, slotOffsets[i], variable.width, counter.getAndIncrement());
+                case RANDOM -> writeHex(buffer, slotOffsets[i], variable.width, ThreadLocalRandom.current().nextLong());
+                case TIMESTAMP -> {
+                    if (now == 0) now = System.currentTimeMillis();
+                    writeDecimal(buffer, slotOffsets[i], variable.width, now);
+                }
+            }
+        }
+        return buffer;
+    }
+
+    // The body of one rendered request as text, for validation and display.
+    // Renders from a fresh counter, so the run's sequence is untouched.
+    public String preview() {
+        if (body == null) return "";
+        RequestTemplate copy = new RequestTemplate(method, uri, headers, body, slotOffsets, slotVariables);
+        return new String(copy.render(body.clone()), StandardCharsets.UTF_8);
+    }
+
+    private static void writeDecimal(byte[] buffer, int offset, int width, long value) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static void writeHex(byte[] buffer, int offset, int width, long value) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
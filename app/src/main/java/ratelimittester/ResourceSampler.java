@@ -0,0 +1,359 @@
+package ratelimittester;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import com.sun.management.OperatingSystemMXBean;
+import com.sun.management.UnixOperatingSystemMXBean;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Samples heap and thread usage while a test runs so the cost of each
+// simulated user can be reported at the end, along with the client's own
+// health: CPU, GC, allocation, wake-up lag, open sockets and the front end's
+// log backlog. When any of these says the tester itself was the bottleneck,
+// the report warns that latencies may not be the server's.
+public class ResourceSampler implements Runnable {
+
+    private static final long SAMPLE_INTERVAL_MS = 100;
+    private static final long SECOND_NANOS = 1_000_000_000L;
+    // Saturation thresholds: share of all cores, share of a second spent in
+    // GC, and how late a wake-up may be. CPU must stay saturated for more
+    // than one second, as class loading and JIT warm-up fill the first.
+    private static final double CPU_SATURATED = 0.9;
+    private static final int CPU_SATURATED_SECONDS = 2;
+    private static final double GC_SATURATED = 0.1;
+    private static final long LATE_NANOS = 10_000_000;
+    private static final double FDS_SATURATED = 0.9;
+    private static final Path FD_DIR = Path.of("/proc/self/fd");
+
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+    // Null where the JDK lacks the com.sun.management extensions
+    private final OperatingSystemMXBean osBean;
+    private final com.sun.management.ThreadMXBean allocationBean;
+    private final int cores = Runtime.getRuntime().availableProcessors();
+    // Sockets are counted from /proc on Linux, else only file descriptors
+    private final boolean countSockets = Files.isDirectory(FD_DIR);
+    private final TestListener listener;
+
+    private final long baselineHeap;
+    private final int baselineThreads;
+    private volatile long peakHeap;
+    private volatile int peakThreads;
+    private volatile boolean running = true;
+    private Thread samplerThread;
+
+    // Whole run, from start() to stop()
+    private long startNanos;
+    private long endNanos;
+    private long startCpuNanos;
+    private long endCpuNanos;
+    private long startGcMillis;
+    private long startGcCount;
+    private long endGcMillis;
+    private long endGcCount;
+    private long startAllocated;
+    private long endAllocated;
+
+    // The second being sampled, and the peaks over whole seconds
+    private long secondNanos;
+    private long secondCpuNanos;
+    private long secondGcMillis;
+    private long secondAllocated;
+    private volatile double cpuNow;
+    private volatile double gcNow;
+    private double peakCpu;
+    private double peakSystemCpu = -1;
+    private int seconds;
+    private int cpuSaturatedSeconds;
+    private double peakGcShare;
+    private double peakAllocationRate;
+    private int peakSockets = -1;
+    private long peakFds = -1;
+    private int peakLogQueue;
+    private long maxStallNanos;
+
+    // Scheduled sends and pauses that woke later than planned
+    private final LongAdder wakeUps = new LongAdder();
+    private final LongAdder lateWakeUps = new LongAdder();
+    private final LongAdder totalWakeLagNanos = new LongAdder();
+    private final AtomicLong maxWakeLagNanos = new AtomicLong();
+
+    public ResourceSampler(TestListener listener) {
+        this.listener = listener;
+        this.osBean = ManagementFactory.getOperatingSystemMXBean() instanceof OperatingSystemMXBean os ? os : null;
+        this.allocationBean = threadBean instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled() ? bean : null;
+        System.gc();
+        baselineHeap = memoryBean.getHeapMemoryUsage().getUsed();
+        baselineThreads = threadBean.getThreadCount();
+        peakHeap = baselineHeap;
+        peakThreads = baselineThreads;
+    }
+
+    public void start() {
+        startNanos = secondNanos = System.nanoTime();
+        startCpuNanos = secondCpuNanos = processCpuNanos();
+        startGcMillis = secondGcMillis = gcMillis();
+        startGcCount = gcCount();
+        startAllocated = secondAllocated = allocatedBytes();
+        samplerThread = new Thread(this, "resource-sampler");
+        samplerThread.setDaemon(true);
+        samplerThread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (samplerThread != null) {
+            samplerThread.interrupt();
+            try {
+                samplerThread.join(1000);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sample();
+        endNanos = System.nanoTime();
+        endCpuNanos = processCpuNanos();
+        endGcMillis = gcMillis();
+        endGcCount = gcCount();
+        endAllocated = allocatedBytes();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            sample();
+            long due = System.nanoTime() + SAMPLE_INTERVAL_MS * 1_000_000L;
+            try {
+                Thread.sleep(SAMPLE_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            // Oversleeping holds up every thread alike: a GC pause, a
+            // safepoint, or no free core
+            maxStallNanos = Math.max(maxStallNanos, System.nanoTime() - due);
+        }
+    }
+
+    // How late a scheduled send or a pause woke up; called by the engine
+    public void recordWakeLag(long lagNanos) {
+        wakeUps.increment();
+        totalWakeLagNanos.add(lagNanos);
+        if (lagNanos > LATE_NANOS) {
+            lateWakeUps.increment();
+        }
+        maxWakeLagNanos.accumulateAndGet(lagNanos, Math::max);
+    }
+
+    // For a live status line: the last whole second
+    public String status() {
+        return String.format("client CPU %.0f%% GC %.0f%%", cpuNow * 100, gcNow * 100);
+    }
+
+    // Share of all cores used in the last whole second
+    public double cpuShare() {
+        return cpuNow;
+    }
+
+    // Share of the last whole second spent in GC
+    public double gcShare() {
+        return gcNow;
+    }
+
+    private void sample() {
+        long heap = memoryBean.getHeapMemoryUsage().getUsed();
+        int threads = threadBean.getThreadCount();
+        if (heap > peakHeap) peakHeap = heap;
+        if (threads > peakThreads) peakThreads = threads;
+        peakLogQueue = Math.max(peakLogQueue, listener.queuedLines());
+        long now = System.nanoTime();
+        if (now - secondNanos >= SECOND_NANOS) {
+            sampleSecond(now);
+        }
+    }
+
+    // Rates are taken over whole seconds, so one busy sample does not read
+    // as saturation
+    private void sampleSecond(long now) {
+        double elapsed = now - secondNanos;
+        long cpu = processCpuNanos();
+        if (cpu >= 0) {
+            cpuNow = (cpu - secondCpuNanos) / elapsed / cores;
+            peakCpu = Math.max(peakCpu, cpuNow);
+            secondCpuNanos = cpu;
+        }
+        double systemCpu = osBean != null ? osBean.getCpuLoad() : -1;
+        peakSystemCpu = Math.max(peakSystemCpu, systemCpu);
+        seconds++;
+        if (cpuNow >= CPU_SATURATED || systemCpu >= CPU_SATURATED) {
+            cpuSaturatedSeconds++;
+        }
+        long gc = gcMillis();
+        gcNow = (gc - secondGcMillis) * 1e6 / elapsed;
+        peakGcShare = Math.max(peakGcShare, gcNow);
+        secondGcMillis = gc;
+        long allocated = allocatedBytes();
+        if (allocated >= 0) {
+            peakAllocationRate = Math.max(peakAllocationRate, (allocated - secondAllocated) * 1e9 / elapsed);
+            secondAllocated = allocated;
+        }
+        if (countSockets) {
+            peakSockets = Math.max(peakSockets, openSockets());
+        }
+        if (osBean instanceof UnixOperatingSystemMXBean unix) {
+            peakFds = Math.max(peakFds, unix.getOpenFileDescriptorCount());
+        }
+        secondNanos = now;
+    }
+
+    public List<String> report(int users, ExecutionMode mode) {
+        List<String> lines = new ArrayList<>();
+        long heapDelta = Math.max(0, peakHeap - baselineHeap);
+        int threadDelta = Math.max(0, peakThreads - baselineThreads);
+        lines.add("Execution Mode: " + mode);
+        lines.add(String.format("Peak Platform Threads: %d (+%d during test)", peakThreads, threadDelta));
+        lines.add(String.format("Peak Heap Growth: %.1f MB (%.1f KB per user)",
+                heapDelta / (1024.0 * 1024.0), heapDelta / 1024.0 / Math.max(1, users)));
+        if (mode == ExecutionMode.PLATFORM_THREADS) {
+            long stackKb = threadStackSizeKb();
+            if (stackKb > 0) {
+                lines.add(String.format("Reserved Thread Stacks: %.1f MB (%d KB per user, outside heap)",
+                        threadDelta * stackKb / 1024.0, stackKb));
+            }
+        }
+        lines.addAll(healthReport(mode));
+        return lines;
+    }
+
+    private List<String> healthReport(ExecutionMode mode) {
+        List<String> lines = new ArrayList<>();
+        List<String> saturated = new ArrayList<>();
+        double runNanos = Math.max(1, endNanos - startNanos);
+        lines.add("Client Health:");
+
+        if (startCpuNanos >= 0) {
+            String cpu = String.format("  CPU: mean %.0f%%, peak %.0f%% of %d core%s (process)",
+                    (endCpuNanos - startCpuNanos) / runNanos / cores * 100, peakCpu * 100, cores, cores == 1 ? "" : "s");
+            if (peakSystemCpu >= 0) {
+                cpu += String.format(", system peak %.0f%%", peakSystemCpu * 100);
+            }
+            lines.add(cpu + String.format("; over %.0f%% in %d of %d s", CPU_SATURATED * 100, cpuSaturatedSeconds, seconds));
+            if (cpuSaturatedSeconds >= CPU_SATURATED_SECONDS) {
+                saturated.add(String.format("CPU was over %.0f%% for %d s", CPU_SATURATED * 100, cpuSaturatedSeconds));
+            }
+        }
+
+        long gcMillis = endGcMillis - startGcMillis;
+        String gc = String.format("  GC: %d ms in %d collections (%.1f%% of run), worst second %.0f%%",
+                gcMillis, endGcCount - startGcCount, gcMillis * 1e6 / runNanos * 100, peakGcShare * 100);
+        if (startAllocated >= 0) {
+            gc += String.format("; allocation %.1f MB/s, peak %.1f MB/s",
+                    (endAllocated - startAllocated) * 1e9 / runNanos / (1024.0 * 1024.0), peakAllocationRate / (1024.0 * 1024.0));
+        }
+        lines.add(gc);
+        if (peakGcShare >= GC_SATURATED) {
+            saturated.add(String.format("GC took %.0f%% of a second", peakGcShare * 100));
+        }
+
+        long wakes = wakeUps.sum();
+        String lag = String.format("  Wake-up Lag: sampler stalls up to %.1f ms", maxStallNanos / 1e6);
+        if (wakes > 0) {
+            lag += String.format("; %d scheduled sends and pauses, mean %.2f ms, max %.1f ms, %d >%d ms late",
+                    wakes, totalWakeLagNanos.sum() / 1e6 / wakes, maxWakeLagNanos.get() / 1e6,
+                    lateWakeUps.sum(), LATE_NANOS / 1_000_000);
+        }
+        lines.add(lag);
+        if (maxStallNanos > LATE_NANOS) {
+            saturated.add(String.format("the JVM stalled for %.0f ms", maxStallNanos / 1e6));
+        } else if (lateWakeUps.sum() * 100 > wakes) {
+            saturated.add(String.format("%d wake-ups were over %d ms late", lateWakeUps.sum(), LATE_NANOS / 1_000_000));
+        }
+
+        long maxFds = osBean instanceof UnixOperatingSystemMXBean unix ? unix.getMaxFileDescriptorCount() : -1;
+        if (peakSockets >= 0 || peakFds >= 0) {
+            String fds = peakFds >= 0 ? String.format("file descriptors %d of %d", peakFds, maxFds) : "";
+            lines.add(peakSockets >= 0 ? String.format("  Open Sockets: peak %d%s", peakSockets, fds.isEmpty() ? "" : " (" + fds + ")")
+                    : "  Open Files: peak " + fds);
+            if (maxFds > 0 && peakFds >= maxFds * FDS_SATURATED) {
+                saturated.add(String.format("%d of %d file descriptors were open", peakFds, maxFds));
+            }
+        }
+
+        long dropped = listener.droppedLines();
+        if (peakLogQueue > 0 || dropped > 0) {
+            lines.add(String.format("  Log Queue: peak %d lines, %d dropped", peakLogQueue, dropped));
+            if (dropped > 0 || peakLogQueue > LogPipeline.MAX_LINES_PER_FRAME) {
+                saturated.add("the output log fell behind");
+            }
+        }
+
+        if (!saturated.isEmpty()) {
+            lines.add("[!] Results may be limited by this client, not the server: " + String.join(", ", saturated)
+                    + (mode.isAsync()
+                    ? ". Use fewer users, a lower rate or agents on other machines, and compare."
+                    : ". Use fewer users, the async mode or agents on other machines, and compare."));
+        }
+        return lines;
+    }
+
+    private long processCpuNanos() {
+        return osBean != null ? osBean.getProcessCpuTime() : -1;
+    }
+
+    private long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean bean : gcBeans) {
+            total += Math.max(0, bean.getCollectionTime());
+        }
+        return total;
+    }
+
+    private long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean bean : gcBeans) {
+            total += Math.max(0, bean.getCollectionCount());
+        }
+        return total;
+    }
+
+    private long allocatedBytes() {
+        return allocationBean != null ? allocationBean.getTotalThreadAllocatedBytes() : -1;
+    }
+
+    // Links in /proc/self/fd name sockets "socket:[inode]"
+    private static int openSockets() {
+        int sockets = 0;
+        try (DirectoryStream<Path> fds = Files.newDirectoryStream(FD_DIR)) {
+            for (Path fd : fds) {
+                try {
+                    if (Files.readSymbolicLink(fd).toString().startsWith("socket:")) sockets++;
+                } catch (IOException ignored) {
+                    // Closed since the listing
+                }
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return sockets;
+    }
+
+    private static long threadStackSizeKb() {
+        try {
+            HotSpotDiagnosticMXBean hotspot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return Long.parseLong(hotspot.getVMOption("ThreadStackSize").getValue());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package ratelimittester;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+
+// Everything the summary says about a run, recomputed from its run file:
+// counts, latency histograms (with the same coordinated omission correction
+// as the live run), per-second throughput, the estimated limit and the
+// per-endpoint breakdown. Two passes over the mapped records; memory stays
+// constant in the number of requests.
+final class RunAnalysis {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final RunFile run;
+    private final TestConfig config;
+    private final List<Endpoint> endpoints;
+    private final LatencyRecorder successLatency = new LatencyRecorder();
+    private final LatencyRecorder rateLimitedLatency = new LatencyRecorder();
+    private final LatencyRecorder otherLatency = new LatencyRecorder();
+    private final long[] endpointCounts;
+    // Filled only for runs that continued through 429s; no backoff figures,
+    // those are not recorded
+    private final LimitPhases phases = new LimitPhases();
+    private final LoadStages stages;
+    private final LatencyHistogram[] endpointLatency;
+    private long success;
+    private long rateLimited;
+    private long other;
+    private long bodies;
+    private long bodyBytes;
+    // Per second of completion, TimeSeriesCounters.FIELDS values each
+    private long[] series = new long[64 * TimeSeriesCounters.FIELDS];
+    private int seconds;
+    private long lastNanos;
+    private long firstLimitNanos = Long.MAX_VALUE;
+    private long successBeforeLimit;
+
+    private RunAnalysis(RunFile run) throws IOException {
+        this.run = run;
+        this.config = run.config();
+        this.endpoints = config.endpoints();
+        stages = LoadStages.of(config);
+        endpointCounts = new long[endpoints.size() * 3];
+        endpointLatency = new LatencyHistogram[endpoints.size()];
+        for (int i = 0; i < endpointLatency.length; i++) {
+            endpointLatency[i] = new LatencyHistogram();
+        }
+        long expectedIntervalNanos = config.getLoadModel() == LoadModel.OPEN_ARRIVAL_RATE
+                ? 0 : config.getDelayMs() * 1_000_000L;
+        run.forEach((sendNanos, latencyNanos, status, flags, endpoint, worker, bytes) -> {
+            long doneNanos = sendNanos + latencyNanos;
+            lastNanos = Math.max(lastNanos, doneNanos);
+            int code = (flags & RunRecorder.FLAG_FAILED) != 0 ? -1
+                    : (flags & RunRecorder.FLAG_INVALID_BODY) != 0 ? 1 : status;
+            stages.record(code, sendNanos, code > 0 ? latencyNanos : 0, expectedIntervalNanos);
+            if (config.continuesThroughLimit()) {
+                phases.record(code, sendNanos, doneNanos, code > 0 ? latencyNanos : 0, expectedIntervalNanos);
+            }
+            int field;
+            if ((flags & RunRecorder.FLAG_FAILED) != 0) {
+                field = TimeSeriesCounters.ERRORS;
+                other++;
+            } else if (status == 200 && (flags & RunRecorder.FLAG_INVALID_BODY) == 0) {
+                field = TimeSeriesCounters.SUCCESS;
+                success++;
+                successLatency.record(latencyNanos, expectedIntervalNanos);
+            } else if (status == 429) {
+                field = TimeSeriesCounters.RATE_LIMITED;
+                rateLimited++;
+                rateLimitedLatency.record(latencyNanos, expectedIntervalNanos);
+                firstLimitNanos = Math.min(firstLimitNanos, doneNanos);
+            } else {
+                field = TimeSeriesCounters.ERRORS;
+                other++;
+                otherLatency.record(latencyNanos, expectedIntervalNanos);
+            }
+            if (bytes >= 0) {
+                bodies++;
+                bodyBytes += bytes;
+            }
+            int row = secondRow((int) (Math.max(0, doneNanos) / NANOS_PER_SECOND));
+            series[row + field]++;
+            if ((flags & RunRecorder.FLAG_FAILED) == 0) {
+                series[row + TimeSeriesCounters.LATENCY_COUNT]++;
+                series[row + TimeSeriesCounters.LATENCY_SUM_NANOS] += latencyNanos;
+            }
+            if (endpoint >= 0 && endpoint < endpointLatency.length) {
+                endpointCounts[endpoint * 3 + Math.min(field, 2)]++;
+                if ((flags & RunRecorder.FLAG_FAILED) == 0) endpointLatency[endpoint].record(latencyNanos);
+            }
+        });
+        // The live run counts the 200s already recorded when the first 429
+        // came in; records are only roughly in completion order, so that
+        // needs a second pass
+        if (firstLimitNanos != Long.MAX_VALUE) {
+            run.forEach((sendNanos, latencyNanos, status, flags, endpoint, worker, bytes) -> {
+                if (status == 200 && flags == RunRecorder.FLAG_WRITTEN && sendNanos + latencyNanos < firstLimitNanos) {
+                    successBeforeLimit++;
+                }
+            });
+        }
+    }
+
+    static RunAnalysis of(RunFile run) throws IOException {
+        return new RunAnalysis(run);
+    }
+
+    // Offset of a second's values in series, growing it as needed
+    private int secondRow(int second) {
+        if ((second + 1) * TimeSeriesCounters.FIELDS > series.length) {
+            series = Arrays.copyOf(series, Math.max(series.length * 2, (second + 1) * TimeSeriesCounters.FIELDS));
+        }
+        seconds = Math.max(seconds, second + 1);
+        return second * TimeSeriesCounters.FIELDS;
+    }
+
+    long durationMs() {
+        return run.isComplete() ? run.durationMs() : lastNanos / 1_000_000L;
+    }
+
+    // Same formula as the live run: 200s before the first 429 over the time it took
+    double estimatedRpm() {
+        long untilMs = firstLimitNanos != Long.MAX_VALUE ? firstLimitNanos / 1_000_000L : durationMs();
+        long before = firstLimitNanos != Long.MAX_VALUE ? successBeforeLimit : success;
+        double minutes = untilMs / 60000.0;
+        return minutes > 0 && before > 0 ? before / minutes : 0;
+    }
+
+    double meanThroughput() {
+        return seconds > 0 ? (success + rateLimited + other) / (double) seconds : 0;
+    }
+
+    long peakThroughput() {
+        long peak = 0;
+        for (int s = 0; s < seconds; s++) {
+            int row = s * TimeSeriesCounters.FIELDS;
+            peak = Math.max(peak, series[row + TimeSeriesCounters.SUCCESS]
+                    + series[row + TimeSeriesCounters.RATE_LIMITED] + series[row + TimeSeriesCounters.ERRORS]);
+        }
+        return peak;
+    }
+
+    // Where the run came from, for the lines above its summary
+    List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        lines.add("Run File: " + run.path());
+        lines.add(String.format("Recorded: %s, %d requests%s", formatDate(run.startMillis()),
+                success + rateLimited + other, run.isComplete() ? "" : " (run did not finish; partial)"));
+        return lines;
+    }
+
+    TestResult toResult() {
+        TimeSeriesCounters throughput = new TimeSeriesCounters(Math.max(1, seconds));
+        for (int s = 0; s < seconds; s++) {
+            throughput.addHarvested(s, series, s * TimeSeriesCounters.FIELDS);
+        }
+        List<String> endpointReport = new ArrayList<>();
+        if (endpoints.size() > 1) {
+            endpointReport.add("Endpoints (" + config.getScenarioOrder() + "):");
+            for (int i = 0; i < endpoints.size(); i++) {
+                Endpoint endpoint = endpoints.get(i);
+                endpointReport.add(String.format("  %s %s weight %d: 200=%d 429=%d other=%d, p50=%.1f p99=%.1f ms",
+                        endpoint.getName(), endpoint.label(), endpoint.getWeight(), endpointCounts[i * 3],
+                        endpointCounts[i * 3 + 1], endpointCounts[i * 3 + 2],
+                        endpointLatency[i].valueAtPercentile(50) / 1e6, endpointLatency[i].valueAtPercentile(99) / 1e6));
+            }
+        }
+        List<String> bodyReport = new ArrayList<>();
+        if (bodies > 0) {
+            bodyReport.add(String.format("Response Bodies: %d with a known size, %.1f KB, mean %.0f B",
+                    bodies, bodyBytes / 1024.0, bodyBytes / (double) bodies));
+        }
+        return new TestResult(config, success, rateLimited, other, successLatency.snapshot(),
+                rateLimitedLatency.snapshot(), otherLatency.snapshot(), estimatedRpm(), durationMs(),
+                run.setupNanos(), run.teardownNanos(), stages.report(config, lastNanos), throughput.report(), List.of(), List.of(),
+                endpointReport, bodyReport, config.continuesThroughLimit() ? phases.report(config, lastNanos) : List.of());
+    }
+
+    // One line per second of the run, for plotting
+    void writeSeries(Path csv) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv, StandardCharsets.UTF_8))) {
+            out.println("second,ok_200,limited_429,other,mean_latency_ms");
+            for (int s = 0; s < seconds; s++) {
+                int row = s * TimeSeriesCounters.FIELDS;
+                long count = series[row + TimeSeriesCounters.LATENCY_COUNT];
+                out.printf("%d,%d,%d,%d,%.3f%n", s, series[row + TimeSeriesCounters.SUCCESS],
+                        series[row + TimeSeriesCounters.RATE_LIMITED], series[row + TimeSeriesCounters.ERRORS],
+                        count > 0 ? series[row + TimeSeriesCounters.LATENCY_SUM_NANOS] / 1e6 / count : 0);
+            }
+        }
+    }
+
+    // Side by side, with the change from base to next
+    static List<String> diff(RunAnalysis base, RunAnalysis next) {
+        List<String> lines = new ArrayList<>();
+        lines.add("");
+        lines.add("=== Run Diff ===");
+        lines.add(String.format("Base: %s (%s)", base.run.path(), formatDate(base.run.startMillis())));
+        lines.add(String.format("New:  %s (%s)", next.run.path(), formatDate(next.run.startMillis())));
+        lines.addAll(configChanges(base.config, next.config));
+        lines.add(String.format("  %-28s %14s %14s %10s", "", "base", "new", "change"));
+        row(lines, "Requests", base.success + base.rateLimited + base.other,
+                next.success + next.rateLimited + next.other, "%.0f");
+        row(lines, "200", base.success, next.success, "%.0f");
+        row(lines, "429", base.rateLimited, next.rateLimited, "%.0f");
+        row(lines, "Other", base.other, next.other, "%.0f");
+        row(lines, "Estimated limit (req/min)", base.estimatedRpm(), next.estimatedRpm(), "%.2f");
+        row(lines, "Mean throughput (req/s)", base.meanThroughput(), next.meanThroughput(), "%.1f");
+        row(lines, "Peak throughput (req/s)", base.peakThroughput(), next.peakThroughput(), "%.0f");
+        row(lines, "Duration (s)", base.durationMs() / 1000.0, next.durationMs() / 1000.0, "%.2f");
+        percentiles(lines, "200", base.successLatency.snapshot(), next.successLatency.snapshot());
+        percentiles(lines, "429", base.rateLimitedLatency.snapshot(), next.rateLimitedLatency.snapshot());
+        percentiles(lines, "Other", base.otherLatency.snapshot(), next.otherLatency.snapshot());
+
+        // Scenario endpoints are matched by name
+        for (int i = 0; i < base.endpoints.size() && (base.endpoints.size() > 1 || next.endpoints.size() > 1); i++) {
+            String name = base.endpoints.get(i).getName();
+            for (int j = 0; j < next.endpoints.size(); j++) {
+                if (!next.endpoints.get(j).getName().equals(name)) continue;
+                row(lines, "Endpoint " + name + " 200", base.endpointCounts[i * 3], next.endpointCounts[j * 3], "%.0f");
+                row(lines, "Endpoint " + name + " p99 (ms)", base.endpointLatency[i].valueAtPercentile(99) / 1e6,
+                        next.endpointLatency[j].valueAtPercentile(99) / 1e6, "%.1f");
+            }
+        }
+        return lines;
+    }
+
+    private static void percentiles(List<String> lines, String label, LatencyHistogram base, LatencyHistogram next) {
+        if (base.count() == 0 && next.count() == 0) return;
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            row(lines, String.format("%s latency p%s (ms)", label, percentile == 99.9 ? "99.9" : (int) percentile),
+                    base.valueAtPercentile(percentile) / 1e6, next.valueAtPercentile(percentile) / 1e6, "%.1f");
+        }
+        row(lines, label + " latency max (ms)", base.maxNanos() / 1e6, next.maxNanos() / 1e6, "%.1f");
+    }
+
+    private static void row(List<String> lines, String label, double base, double next, String format) {
+        String change = base == 0 ? (next == 0 ? "" : "new") : String.format("%+.1f%%", (next - base) * 100 / base);
+        lines.add(String.format("  %-28s %14s %14s %10s", label, String.format(format, base),
+                String.format(format, next), change));
+    }
+
+    private static List<String> configChanges(TestConfig base, TestConfig next) {
+        Map<String, String> before = new TreeMap<>();
+        Map<String, String> after = new TreeMap<>();
+        Properties a = base.toProperties();
+        Properties b = next.toProperties();
+        a.stringPropertyNames().forEach(key -> before.put(key, a.getProperty(key)));
+        b.stringPropertyNames().forEach(key -> after.put(key, b.getProperty(key)));
+        List<String> lines = new ArrayList<>();
+        TreeMap<String, String> keys = new TreeMap<>(before);
+        keys.putAll(after);
+        for (String key : keys.keySet()) {
+            if (!Objects.equals(before.get(key), after.get(key))) {
+                lines.add(String.format("  Config %s: %s -> %s", key, before.getOrDefault(key, "(unset)"),
+                        after.getOrDefault(key, "(unset)")));
+            }
+        }
+        if (lines.isEmpty()) {
+            lines.add("  Same configuration");
+        }
+        return lines;
+    }
+
+    private static String formatDate(long millis) {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(millis));
+    }
+}
@@ -0,0 +1,116 @@
+package ratelimittester;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+
+// A run file written by RunRecorder, opened read-only. Records are visited
+// straight from the mapped file a segment at a time, so a run of tens of
+// millions of requests is read without copying it onto the heap.
+final class RunFile implements AutoCloseable {
+
+    // One request outcome as stored; see RunRecorder for the fields
+    interface Visitor {
+        void visit(long sendNanos, long latencyNanos, int status, int flags, int endpoint, int worker, int bytes);
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final TestConfig config;
+    private final int headerSize;
+    private final long startMillis;
+    private final long recordCount;
+    private final boolean complete;
+    private final long durationMs;
+    private final long setupNanos;
+    private final long teardownNanos;
+
+    private RunFile(Path path) throws IOException {
+        this.path = path;
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < RunRecorder.H_CONFIG) throw new IOException(path + " is not a run file");
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, RunRecorder.H_CONFIG);
+            header.order(RunRecorder.ORDER);
+            if (header.getLong(0) != RunRecorder.MAGIC) throw new IOException(path + " is not a run file");
+            if (header.getInt(RunRecorder.H_VERSION) != RunRecorder.VERSION
+                    || header.getInt(RunRecorder.H_RECORD_SIZE) != RunRecorder.RECORD_SIZE) {
+                throw new IOException(path + " has run file version " + header.getInt(RunRecorder.H_VERSION)
+                        + ", this build reads version " + RunRecorder.VERSION);
+            }
+            headerSize = header.getInt(RunRecorder.H_HEADER_SIZE);
+            int configLength = header.getInt(RunRecorder.H_CONFIG_LENGTH);
+            startMillis = header.getLong(RunRecorder.H_START_MILLIS);
+            durationMs = header.getLong(RunRecorder.H_DURATION_MS);
+            setupNanos = header.getLong(RunRecorder.H_SETUP_NANOS);
+            teardownNanos = header.getLong(RunRecorder.H_TEARDOWN_NANOS);
+            long count = header.getLong(RunRecorder.H_RECORD_COUNT);
+            // An unfinished run (the process died) has every slot up to the
+            // end of the file; unfilled ones are skipped while reading
+            complete = count >= 0;
+            recordCount = complete ? count : (size - headerSize) / RunRecorder.RECORD_SIZE;
+            if (headerSize < RunRecorder.H_CONFIG + configLength
+                    || headerSize + recordCount * RunRecorder.RECORD_SIZE > size) {
+                throw new IOException(path + " is truncated");
+            }
+
+            byte[] text = new byte[configLength];
+            channel.map(FileChannel.MapMode.READ_ONLY, RunRecorder.H_CONFIG, configLength).get(text);
+            Properties props = new Properties();
+            props.load(new StringReader(new String(text, StandardCharsets.UTF_8)));
+            config = TestConfig.fromProperties(props);
+            // A hand-edited or corrupt file must not size the analysis
+            config.validate();
+        } catch (IllegalArgumentException e) {
+            channel.close();
+            throw new IOException(path + " holds an unreadable configuration: " + e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static RunFile open(Path path) throws IOException {
+        return new RunFile(path);
+    }
+
+    Path path() { return path; }
+    TestConfig config() { return config; }
+    long startMillis() { return startMillis; }
+    long recordCount() { return recordCount; }
+    boolean isComplete() { return complete; }
+    long durationMs() { return durationMs; }
+    long setupNanos() { return setupNanos; }
+    long teardownNanos() { return teardownNanos; }
+
+    // Visits every written record in file order, which is the order the
+    // outcomes were recorded in
+    void forEach(Visitor visitor) throws IOException {
+        for (long first = 0; first < recordCount; first += RunRecorder.SEGMENT_RECORDS) {
+            int records = (int) Math.min(RunRecorder.SEGMENT_RECORDS, recordCount - first);
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY,
+                    headerSize + first * RunRecorder.RECORD_SIZE, (long) records * RunRecorder.RECORD_SIZE);
+            segment.order(RunRecorder.ORDER);
+            for (int i = 0, at = 0; i < records; i++, at += RunRecorder.RECORD_SIZE) {
+                int flags = segment.getShort(at + RunRecorder.R_FLAGS);
+                if ((flags & RunRecorder.FLAG_WRITTEN) == 0) continue;
+                visitor.visit(segment.getLong(at + RunRecorder.R_SEND_NANOS),
+                        segment.getLong(at + RunRecorder.R_LATENCY_NANOS),
+                        segment.getShort(at + RunRecorder.R_STATUS) & 0xffff, flags,
+                        segment.getShort(at + RunRecorder.R_ENDPOINT), segment.getInt(at + RunRecorder.R_WORKER),
+                        segment.getInt(at + RunRecorder.R_BYTES));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,171 @@
+package ratelimittester;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Appends one fixed-width record per request outcome to a memory-mapped run
+// file, so a run can be reopened, summarized again and compared with others
+// long after the window is closed. Writers claim a slot with one atomic
+// increment and fill it in place: no lock, no syscall and no allocation per
+// request. The file grows a mapped segment at a time. RunFile reads it back.
+//
+// Layout, little-endian:
+//   header   MAGIC, VERSION, RECORD_SIZE, header size, config length,
+//            start millis, record count, duration ms, setup and teardown
+//            nanos, then the run's TestConfig as properties text
+//   records  RECORD_SIZE bytes each, from the header size on
+final class RunRecorder implements AutoCloseable {
+
+    static final long MAGIC = 0x31304E5552544C52L; // "RLTRUN01"
+    static final int VERSION = 1;
+    static final int RECORD_SIZE = 32;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    // Header fields
+    static final int H_VERSION = 8;
+    static final int H_RECORD_SIZE = 12;
+    static final int H_HEADER_SIZE = 16;
+    static final int H_CONFIG_LENGTH = 20;
+    static final int H_START_MILLIS = 24;
+    static final int H_RECORD_COUNT = 32;
+    static final int H_DURATION_MS = 40;
+    static final int H_SETUP_NANOS = 48;
+    static final int H_TEARDOWN_NANOS = 56;
+    static final int H_CONFIG = 64;
+
+    // Record fields. sendNanos is counted from the start of the run and is
+    // the time latency is measured from: the scheduled slot in the open
+    // model, the actual send otherwise. sendNanos + latencyNanos is when
+    // the outcome was recorded.
+    static final int R_SEND_NANOS = 0;
+    static final int R_LATENCY_NANOS = 8;
+    static final int R_BYTES = 16;
+    static final int R_WORKER = 20;
+    static final int R_STATUS = 24;
+    static final int R_FLAGS = 26;
+    static final int R_ENDPOINT = 28;
+
+    // Set in every written record; a slot without it was never filled
+    static final int FLAG_WRITTEN = 1;
+    // No response: connection error, timeout and the like
+    static final int FLAG_FAILED = 2;
+    // A 200 whose body failed an assertion
+    static final int FLAG_INVALID_BODY = 4;
+
+    // 64 MB per mapping
+    static final int SEGMENT_RECORDS = 1 << 21;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int headerSize;
+    private final AtomicLong next = new AtomicLong();
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[16];
+    private long startNanos;
+
+    RunRecorder(Path path, TestConfig config) throws IOException {
+        this.path = path;
+        StringWriter text = new StringWriter();
+        config.toProperties().store(text, null);
+        byte[] properties = text.toString().getBytes(StandardCharsets.UTF_8);
+        // Records start on a record boundary
+        headerSize = (H_CONFIG + properties.length + RECORD_SIZE - 1) / RECORD_SIZE * RECORD_SIZE;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerSize);
+        header.order(ORDER);
+        header.putLong(0, MAGIC);
+        header.putInt(H_VERSION, VERSION);
+        header.putInt(H_RECORD_SIZE, RECORD_SIZE);
+        header.putInt(H_HEADER_SIZE, headerSize);
+        header.putInt(H_CONFIG_LENGTH, properties.length);
+        // -1 until finish(): the run did not finish
+        header.putLong(H_RECORD_COUNT, -1);
+        header.put(H_CONFIG, properties);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    // Called with the run's clock: startNanos is time zero of sendNanos.
+    // Before any record() and before the writers are started.
+    void start(long startMillis, long startNanos) {
+        header.putLong(H_START_MILLIS, startMillis);
+        this.startNanos = startNanos;
+    }
+
+    // sendNanos is a System.nanoTime() value; bytes is -1 when unknown
+    void record(long sendNanos, long latencyNanos, int status, int flags, int endpoint, int worker, long bytes) {
+        long slot = next.getAndIncrement();
+        MappedByteBuffer segment = segment((int) (slot / SEGMENT_RECORDS));
+        int at = (int) (slot % SEGMENT_RECORDS) * RECORD_SIZE;
+        segment.putLong(at + R_SEND_NANOS, sendNanos - startNanos);
+        segment.putLong(at + R_LATENCY_NANOS, latencyNanos);
+        segment.putInt(at + R_BYTES, (int) Math.min(bytes, Integer.MAX_VALUE));
+        segment.putInt(at + R_WORKER, worker);
+        segment.putShort(at + R_STATUS, (short) status);
+        segment.putShort(at + R_ENDPOINT, (short) endpoint);
+        // Last, so a reader of an unfinished file skips half-written slots
+        segment.putShort(at + R_FLAGS, (short) (flags | FLAG_WRITTEN));
+    }
+
+    // Completes the header. Call once every writer is done.
+    void finish(long durationMs, long setupNanos, long teardownNanos) {
+        header.putLong(H_DURATION_MS, durationMs);
+        header.putLong(H_SETUP_NANOS, setupNanos);
+        header.putLong(H_TEARDOWN_NANOS, teardownNanos);
+        header.putLong(H_RECORD_COUNT, next.get());
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (MappedByteBuffer segment : segments) {
+            if (segment != null) segment.force();
+        }
+        header.force();
+        try {
+            // The last segment is mapped whole; give back the unused part.
+            // Some platforms refuse while the mapping is alive, and then the
+            // record count in the header is what counts.
+            channel.truncate(headerSize + next.get() * RECORD_SIZE);
+        } catch (IOException ignored) {
+        }
+        channel.close();
+    }
+
+    private MappedByteBuffer segment(int index) {
+        MappedByteBuffer[] current = segments;
+        if (index < current.length && current[index] != null) {
+            return current[index];
+        }
+        return map(index);
+    }
+
+    private synchronized MappedByteBuffer map(int index) {
+        MappedByteBuffer[] current = segments;
+        if (index < current.length && current[index] != null) {
+            return current[index];
+        }
+        try {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE,
+                    headerSize + (long) index * SEGMENT_RECORDS * RECORD_SIZE, (long) SEGMENT_RECORDS * RECORD_SIZE);
+            segment.order(ORDER);
+            MappedByteBuffer[] grown = index < current.length ? current.clone()
+                    : Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+            grown[index] = segment;
+            segments = grown;
+            return segment;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot extend run file " + path + ": " + e.getMessage(), e);
+        }
+    }
+}
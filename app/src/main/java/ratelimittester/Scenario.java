@@ -0,0 +1,222 @@
+package ratelimittester;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// The endpoints of one run compiled for sending, with counts and latencies
+// per endpoint. With several endpoints a 429 takes only that endpoint out of
+// the rotation: the others keep going, so the summary shows whether the
+// limit belongs to one route or is shared, and the run stops once every
+// endpoint is limited. A single-URL run is a scenario of one endpoint.
+final class Scenario {
+
+    final Target[] targets;
+    private final ScenarioOrder order;
+    // Every endpoint's share of the weights, for the sequence order: the
+    // position within one pass through all weights gives the endpoint
+    private final Picker sequence;
+    // Weighted choice over the endpoints not yet limited; replaced on change
+    private volatile Picker picker;
+    private volatile long firstLimitedMillis;
+
+    Scenario(List<Endpoint> endpoints, ScenarioOrder order) {
+        this.order = order;
+        targets = new Target[endpoints.size()];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = new Target(endpoints.get(i), targets.length > 1);
+        }
+        sequence = new Picker(targets);
+        picker = sequence;
+    }
+
+    boolean isMulti() {
+        return targets.length > 1;
+    }
+
+    // The endpoint for a user's position-th request (or the schedule's
+    // position-th slot), or -1 once every endpoint is limited
+    int pick(long position) {
+        if (targets.length == 1) {
+            return targets[0].paused ? -1 : 0;
+        }
+        if (order == ScenarioOrder.SEQUENCE) {
+            // A paused endpoint's turns go to the next one in order
+            int first = sequence.find(position % sequence.total);
+            for (int k = 0; k < targets.length; k++) {
+                int index = (first + k) % targets.length;
+                if (!targets[index].paused) return index;
+            }
+            return -1;
+        }
+        Picker current = picker;
+        if (current.total == 0) return -1;
+        return current.find(ThreadLocalRandom.current().nextLong(current.total));
+    }
+
+    // One buffer per endpoint for RequestTemplate.render
+    byte[][] newBodies() {
+        byte[][] bodies = new byte[targets.length][];
+        for (int i = 0; i < targets.length; i++) {
+            bodies[i] = targets[i].template.newBody();
+        }
+        return bodies;
+    }
+
+    // Per-endpoint latency is recorded as measured; the coordinated omission
+    // correction of the totals assumes one interval per user, which does not
+    // hold for a single endpoint of a mix
+    void record(int index, int statusCode, long latencyNanos) {
+        Target target = targets[index];
+        target.latency.record(latencyNanos);
+        if (statusCode == 200) {
+            target.success.increment();
+            if (firstLimitedMillis != 0 && target.limitedMillis == 0) {
+                target.successAfterFirstLimit.increment();
+            }
+        } else if (statusCode == 429) {
+            target.rateLimited.increment();
+        } else {
+            target.other.increment();
+        }
+    }
+
+    void recordFailure(int index) {
+        targets[index].other.increment();
+    }
+
+    // Notes the endpoint's first 429 and, with pause, takes it out of the
+    // rotation. Returns false when it was already limited. Later 429s of a
+    // run that continues through them return without the lock.
+    boolean markLimited(int index, long nowMillis, boolean pause) {
+        return targets[index].limitedMillis == 0 && markFirstLimited(index, nowMillis, pause);
+    }
+
+    private synchronized boolean markFirstLimited(int index, long nowMillis, boolean pause) {
+        Target target = targets[index];
+        if (target.limitedMillis != 0) return false;
+        target.successBeforeLimit = target.success.sum();
+        target.limitedMillis = nowMillis;
+        if (firstLimitedMillis == 0) {
+            firstLimitedMillis = nowMillis;
+        }
+        if (pause) {
+            target.paused = true;
+            picker = new Picker(targets);
+        }
+        return true;
+    }
+
+    boolean allLimited() {
+        return picker.total == 0;
+    }
+
+    // Empty for a single endpoint: the totals already say everything.
+    // inFlight is how many responses may still arrive after a 429 without
+    // meaning the route was unaffected.
+    List<String> report(long startMillis, int inFlight) {
+        List<String> lines = new ArrayList<>();
+        if (!isMulti()) return lines;
+        int nameWidth = 4;
+        for (Target target : targets) {
+            nameWidth = Math.max(nameWidth, target.endpoint.getName().length());
+        }
+        lines.add("Endpoints (" + order + "):");
+        for (Target target : targets) {
+            Endpoint endpoint = target.endpoint;
+            LatencyHistogram latency = target.latency.snapshot();
+            String limit;
+            if (target.limitedMillis == 0) {
+                limit = "never limited";
+            } else {
+                double seconds = (target.limitedMillis - startMillis) / 1000.0;
+                limit = String.format("limited at %.2f s after %d OK (%.1f req/min)", seconds,
+                        target.successBeforeLimit, seconds > 0 ? target.successBeforeLimit * 60 / seconds : 0);
+            }
+            lines.add(String.format("  %-" + nameWidth + "s %-24s weight %d: 200=%d 429=%d other=%d, p50=%.1f p99=%.1f ms, %s",
+                    endpoint.getName(), endpoint.label(), endpoint.getWeight(), target.success.sum(),
+                    target.rateLimited.sum(), target.other.sum(), latency.valueAtPercentile(50) / 1e6,
+                    latency.valueAtPercentile(99) / 1e6, limit));
+        }
+        if (firstLimitedMillis != 0) {
+            lines.add("Limit Scope: " + scope(inFlight));
+        }
+        return lines;
+    }
+
+    private String scope(int inFlight) {
+        StringBuilder unaffected = new StringBuilder();
+        long lastLimited = 0;
+        for (Target target : targets) {
+            long after = target.successAfterFirstLimit.sum();
+            if (after > inFlight) {
+                if (unaffected.length() > 0) unaffected.append(", ");
+                unaffected.append(target.endpoint.getName()).append(' ').append(after);
+            }
+            lastLimited = Math.max(lastLimited, target.limitedMillis);
+        }
+        if (unaffected.length() > 0) {
+            return "200s continued after the first 429 (" + unaffected + ") - looks like per-route limits";
+        }
+        if (allLimited()) {
+            return String.format("every endpoint was limited within %.2f s of the first 429 - looks like one shared limit",
+                    (lastLimited - firstLimitedMillis) / 1000.0);
+        }
+        return "unclear - the other endpoints got no 200s after the first 429 but were not limited either";
+    }
+
+    static final class Target {
+        final Endpoint endpoint;
+        final RequestTemplate template;
+        // " NAME" after the user in log lines of a multi-endpoint run
+        final String logSuffix;
+        final LatencyRecorder latency = new LatencyRecorder();
+        final LongAdder success = new LongAdder();
+        final LongAdder rateLimited = new LongAdder();
+        final LongAdder other = new LongAdder();
+        final LongAdder successAfterFirstLimit = new LongAdder();
+        // Wall-clock time of the first 429, 0 while not limited
+        volatile long limitedMillis;
+        // Out of the rotation since its first 429
+        volatile boolean paused;
+        long successBeforeLimit;
+
+        Target(Endpoint endpoint, boolean named) {
+            this.endpoint = endpoint;
+            this.template = endpoint.compile();
+            this.logSuffix = named ? " " + endpoint.getName() : "";
+        }
+    }
+
+    private static final class Picker {
+        final int[] indexes;
+        final long[] cumulative;
+        final long total;
+
+        Picker(Target[] targets) {
+            int active = 0;
+            for (Target target : targets) {
+                if (!target.paused) active++;
+            }
+            indexes = new int[active];
+            cumulative = new long[active];
+            long sum = 0;
+            int n = 0;
+            for (int i = 0; i < targets.length; i++) {
+                if (targets[i].paused) continue;
+                sum += targets[i].endpoint.getWeight();
+                indexes[n] = i;
+                cumulative[n++] = sum;
+            }
+            total = sum;
+        }
+
+        // The endpoint whose share of the total holds r, 0 <= r < total
+        int find(long r) {
+            int i = 0;
+            while (r >= cumulative[i]) i++;
+            return indexes[i];
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ratelimittester;
+
+// How each request of a multi-endpoint run picks its endpoint.
+public enum ScenarioOrder {
+    // Independently at random, in proportion to the endpoint weights
+    WEIGHTED("Weighted random"),
+    // Every user walks the endpoints in name order, each repeated weight times
+    SEQUENCE("Sequence per user");
+
+    private final String label;
+
+    ScenarioOrder(String label) {
+        this.label = label;
+    }
+
+    public static ScenarioOrder fromLabel(String label) {
+        for (ScenarioOrder order : values()) {
+            if (order.label.equalsIgnoreCase(label) || order.name().equalsIgnoreCase(label)) {
+                return order;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario order: " + label);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
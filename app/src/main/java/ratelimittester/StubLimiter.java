@@ -0,0 +1,127 @@
+package ratelimittester;
+
+// One key's limiter in the stub server. acquire() decides a request and
+// fills in what the response headers say: what is left, and when the next
+// request would be admitted. Callers hold the limiter's lock, also while
+// reading those. Every algorithm is O(1) per request and allocation free,
+// apart from the sliding log growing its ring up to the limit.
+final class StubLimiter {
+
+    private static final int INITIAL_LOG = 16;
+
+    private final LimiterAlgorithm algorithm;
+    private final int limit;
+    private final long windowNanos;
+
+    // Fixed window and sliding counter: the current window and its count
+    private long windowStart = Long.MIN_VALUE;
+    private long count;
+    // Sliding counter: the count of the window before
+    private long previousCount;
+    // Sliding log: admission times still inside the window, oldest at head.
+    // Grown on demand, since a key that sends a few requests must not cost
+    // a ring of the full limit
+    private long[] log;
+    private int head;
+    private int size;
+    // Token bucket
+    private double tokens;
+    private long refilledAt = Long.MIN_VALUE;
+
+    // Set by acquire()
+    long remaining;
+    // System.nanoTime() at which a request would next be admitted
+    long nextAdmitNanos;
+
+    StubLimiter(LimiterAlgorithm algorithm, int limit, long windowNanos) {
+        this.algorithm = algorithm;
+        this.limit = limit;
+        this.windowNanos = windowNanos;
+        this.log = new long[algorithm == LimiterAlgorithm.SLIDING_LOG ? Math.min(limit, INITIAL_LOG) : 0];
+        this.tokens = limit;
+    }
+
+    boolean acquire(long now) {
+        return switch (algorithm) {
+            case FIXED_WINDOW -> fixedWindow(now);
+            case SLIDING_LOG -> slidingLog(now);
+            case SLIDING_COUNTER -> slidingCounter(now);
+            case TOKEN_BUCKET -> tokenBucket(now);
+        };
+    }
+
+    // The window opens with its first request, as flask-limiter's does
+    private boolean fixedWindow(long now) {
+        if (windowStart == Long.MIN_VALUE || now - windowStart >= windowNanos) {
+            windowStart = now;
+            count = 0;
+        }
+        boolean admitted = count < limit;
+        if (admitted) count++;
+        remaining = limit - count;
+        nextAdmitNanos = remaining > 0 ? now : windowStart + windowNanos;
+        return admitted;
+    }
+
+    private boolean slidingLog(long now) {
+        while (size > 0 && now - log[head] >= windowNanos) {
+            head = (head + 1) % log.length;
+            size--;
+        }
+        boolean admitted = size < limit;
+        if (admitted) {
+            if (size == log.length) growLog();
+            log[(head + size) % log.length] = now;
+            size++;
+        }
+        remaining = limit - size;
+        nextAdmitNanos = remaining > 0 ? now : log[head] + windowNanos;
+        return admitted;
+    }
+
+    private void growLog() {
+        long[] grown = new long[(int) Math.min(limit, 2L * log.length)];
+        for (int i = 0; i < size; i++) {
+            grown[i] = log[(head + i) % log.length];
+        }
+        log = grown;
+        head = 0;
+    }
+
+    // Windows are aligned to multiples of the window length
+    private boolean slidingCounter(long now) {
+        long start = Math.floorDiv(now, windowNanos) * windowNanos;
+        if (start != windowStart) {
+            previousCount = start - windowStart == windowNanos ? count : 0;
+            windowStart = start;
+            count = 0;
+        }
+        double weight = 1 - (now - start) / (double) windowNanos;
+        boolean admitted = previousCount * weight + count < limit;
+        if (admitted) count++;
+        double estimate = previousCount * weight + count;
+        remaining = Math.max(0, (long) Math.floor(limit - estimate));
+        if (remaining > 0) {
+            nextAdmitNanos = now;
+        } else if (count < limit) {
+            // When the previous window's share has faded enough
+            nextAdmitNanos = start + (long) (windowNanos * (1 - (limit - count) / (double) previousCount));
+        } else {
+            // Next window, once this one's share has faded below the limit
+            nextAdmitNanos = start + windowNanos + (long) (windowNanos * (1 - limit / (double) count));
+        }
+        return admitted;
+    }
+
+    private boolean tokenBucket(long now) {
+        if (refilledAt != Long.MIN_VALUE) {
+            tokens = Math.min(limit, tokens + (now - refilledAt) * (double) limit / windowNanos);
+        }
+        refilledAt = now;
+        boolean admitted = tokens >= 1;
+        if (admitted) tokens--;
+        remaining = (long) tokens;
+        nextAdmitNanos = tokens >= 1 ? now : now + (long) ((1 - tokens) * windowNanos / limit);
+        return admitted;
+    }
+}
@@ -0,0 +1,499 @@
+package ratelimittester;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+// Everything needed to run one test, independent of any front end. The CLI
+// fills it from arguments or a properties file; the GUI from its fields.
+public class TestConfig {
+
+    static final String ENDPOINT_PREFIX = "endpoint.";
+
+    private URI targetUri;
+    private String method = "GET";
+    private int threads = 5;
+    private int requestsPerThread = 100;
+    private int delayMs = 100;
+    private String payload = "";
+    private ExecutionMode executionMode = ExecutionMode.VIRTUAL_THREADS;
+    private TransportMode transportMode = TransportMode.POOLED_HTTP1;
+    private int maxConnections = 64;
+    private LoadModel loadModel = LoadModel.CLOSED_LOOP;
+    private double targetRate = 50;
+    private double rampSeconds = 0;
+    private LoadProfile loadProfile = LoadProfile.STEADY;
+    private int steps = 4;
+    // Seconds per step, and per summary row of a soak
+    private int holdSeconds = 30;
+    private int probeBudget = 500;
+    private double probeRate = 100;
+    private int probeMaxWaitSeconds = 300;
+    private InetAddress sourceAddress;
+    private List<String> agents = List.of();
+    // Empty: taken from AgentProtocol.TOKEN_ENV
+    private String agentToken = "";
+    // Sorted by name; empty for a single-URL run
+    private final List<Endpoint> scenario = new ArrayList<>();
+    private ScenarioOrder scenarioOrder = ScenarioOrder.WEIGHTED;
+    private BodyMode bodyMode = BodyMode.DISCARD;
+    private int bodySampleEvery = 100;
+    private int bodySampleKeep = 10;
+    private int bodySampleBytes = 2048;
+    // Checked against 200 bodies; empty when unset
+    private String bodyContains = "";
+    private String bodyNotContains = "";
+    // Run file every request outcome is written to; null to not record
+    private Path recordPath;
+    // Where live metrics are served during the run; null to not serve them
+    private InetSocketAddress metricsAddress;
+    // API keys or tenant IDs, one per line; null to send no credentials
+    private Path keyFile;
+    // "Name" for the bare key, or "Name: value" with {key} in the value
+    private String keyHeader = "X-API-Key";
+    private KeyAssignment keyAssignment = KeyAssignment.PER_USER;
+    // Uses only the first keys of the file; 0 for all
+    private int keyCount = 0;
+    private LimitBehavior limitBehavior = LimitBehavior.STOP;
+    // Seconds the run lasts; 0 ends it by request count instead
+    private int durationSeconds = 0;
+    private Backoff backoff = Backoff.NONE;
+    private int backoffMs = 1000;
+    private int backoffMaxMs = 30000;
+
+    public static TestConfig fromProperties(Properties props) throws IOException {
+        TestConfig config = new TestConfig();
+        config.apply(props);
+        return config;
+    }
+
+    public static Properties loadProperties(Path file) throws IOException {
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        }
+        return props;
+    }
+
+    void apply(Properties props) throws IOException {
+        for (String key : props.stringPropertyNames()) {
+            set(key, props.getProperty(key).trim());
+        }
+    }
+
+    public void set(String key, String value) throws IOException {
+        try {
+            switch (key) {
+                case "url" -> setTargetUri(parseTargetUri(value));
+                case "method" -> setMethod(value.toUpperCase());
+                case "threads" -> setThreads(Integer.parseInt(value));
+                case "requests" -> setRequestsPerThread(Integer.parseInt(value));
+                case "delay" -> setDelayMs(Integer.parseInt(value));
+                case "payload" -> setPayload(value);
+                case "payload-file" -> setPayload(Files.readString(Path.of(value), StandardCharsets.UTF_8).trim());
+                case "execution" -> setExecutionMode(ExecutionMode.fromLabel(value));
+                case "transport" -> setTransportMode(TransportMode.fromLabel(value));
+                case "max-connections" -> setMaxConnections(Integer.parseInt(value));
+                case "model" -> setLoadModel(LoadModel.fromLabel(value));
+                case "rate" -> setTargetRate(Double.parseDouble(value));
+                case "ramp" -> setRampSeconds(Double.parseDouble(value));
+                case "profile" -> setLoadProfile(LoadProfile.fromLabel(value));
+                case "steps" -> setSteps(Integer.parseInt(value));
+                case "hold" -> setHoldSeconds(Integer.parseInt(value));
+                case "budget" -> setProbeBudget(Integer.parseInt(value));
+                case "probe-rate" -> setProbeRate(Double.parseDouble(value));
+                case "probe-max-wait" -> setProbeMaxWaitSeconds(Integer.parseInt(value));
+                case "agents" -> setAgents(parseAgents(value));
+                case "agent-token" -> setAgentToken(value);
+                case "source-address" -> setSourceAddress(value.isEmpty() ? null : InetAddress.getByName(value));
+                case "scenario" -> setScenarioOrder(ScenarioOrder.fromLabel(value));
+                case "body-mode" -> setBodyMode(BodyMode.fromLabel(value));
+                case "body-sample-every" -> setBodySampleEvery(Integer.parseInt(value));
+                case "body-sample-keep" -> setBodySampleKeep(Integer.parseInt(value));
+                case "body-sample-bytes" -> setBodySampleBytes(Integer.parseInt(value));
+                case "body-contains" -> setBodyContains(value);
+                case "body-not-contains" -> setBodyNotContains(value);
+                case "record" -> setRecordPath(value.isEmpty() ? null : Path.of(value));
+                case "metrics" -> setMetricsAddress(parseMetricsAddress(value));
+                case "keys" -> setKeyFile(value.isEmpty() ? null : Path.of(value));
+                case "key-header" -> setKeyHeader(value);
+                case "key-assign" -> setKeyAssignment(KeyAssignment.fromLabel(value));
+                case "key-count" -> setKeyCount(Integer.parseInt(value));
+                case "on-limit" -> setLimitBehavior(LimitBehavior.fromLabel(value));
+                case "duration" -> setDurationSeconds(Integer.parseInt(value));
+                case "backoff" -> setBackoff(Backoff.fromLabel(value));
+                case "backoff-ms" -> setBackoffMs(Integer.parseInt(value));
+                case "backoff-max-ms" -> setBackoffMaxMs(Integer.parseInt(value));
+                default -> {
+                    if (!key.startsWith(ENDPOINT_PREFIX)) {
+                        throw new IllegalArgumentException("Unknown option: " + key);
+                    }
+                    addEndpoint(Endpoint.parse(key.substring(ENDPOINT_PREFIX.length()), value));
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + key + ": " + value);
+        }
+    }
+
+    // Returns null when the text is not an absolute http(s) URL
+    public static URI parseTargetUri(String url) {
+        if (url == null || url.isEmpty()) return null;
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme();
+            if (uri.getHost() == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+                return null;
+            }
+            return uri;
+        } catch (URISyntaxException ex) {
+            return null;
+        }
+    }
+
+    // "host:port, host:port" to a list; the port defaults on the agent side
+    public static List<String> parseAgents(String text) {
+        List<String> agents = new ArrayList<>();
+        for (String agent : text.split(",")) {
+            if (!agent.isBlank()) {
+                agents.add(agent.trim());
+            }
+        }
+        return agents;
+    }
+
+    // "PORT" on the loopback address or "HOST:PORT"; empty for none. Port 0
+    // picks a free one.
+    public static InetSocketAddress parseMetricsAddress(String text) throws IOException {
+        if (text.isEmpty()) return null;
+        int colon = text.lastIndexOf(':');
+        int port = Integer.parseInt(text.substring(colon + 1));
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Metrics port out of range: " + port);
+        }
+        if (colon < 0) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        }
+        String host = text.substring(0, colon);
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        return new InetSocketAddress(InetAddress.getByName(host), port);
+    }
+
+    // Throws IllegalArgumentException describing the first problem found
+    public void validate() {
+        if (targetUri == null && scenario.isEmpty()) {
+            throw new IllegalArgumentException("Please enter a valid URL.");
+        }
+        if (threads <= 0 || requestsPerThread <= 0 || delayMs < 0 || maxConnections <= 0) {
+            throw new IllegalArgumentException(
+                    "Please enter positive numbers for threads, requests and connections, and non-negative delay.");
+        }
+        if ((loadModel == LoadModel.OPEN_ARRIVAL_RATE && targetRate <= 0) || rampSeconds < 0) {
+            throw new IllegalArgumentException("Please enter a positive target rate and a non-negative ramp-up.");
+        }
+        if (durationSeconds < 0 || backoffMs <= 0 || backoffMaxMs < backoffMs) {
+            throw new IllegalArgumentException(
+                    "Please enter a non-negative duration, and a positive backoff no larger than its maximum.");
+        }
+        if (steps <= 0 || holdSeconds <= 0) {
+            throw new IllegalArgumentException("Please enter a positive number of steps and hold time.");
+        }
+        if (loadProfile == LoadProfile.STEPS && (rampSeconds > 0 || durationSeconds > 0)) {
+            throw new IllegalArgumentException("Steps set their own pace and length: leave the ramp-up and duration at 0.");
+        }
+        if (loadProfile == LoadProfile.SOAK && durationSeconds <= rampSeconds) {
+            throw new IllegalArgumentException("A soak needs a duration longer than its ramp-up.");
+        }
+        if ((loadProfile == LoadProfile.STEPS ? steps
+                : loadProfile == LoadProfile.SOAK ? Math.ceil((durationSeconds - rampSeconds) / holdSeconds) : 1)
+                > LoadStages.MAX_STAGES) {
+            throw new IllegalArgumentException("Please keep to at most " + LoadStages.MAX_STAGES
+                    + " steps or soak rows; raise the hold time.");
+        }
+        if (backoff != Backoff.NONE && limitBehavior != LimitBehavior.CONTINUE) {
+            throw new IllegalArgumentException("Backoff applies only when continuing through 429s.");
+        }
+        if (backoff != Backoff.NONE && loadModel == LoadModel.OPEN_ARRIVAL_RATE) {
+            throw new IllegalArgumentException("Backoff needs the closed loop; the open model keeps its arrival rate.");
+        }
+        if (probeBudget <= 0 || probeRate <= 0 || probeMaxWaitSeconds <= 0) {
+            throw new IllegalArgumentException("Please enter a positive probe budget, probe rate and maximum wait.");
+        }
+        if (executionMode.isAsync() && transportMode == TransportMode.FRESH_CONNECTION) {
+            throw new IllegalArgumentException("Async execution needs a pooled transport.");
+        }
+        if (sourceAddress != null && transportMode == TransportMode.FRESH_CONNECTION) {
+            throw new IllegalArgumentException("A source address needs a pooled transport.");
+        }
+        if (recordPath != null && isDistributed()) {
+            throw new IllegalArgumentException("Run files are recorded by local runs only, not with agents.");
+        }
+        if (metricsAddress != null && isDistributed()) {
+            throw new IllegalArgumentException("Live metrics are served by local runs only, not with agents.");
+        }
+        if (keyFile != null && isDistributed()) {
+            throw new IllegalArgumentException("Key files are read by local runs only, not with agents.");
+        }
+        if (keyCount < 0 || keyCount > CredentialPool.MAX_KEYS) {
+            throw new IllegalArgumentException("Please enter a key count from 0 (all) to " + CredentialPool.MAX_KEYS + ".");
+        }
+        int colon = keyHeader.indexOf(':');
+        String keyHeaderName = (colon < 0 ? keyHeader : keyHeader.substring(0, colon)).trim();
+        if (!keyHeaderName.matches("[!#$%&'*+.^_`|~0-9A-Za-z-]+")
+                || (colon >= 0 && !keyHeader.contains(CredentialPool.KEY_PLACEHOLDER))) {
+            throw new IllegalArgumentException("The key header needs a header name, or \"Name: value\" with "
+                    + CredentialPool.KEY_PLACEHOLDER + " in the value.");
+        }
+        if (CredentialPool.isRestricted(keyHeaderName)) {
+            throw new IllegalArgumentException("The HTTP client does not let " + keyHeaderName + " be set; choose another key header.");
+        }
+        if (colon >= 0 && !CredentialPool.isHeaderValue(keyHeader.substring(colon + 1).trim())) {
+            throw new IllegalArgumentException("The key header value has control or non-Latin-1 characters.");
+        }
+        if (bodySampleEvery <= 0 || bodySampleKeep <= 0 || bodySampleBytes <= 0) {
+            throw new IllegalArgumentException("Please enter positive numbers for the body sampling.");
+        }
+        if (bodySampleKeep > BodyInspector.MAX_SAMPLES_KEPT || bodySampleBytes > BodyInspector.MAX_SAMPLE_BYTES) {
+            throw new IllegalArgumentException("Please keep at most " + BodyInspector.MAX_SAMPLES_KEPT
+                    + " body samples of at most " + BodyInspector.MAX_SAMPLE_BYTES + " bytes each.");
+        }
+        if (bodyMode == BodyMode.DISCARD && (!bodyContains.isEmpty() || !bodyNotContains.isEmpty())) {
+            throw new IllegalArgumentException("Body assertions need a body mode other than Discard.");
+        }
+        if (bodyContains.getBytes(StandardCharsets.UTF_8).length > BodyInspector.MAX_ASSERTION_BYTES
+                || bodyNotContains.getBytes(StandardCharsets.UTF_8).length > BodyInspector.MAX_ASSERTION_BYTES) {
+            throw new IllegalArgumentException("Body assertions are limited to " + BodyInspector.MAX_ASSERTION_BYTES + " bytes.");
+        }
+        // Checked as sent, with the variables filled in
+        for (Endpoint endpoint : endpoints()) {
+            if (endpoint.getWeight() <= 0 || endpoint.getWeight() > Endpoint.MAX_WEIGHT) {
+                throw new IllegalArgumentException("Endpoint " + endpoint.getName() + " needs a weight from 1 to "
+                        + Endpoint.MAX_WEIGHT + ".");
+            }
+            String error = endpoint.hasBody() && !endpoint.getPayload().isEmpty()
+                    ? JsonSupport.validationError(endpoint.compile().preview()) : null;
+            if (error != null) {
+                throw new IllegalArgumentException((scenario.isEmpty() ? "" : "Endpoint " + endpoint.getName() + ": ")
+                        + "Payload must be valid JSON: " + error);
+            }
+        }
+    }
+
+    // The inverse of set(): every option as it would appear in a config file.
+    // The source address, agents and their token, run file, metrics address
+    // and key file are left out; they belong to the machine running the
+    // test, not to the test.
+    public Properties toProperties() {
+        Properties props = new Properties();
+        props.setProperty("url", targetUri == null ? "" : targetUri.toString());
+        props.setProperty("method", method);
+        props.setProperty("threads", Integer.toString(threads));
+        props.setProperty("requests", Integer.toString(requestsPerThread));
+        props.setProperty("delay", Integer.toString(delayMs));
+        props.setProperty("payload", payload);
+        props.setProperty("execution", executionMode.name());
+        props.setProperty("transport", transportMode.name());
+        props.setProperty("max-connections", Integer.toString(maxConnections));
+        props.setProperty("model", loadModel.name());
+        props.setProperty("rate", Double.toString(targetRate));
+        props.setProperty("ramp", Double.toString(rampSeconds));
+        props.setProperty("profile", loadProfile.name());
+        props.setProperty("steps", Integer.toString(steps));
+        props.setProperty("hold", Integer.toString(holdSeconds));
+        props.setProperty("budget", Integer.toString(probeBudget));
+        props.setProperty("probe-rate", Double.toString(probeRate));
+        props.setProperty("probe-max-wait", Integer.toString(probeMaxWaitSeconds));
+        props.setProperty("scenario", scenarioOrder.name());
+        props.setProperty("body-mode", bodyMode.name());
+        props.setProperty("body-sample-every", Integer.toString(bodySampleEvery));
+        props.setProperty("body-sample-keep", Integer.toString(bodySampleKeep));
+        props.setProperty("body-sample-bytes", Integer.toString(bodySampleBytes));
+        props.setProperty("body-contains", bodyContains);
+        props.setProperty("body-not-contains", bodyNotContains);
+        props.setProperty("on-limit", limitBehavior.name());
+        props.setProperty("duration", Integer.toString(durationSeconds));
+        props.setProperty("backoff", backoff.name());
+        props.setProperty("backoff-ms", Integer.toString(backoffMs));
+        props.setProperty("backoff-max-ms", Integer.toString(backoffMaxMs));
+        props.setProperty("key-header", keyHeader);
+        props.setProperty("key-assign", keyAssignment.name());
+        props.setProperty("key-count", Integer.toString(keyCount));
+        for (Endpoint endpoint : scenario) {
+            props.setProperty(ENDPOINT_PREFIX + endpoint.getName(), endpoint.spec());
+        }
+        return props;
+    }
+
+    public boolean hasBody() {
+        return !"GET".equalsIgnoreCase(method);
+    }
+
+    // The endpoints a run sends to: the scenario, or the single URL
+    public List<Endpoint> endpoints() {
+        if (!scenario.isEmpty()) return scenario;
+        return List.of(new Endpoint("default", method, targetUri, payload, 1));
+    }
+
+    // Replaces an endpoint of the same name
+    public void addEndpoint(Endpoint endpoint) {
+        scenario.removeIf(e -> e.getName().equals(endpoint.getName()));
+        scenario.add(endpoint);
+        scenario.sort((a, b) -> a.getName().compareTo(b.getName()));
+    }
+
+    public long totalRequests() {
+        return (long) threads * requestsPerThread;
+    }
+
+    // Seconds a timed run lasts, however many requests that is: the
+    // duration, or every step held once. 0 ends the run by request count.
+    public int runSeconds() {
+        return loadProfile == LoadProfile.STEPS ? steps * holdSeconds : durationSeconds;
+    }
+
+    public boolean isTimed() {
+        return runSeconds() > 0;
+    }
+
+    public boolean continuesThroughLimit() {
+        return limitBehavior == LimitBehavior.CONTINUE;
+    }
+
+    public URI getTargetUri() { return targetUri; }
+    public void setTargetUri(URI targetUri) { this.targetUri = targetUri; }
+
+    public String getMethod() { return method; }
+    public void setMethod(String method) { this.method = method; }
+
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+
+    public int getRequestsPerThread() { return requestsPerThread; }
+    public void setRequestsPerThread(int requestsPerThread) { this.requestsPerThread = requestsPerThread; }
+
+    public int getDelayMs() { return delayMs; }
+    public void setDelayMs(int delayMs) { this.delayMs = delayMs; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload == null ? "" : payload; }
+
+    public ExecutionMode getExecutionMode() { return executionMode; }
+    public void setExecutionMode(ExecutionMode executionMode) { this.executionMode = executionMode; }
+
+    public TransportMode getTransportMode() { return transportMode; }
+    public void setTransportMode(TransportMode transportMode) { this.transportMode = transportMode; }
+
+    public int getMaxConnections() { return maxConnections; }
+    public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+
+    public LoadModel getLoadModel() { return loadModel; }
+    public void setLoadModel(LoadModel loadModel) { this.loadModel = loadModel; }
+
+    public double getTargetRate() { return targetRate; }
+    public void setTargetRate(double targetRate) { this.targetRate = targetRate; }
+
+    public double getRampSeconds() { return rampSeconds; }
+    public void setRampSeconds(double rampSeconds) { this.rampSeconds = rampSeconds; }
+
+    public LoadProfile getLoadProfile() { return loadProfile; }
+    public void setLoadProfile(LoadProfile loadProfile) { this.loadProfile = loadProfile; }
+
+    public int getSteps() { return steps; }
+    public void setSteps(int steps) { this.steps = steps; }
+
+    public int getHoldSeconds() { return holdSeconds; }
+    public void setHoldSeconds(int holdSeconds) { this.holdSeconds = holdSeconds; }
+
+    public int getProbeBudget() { return probeBudget; }
+    public void setProbeBudget(int probeBudget) { this.probeBudget = probeBudget; }
+
+    public double getProbeRate() { return probeRate; }
+    public void setProbeRate(double probeRate) { this.probeRate = probeRate; }
+
+    public int getProbeMaxWaitSeconds() { return probeMaxWaitSeconds; }
+    public void setProbeMaxWaitSeconds(int probeMaxWaitSeconds) { this.probeMaxWaitSeconds = probeMaxWaitSeconds; }
+
+    public InetAddress getSourceAddress() { return sourceAddress; }
+    public void setSourceAddress(InetAddress sourceAddress) { this.sourceAddress = sourceAddress; }
+
+    public List<String> getAgents() { return agents; }
+    public void setAgents(List<String> agents) { this.agents = agents == null ? List.of() : agents; }
+    public boolean isDistributed() { return !agents.isEmpty(); }
+
+    public String getAgentToken() { return agentToken; }
+    public void setAgentToken(String agentToken) { this.agentToken = agentToken == null ? "" : agentToken.trim(); }
+
+    public List<Endpoint> getScenario() { return scenario; }
+    public void setScenario(List<Endpoint> endpoints) {
+        scenario.clear();
+        endpoints.forEach(this::addEndpoint);
+    }
+    public boolean hasScenario() { return !scenario.isEmpty(); }
+
+    public ScenarioOrder getScenarioOrder() { return scenarioOrder; }
+    public void setScenarioOrder(ScenarioOrder scenarioOrder) { this.scenarioOrder = scenarioOrder; }
+
+    public BodyMode getBodyMode() { return bodyMode; }
+    public void setBodyMode(BodyMode bodyMode) { this.bodyMode = bodyMode; }
+
+    public int getBodySampleEvery() { return bodySampleEvery; }
+    public void setBodySampleEvery(int bodySampleEvery) { this.bodySampleEvery = bodySampleEvery; }
+
+    public int getBodySampleKeep() { return bodySampleKeep; }
+    public void setBodySampleKeep(int bodySampleKeep) { this.bodySampleKeep = bodySampleKeep; }
+
+    public int getBodySampleBytes() { return bodySampleBytes; }
+    public void setBodySampleBytes(int bodySampleBytes) { this.bodySampleBytes = bodySampleBytes; }
+
+    public String getBodyContains() { return bodyContains; }
+    public void setBodyContains(String bodyContains) { this.bodyContains = bodyContains == null ? "" : bodyContains; }
+
+    public String getBodyNotContains() { return bodyNotContains; }
+    public void setBodyNotContains(String bodyNotContains) {
+        this.bodyNotContains = bodyNotContains == null ? "" : bodyNotContains;
+    }
+
+    public Path getRecordPath() { return recordPath; }
+    public void setRecordPath(Path recordPath) { this.recordPath = recordPath; }
+
+    public InetSocketAddress getMetricsAddress() { return metricsAddress; }
+    public void setMetricsAddress(InetSocketAddress metricsAddress) { this.metricsAddress = metricsAddress; }
+
+    public Path getKeyFile() { return keyFile; }
+    public void setKeyFile(Path keyFile) { this.keyFile = keyFile; }
+
+    public String getKeyHeader() { return keyHeader; }
+    public void setKeyHeader(String keyHeader) { this.keyHeader = keyHeader; }
+
+    public KeyAssignment getKeyAssignment() { return keyAssignment; }
+    public void setKeyAssignment(KeyAssignment keyAssignment) { this.keyAssignment = keyAssignment; }
+
+    public int getKeyCount() { return keyCount; }
+    public void setKeyCount(int keyCount) { this.keyCount = keyCount; }
+
+    public LimitBehavior getLimitBehavior() { return limitBehavior; }
+    public void setLimitBehavior(LimitBehavior limitBehavior) { this.limitBehavior = limitBehavior; }
+
+    public int getDurationSeconds() { return durationSeconds; }
+    public void setDurationSeconds(int durationSeconds) { this.durationSeconds = durationSeconds; }
+
+    public Backoff getBackoff() { return backoff; }
+    public void setBackoff(Backoff backoff) { this.backoff = backoff; }
+
+    public int getBackoffMs() { return backoffMs; }
+    public void setBackoffMs(int backoffMs) { this.backoffMs = backoffMs; }
+
+    public int getBackoffMaxMs() { return backoffMaxMs; }
+    public void setBackoffMaxMs(int backoffMaxMs) { this.backoffMaxMs = backoffMaxMs; }
+}
@@ -0,0 +1,26 @@
+package ratelimittester;
+
+// Receives output from a running LoadTestEngine. Called from worker threads.
+public interface TestListener {
+
+    // Per-request lines; a front end may drop these under load
+    void onEvent(String line);
+
+    // Status and summary lines that should always be shown
+    void onStatus(String line);
+
+    // The first 429 of the run, before the engine stops its workers (unless
+    // the run continues through 429s)
+    default void onRateLimited() {
+    }
+
+    // Lines waiting to be shown, for a front end that queues them
+    default int queuedLines() {
+        return 0;
+    }
+
+    // Lines the front end gave up on
+    default long droppedLines() {
+        return 0;
+    }
+}
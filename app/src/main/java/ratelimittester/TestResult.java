@@ -0,0 +1,139 @@
+package ratelimittester;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of one engine run, with the Test Summary both front ends print.
+public class TestResult {
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILURE = 1;
+    public static final int EXIT_REQUEST_ERRORS = 2;
+    public static final int EXIT_USAGE = 64;
+
+    private final TestConfig config;
+    private final long successCount;
+    private final long rateLimitedCount;
+    private final long otherErrors;
+    private final LatencyHistogram successLatency;
+    private final LatencyHistogram rateLimitedLatency;
+    private final LatencyHistogram otherLatency;
+    private final double estimatedRpm;
+    private final long durationMs;
+    private final long setupNanos;
+    private final long teardownNanos;
+    private final List<String> scheduleReport;
+    private final List<String> throughputReport;
+    private final List<String> resourceReport;
+    private final List<String> agentReport;
+    private final List<String> endpointReport;
+    private final List<String> bodyReport;
+    private final List<String> limitReport;
+
+    public TestResult(TestConfig config, long successCount, long rateLimitedCount, long otherErrors,
+                      LatencyHistogram successLatency, LatencyHistogram rateLimitedLatency,
+                      LatencyHistogram otherLatency, double estimatedRpm, long durationMs,
+                      long setupNanos, long teardownNanos, List<String> scheduleReport,
+                      List<String> throughputReport, List<String> resourceReport) {
+        this(config, successCount, rateLimitedCount, otherErrors, successLatency, rateLimitedLatency, otherLatency,
+                estimatedRpm, durationMs, setupNanos, teardownNanos, scheduleReport, throughputReport,
+                resourceReport, List.of(), List.of(), List.of(), List.of());
+    }
+
+    // agentReport describes the agents of a distributed run, endpointReport
+    // the request phases and the scenario endpoints and keys of a run,
+    // bodyReport the inspected response bodies, limitReport the phases of a
+    // run that continued through 429s and what the rate limit headers said
+    public TestResult(TestConfig config, long successCount, long rateLimitedCount, long otherErrors,
+                      LatencyHistogram successLatency, LatencyHistogram rateLimitedLatency,
+                      LatencyHistogram otherLatency, double estimatedRpm, long durationMs,
+                      long setupNanos, long teardownNanos, List<String> scheduleReport,
+                      List<String> throughputReport, List<String> resourceReport, List<String> agentReport,
+                      List<String> endpointReport, List<String> bodyReport, List<String> limitReport) {
+        this.config = config;
+        this.successCount = successCount;
+        this.rateLimitedCount = rateLimitedCount;
+        this.otherErrors = otherErrors;
+        this.successLatency = successLatency;
+        this.rateLimitedLatency = rateLimitedLatency;
+        this.otherLatency = otherLatency;
+        this.estimatedRpm = estimatedRpm;
+        this.durationMs = durationMs;
+        this.setupNanos = setupNanos;
+        this.teardownNanos = teardownNanos;
+        this.scheduleReport = scheduleReport;
+        this.throughputReport = throughputReport;
+        this.resourceReport = resourceReport;
+        this.agentReport = agentReport;
+        this.endpointReport = endpointReport;
+        this.bodyReport = bodyReport;
+        this.limitReport = limitReport;
+    }
+
+    public long successCount() { return successCount; }
+    public long rateLimitedCount() { return rateLimitedCount; }
+    public long otherErrors() { return otherErrors; }
+    public LatencyHistogram successLatency() { return successLatency; }
+    public LatencyHistogram rateLimitedLatency() { return rateLimitedLatency; }
+    public LatencyHistogram otherLatency() { return otherLatency; }
+    public double estimatedRpm() { return estimatedRpm; }
+    public long durationMs() { return durationMs; }
+    public long setupNanos() { return setupNanos; }
+    public long teardownNanos() { return teardownNanos; }
+    public List<String> scheduleReport() { return scheduleReport; }
+    public List<String> throughputReport() { return throughputReport; }
+    public List<String> resourceReport() { return resourceReport; }
+    public List<String> endpointReport() { return endpointReport; }
+    public List<String> bodyReport() { return bodyReport; }
+    public List<String> limitReport() { return limitReport; }
+
+    public LatencyHistogram allLatency() {
+        LatencyHistogram all = new LatencyHistogram();
+        all.add(successLatency);
+        all.add(rateLimitedLatency);
+        all.add(otherLatency);
+        return all;
+    }
+
+    // Hitting the rate limit is an expected outcome; failed requests are not
+    public int exitCode() {
+        return otherErrors > 0 ? EXIT_REQUEST_ERRORS : EXIT_OK;
+    }
+
+    public List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("");
+        lines.add("=== Test Summary ===");
+        lines.addAll(agentReport);
+        if (config.isTimed()) {
+            lines.add(String.format("Total Requests Sent (timed run, %d s): %d", config.runSeconds(),
+                    successCount + rateLimitedCount + otherErrors));
+        } else {
+            lines.add("Total Requests Attempted (threads * max requests): " + config.totalRequests());
+        }
+        lines.add("Successful Requests (200): " + successCount);
+        lines.add("Rate Limited Responses (429): " + rateLimitedCount);
+        lines.add("Other Errors: " + otherErrors);
+        lines.add(String.format("Average Latency (%s): %.1f ms", config.getTransportMode(), allLatency().meanNanos() / 1e6));
+        if (config.getLoadModel() == LoadModel.OPEN_ARRIVAL_RATE) {
+            lines.add("Latency (from scheduled send time):");
+        } else if (config.getDelayMs() > 0) {
+            lines.add(String.format("Latency (corrected for coordinated omission at %d ms interval):", config.getDelayMs()));
+        } else {
+            lines.add("Latency:");
+        }
+        lines.add("  200:   " + successLatency.format());
+        lines.add("  429:   " + rateLimitedLatency.format());
+        lines.add("  Other: " + otherLatency.format());
+        lines.addAll(endpointReport);
+        lines.addAll(bodyReport);
+        lines.add(String.format("Estimated Rate Limit: %.2f requests per minute", estimatedRpm));
+        lines.addAll(limitReport);
+        lines.add(String.format("Total Test Duration: %.2f seconds", durationMs / 1000.0));
+        lines.addAll(scheduleReport);
+        lines.addAll(throughputReport);
+        lines.addAll(resourceReport);
+        lines.add(String.format("Engine Overhead: setup %.1f ms, teardown %.1f ms", setupNanos / 1e6, teardownNanos / 1e6));
+        return lines;
+    }
+}
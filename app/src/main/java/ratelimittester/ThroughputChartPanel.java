@@ -0,0 +1,222 @@
+package ratelimittester;
+
+import java.awt.*;
+import javax.swing.*;
+
+// Live chart of requests per second by status class and rolling p50/p99
+// latency. Samples the engine's aggregated counters once per frame, so its
+// cost does not depend on the request rate; workers are never touched.
+public class ThroughputChartPanel extends JPanel {
+
+    private static final int FRAME_MS = 500;
+    // Points kept: ten minutes at two frames per second
+    private static final int MAX_POINTS = 1200;
+    // Latency percentiles cover the last ROLLING_FRAMES frames
+    private static final int ROLLING_FRAMES = 10;
+
+    private static final int SUCCESS = 0;
+    private static final int RATE_LIMITED = 1;
+    private static final int ERRORS = 2;
+    private static final int P50 = 3;
+    private static final int P99 = 4;
+    private static final int SERIES = 5;
+
+    private static final int MARGIN_LEFT = 50;
+    private static final int MARGIN_RIGHT = 10;
+    private static final int MARGIN_TOP = 20;
+    private static final int MARGIN_BOTTOM = 20;
+    private static final int GAP = 30;
+
+    private final Color successColor;
+    private final Color rateLimitedColor;
+    private final Color errorColor;
+    private final Color p50Color = new Color(48, 63, 159);
+    private final Color p99Color = new Color(142, 36, 170);
+
+    private final Timer timer;
+    // Ring of plotted points, SERIES values each
+    private final double[] points = new double[MAX_POINTS * SERIES];
+    private int pointCount;
+    private int firstPoint;
+    private long framesSampled;
+
+    private final long[] lastTotals = new long[TimeSeriesCounters.FIELDS];
+    private long lastSampleNanos;
+    // Cumulative latency snapshots of the last ROLLING_FRAMES + 1 frames
+    private final LatencyHistogram[] snapshots = new LatencyHistogram[ROLLING_FRAMES + 1];
+    private final LatencyHistogram window = new LatencyHistogram();
+    private LoadTestEngine engine;
+
+    public ThroughputChartPanel(Color successColor, Color rateLimitedColor, Color errorColor) {
+        this.successColor = successColor;
+        this.rateLimitedColor = rateLimitedColor;
+        this.errorColor = errorColor;
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = new LatencyHistogram();
+        }
+        setBackground(Color.WHITE);
+        setPreferredSize(new Dimension(380, 300));
+        timer = new Timer(FRAME_MS, e -> sample());
+    }
+
+    // Clears the chart and follows a new run; call on the EDT
+    public void start(LoadTestEngine engine) {
+        this.engine = engine;
+        pointCount = 0;
+        firstPoint = 0;
+        framesSampled = 0;
+        java.util.Arrays.fill(lastTotals, 0);
+        for (LatencyHistogram snapshot : snapshots) {
+            snapshot.reset();
+        }
+        lastSampleNanos = System.nanoTime();
+        timer.start();
+        repaint();
+    }
+
+    // Takes a final sample and freezes the chart; call on the EDT
+    public void stop() {
+        timer.stop();
+        if (engine != null) {
+            sample();
+            engine = null;
+        }
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        double seconds = (now - lastSampleNanos) / 1e9;
+        if (seconds <= 0) return;
+        lastSampleNanos = now;
+
+        TimeSeriesCounters series = engine.timeSeries();
+        long[] delta = new long[ERRORS + 1];
+        for (int field = SUCCESS; field <= ERRORS; field++) {
+            long total = series.total(field);
+            delta[field] = total - lastTotals[field];
+            lastTotals[field] = total;
+        }
+
+        LatencyHistogram current = snapshots[(int) (framesSampled % snapshots.length)];
+        current.reset();
+        engine.latencySnapshotInto(current);
+        window.reset();
+        window.add(current);
+        if (framesSampled >= ROLLING_FRAMES) {
+            window.subtract(snapshots[(int) ((framesSampled - ROLLING_FRAMES) % snapshots.length)]);
+        }
+        framesSampled++;
+
+        int slot = (firstPoint + pointCount) % MAX_POINTS;
+        if (pointCount == MAX_POINTS) {
+            firstPoint = (firstPoint + 1) % MAX_POINTS;
+        } else {
+            pointCount++;
+        }
+        int base = slot * SERIES;
+        points[base + SUCCESS] = delta[SUCCESS] / seconds;
+        points[base + RATE_LIMITED] = delta[RATE_LIMITED] / seconds;
+        points[base + ERRORS] = delta[ERRORS] / seconds;
+        points[base + P50] = window.valueAtPercentile(50) / 1e6;
+        points[base + P99] = window.valueAtPercentile(99) / 1e6;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setFont(g2.getFont().deriveFont(10f));
+
+        Insets insets = getInsets();
+        g2.translate(insets.left, insets.top);
+        int plotHeight = (getHeight() - insets.top - insets.bottom - 2 * (MARGIN_TOP + MARGIN_BOTTOM) - GAP) / 2;
+        int plotWidth = getWidth() - insets.left - insets.right - MARGIN_LEFT - MARGIN_RIGHT;
+        if (plotHeight <= 0 || plotWidth <= 0) {
+            g2.dispose();
+            return;
+        }
+        int throughputTop = MARGIN_TOP;
+        int latencyTop = MARGIN_TOP + plotHeight + MARGIN_BOTTOM + GAP + MARGIN_TOP;
+
+        drawPlot(g2, throughputTop, plotWidth, plotHeight, "req/s",
+                new int[]{SUCCESS, RATE_LIMITED, ERRORS},
+                new Color[]{successColor, rateLimitedColor, errorColor},
+                new String[]{"200", "429", "other"});
+        drawPlot(g2, latencyTop, plotWidth, plotHeight, "ms",
+                new int[]{P50, P99},
+                new Color[]{p50Color, p99Color},
+                new String[]{"p50", "p99"});
+        g2.dispose();
+    }
+
+    private void drawPlot(Graphics2D g2, int top, int width, int height, String unit,
+                          int[] series, Color[] colors, String[] names) {
+        double max = 0;
+        for (int i = 0; i < pointCount; i++) {
+            int base = ((firstPoint + i) % MAX_POINTS) * SERIES;
+            for (int s : series) {
+                max = Math.max(max, points[base + s]);
+            }
+        }
+        max = niceCeiling(max);
+
+        g2.setColor(new Color(235, 235, 235));
+        for (int i = 1; i <= 4; i++) {
+            int y = top + height - height * i / 4;
+            g2.drawLine(MARGIN_LEFT, y, MARGIN_LEFT + width, y);
+        }
+        g2.setColor(Color.GRAY);
+        g2.drawRect(MARGIN_LEFT, top, width, height);
+        FontMetrics fm = g2.getFontMetrics();
+        for (int i = 0; i <= 4; i++) {
+            String label = formatValue(max * i / 4);
+            int y = top + height - height * i / 4;
+            g2.drawString(label, MARGIN_LEFT - 4 - fm.stringWidth(label), y + fm.getAscent() / 2);
+        }
+        g2.drawString(unit, 4, top - 6);
+        double spanSeconds = Math.max(1, pointCount - 1) * FRAME_MS / 1000.0;
+        String span = String.format("last %.0f s", spanSeconds);
+        g2.drawString(span, MARGIN_LEFT + width - fm.stringWidth(span), top + height + fm.getAscent() + 2);
+
+        int legendX = MARGIN_LEFT;
+        for (int k = 0; k < series.length; k++) {
+            g2.setColor(colors[k]);
+            g2.fillRect(legendX, top - 12, 10, 8);
+            g2.setColor(Color.DARK_GRAY);
+            g2.drawString(names[k], legendX + 13, top - 4);
+            legendX += 20 + fm.stringWidth(names[k]);
+        }
+
+        if (pointCount < 2 || max <= 0) return;
+        int[] xs = new int[pointCount];
+        int[] ys = new int[pointCount];
+        g2.setStroke(new BasicStroke(1.5f));
+        for (int k = 0; k < series.length; k++) {
+            for (int i = 0; i < pointCount; i++) {
+                double value = points[((firstPoint + i) % MAX_POINTS) * SERIES + series[k]];
+                xs[i] = MARGIN_LEFT + (int) ((long) width * i / (pointCount - 1));
+                ys[i] = top + height - (int) Math.round(height * value / max);
+            }
+            g2.setColor(colors[k]);
+            g2.drawPolyline(xs, ys, pointCount);
+        }
+    }
+
+    // Rounds up to 1, 2 or 5 times a power of ten
+    private static double niceCeiling(double value) {
+        if (value <= 0) return 1;
+        double magnitude = Math.pow(10, Math.floor(Math.log10(value)));
+        for (double step : new double[]{1, 2, 5, 10}) {
+            if (value <= step * magnitude) return step * magnitude;
+        }
+        return 10 * magnitude;
+    }
+
+    private static String formatValue(double value) {
+        if (value >= 1000) return String.format(value % 1000 == 0 ? "%.0fk" : "%.1fk", value / 1000);
+        if (value >= 10 || value == 0) return String.format("%.0f", value);
+        return String.format(value >= 1 ? "%.1f" : "%.2f", value);
+    }
+}
@@ -0,0 +1,193 @@
+package ratelimittester;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Per-second counts of successes, 429s and errors plus latency sums, in
+// constant memory and without a global lock on the hot path. Writers add to
+// a small ring of recent seconds in a stripe picked by thread id; a harvester
+// thread folds each second into a fixed-length history once no writer can
+// still be adding to it, then clears the slot for reuse.
+public class TimeSeriesCounters {
+
+    public static final int SUCCESS = 0;
+    public static final int RATE_LIMITED = 1;
+    public static final int ERRORS = 2;
+    public static final int LATENCY_COUNT = 3;
+    public static final int LATENCY_SUM_NANOS = 4;
+    static final int FIELDS = 5;
+
+    // Seconds kept live per stripe; a second is harvested HARVEST_DELAY
+    // seconds after it ends
+    private static final int LIVE_SECONDS = 8;
+    private static final int HARVEST_DELAY = 2;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+    private final int historySeconds;
+    private final long[] history;
+    private final long[] totals = new long[FIELDS];
+    private volatile long startNanos;
+    // Next second to harvest; written only by the harvester
+    private long nextHarvest;
+    private Thread harvester;
+
+    public TimeSeriesCounters(int historySeconds) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(LIVE_SECONDS * FIELDS);
+        }
+        stripeMask = stripeCount - 1;
+        this.historySeconds = historySeconds;
+        this.history = new long[historySeconds * FIELDS];
+    }
+
+    public void start() {
+        startNanos = System.nanoTime();
+        harvester = new Thread(this::harvestLoop, "time-series-harvester");
+        harvester.setDaemon(true);
+        harvester.start();
+    }
+
+    // Stops the harvester and folds in every remaining second
+    public void stop() {
+        if (harvester != null) {
+            harvester.interrupt();
+            try {
+                harvester.join(1000);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            harvestThrough(currentSecond());
+        }
+    }
+
+    // statusCode < 0 records a request that failed without a response
+    public void record(int statusCode, long latencyNanos) {
+        long now = System.nanoTime();
+        int base = (int) (((now - startNanos) / NANOS_PER_SECOND) % LIVE_SECONDS) * FIELDS;
+        AtomicLongArray stripe = stripes[(int) (Thread.currentThread().threadId() & stripeMask)];
+        stripe.getAndIncrement(base + (statusCode == 200 ? SUCCESS : statusCode == 429 ? RATE_LIMITED : ERRORS));
+        if (statusCode > 0) {
+            stripe.getAndIncrement(base + LATENCY_COUNT);
+            stripe.getAndAdd(base + LATENCY_SUM_NANOS, latencyNanos);
+        }
+    }
+
+    public long currentSecond() {
+        return (System.nanoTime() - startNanos) / NANOS_PER_SECOND;
+    }
+
+    // Everything recorded so far for one field, including seconds not yet
+    // harvested. Reads without blocking writers.
+    public synchronized long total(int field) {
+        long sum = totals[field];
+        long current = currentSecond();
+        for (long second = nextHarvest; second <= current && second < nextHarvest + LIVE_SECONDS; second++) {
+            int base = (int) (second % LIVE_SECONDS) * FIELDS;
+            for (AtomicLongArray stripe : stripes) {
+                sum += stripe.get(base + field);
+            }
+        }
+        return sum;
+    }
+
+    // Copies harvested seconds [from, to) into target as consecutive rows of
+    // FIELDS values and returns how many rows were copied. Seconds that have
+    // fallen out of the history are skipped.
+    public synchronized int copyHistory(long from, long to, long[] target) {
+        long first = Math.max(from, Math.max(0, nextHarvest - historySeconds));
+        long last = Math.min(to, nextHarvest);
+        int rows = 0;
+        for (long second = first; second < last && (rows + 1) * FIELDS <= target.length; second++, rows++) {
+            System.arraycopy(history, (int) (second % historySeconds) * FIELDS, target, rows * FIELDS, FIELDS);
+        }
+        return rows;
+    }
+
+    // Adds one already harvested row, e.g. from another process, as if it had
+    // been recorded here. Only for instances that are never started.
+    synchronized void addHarvested(long second, long[] values, int offset) {
+        if (second < nextHarvest - historySeconds) return;
+        for (; nextHarvest <= second; nextHarvest++) {
+            java.util.Arrays.fill(history, (int) (nextHarvest % historySeconds) * FIELDS,
+                    (int) (nextHarvest % historySeconds) * FIELDS + FIELDS, 0);
+        }
+        int row = (int) (second % historySeconds) * FIELDS;
+        for (int field = 0; field < FIELDS; field++) {
+            history[row + field] += values[offset + field];
+            totals[field] += values[offset + field];
+        }
+    }
+
+    // Last fully harvested second, or -1 before the first one
+    public synchronized long lastHarvestedSecond() {
+        return nextHarvest - 1;
+    }
+
+    public int historySeconds() {
+        return historySeconds;
+    }
+
+    // Peak and mean per-second throughput over the harvested history
+    public synchronized List<String> report() {
+        List<String> lines = new ArrayList<>();
+        long first = Math.max(0, nextHarvest - historySeconds);
+        long peakSecond = -1;
+        long peak = 0;
+        long requests = 0;
+        for (long second = first; second < nextHarvest; second++) {
+            int row = (int) (second % historySeconds) * FIELDS;
+            long perSecond = history[row + SUCCESS] + history[row + RATE_LIMITED] + history[row + ERRORS];
+            requests += perSecond;
+            if (perSecond > peak) {
+                peak = perSecond;
+                peakSecond = second;
+            }
+        }
+        if (peakSecond < 0) {
+            return lines;
+        }
+        int row = (int) (peakSecond % historySeconds) * FIELDS;
+        lines.add(String.format("Peak Throughput: %d req/s at t=%ds (200=%d 429=%d other=%d)", peak, peakSecond,
+                history[row + SUCCESS], history[row + RATE_LIMITED], history[row + ERRORS]));
+        lines.add(String.format("Mean Throughput: %.1f req/s over %d s", requests / (double) (nextHarvest - first),
+                nextHarvest - first));
+        return lines;
+    }
+
+    private void harvestLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long nextTick = startNanos + (currentSecond() + 1) * NANOS_PER_SECOND;
+            try {
+                Thread.sleep(Math.max(1, (nextTick - System.nanoTime()) / 1_000_000L));
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                harvestThrough(currentSecond() - HARVEST_DELAY);
+            }
+        }
+    }
+
+    // Caller holds the lock
+    private void harvestThrough(long lastSecond) {
+        for (; nextHarvest <= lastSecond; nextHarvest++) {
+            int base = (int) (nextHarvest % LIVE_SECONDS) * FIELDS;
+            int row = (int) (nextHarvest % historySeconds) * FIELDS;
+            for (int field = 0; field < FIELDS; field++) {
+                long sum = 0;
+                for (AtomicLongArray stripe : stripes) {
+                    sum += stripe.getAndSet(base + field, 0);
+                }
+                history[row + field] = sum;
+                totals[field] += sum;
+            }
+        }
+    }
+}
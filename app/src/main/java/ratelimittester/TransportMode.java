@@ -0,0 +1,28 @@
+package ratelimittester;
+
+// How requests are carried to the server.
+public enum TransportMode {
+    POOLED_HTTP1("Pooled HTTP/1.1 keep-alive"),
+    POOLED_HTTP2("Pooled HTTP/2 multiplexed"),
+    FRESH_CONNECTION("Fresh connection per request");
+
+    private final String label;
+
+    TransportMode(String label) {
+        this.label = label;
+    }
+
+    public static TransportMode fromLabel(String label) {
+        for (TransportMode mode : values()) {
+            if (mode.label.equalsIgnoreCase(label) || mode.name().equalsIgnoreCase(label)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transport: " + label);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,13 @@
+package ratelimittester;
+
+// What a transport hands back to the worker once the exchange is complete.
+// bodyError is set when the body was inspected and failed an assertion;
+// bodyBytes is the size of the response body, -1 when not known; phases
+// is how long each part of the exchange took, null when not timed.
+public record TransportResponse(int statusCode, RateLimitHeaders rateLimit, String bodyError, long bodyBytes,
+                                PhaseTimes phases) {
+
+    public TransportResponse(int statusCode, RateLimitHeaders rateLimit) {
+        this(statusCode, rateLimit, null, -1, null);
+    }
+}
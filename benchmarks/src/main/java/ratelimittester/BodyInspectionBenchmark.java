@@ -0,0 +1,90 @@
+package ratelimittester;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// What each BodyMode costs per response body, without any network I/O. The
+// body arrives in 16 KB chunks, as the HTTP client hands it over; discard is
+// the baseline of touching nothing.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BodyInspectionBenchmark {
+
+    private static final int CHUNK = 16 * 1024;
+
+    @Param({"DISCARD", "CHECKSUM", "SAMPLE"})
+    public String mode;
+
+    @Param({"1024", "65536"})
+    public int size;
+
+    private ByteBuffer[] chunks;
+    private BodyInspector inspector;
+    private BodyInspector asserting;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder("{\"items\":[");
+        for (int i = 0; sb.length() < size - 32; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":").append(i).append(",\"name\":\"item ").append(i).append("\"}");
+        }
+        byte[] body = sb.append("],\"status\":\"ok\"}").toString().getBytes(StandardCharsets.UTF_8);
+        chunks = new ByteBuffer[(body.length + CHUNK - 1) / CHUNK];
+        for (int i = 0; i < chunks.length; i++) {
+            int from = i * CHUNK;
+            chunks[i] = ByteBuffer.wrap(body, from, Math.min(CHUNK, body.length - from)).slice();
+        }
+
+        TestConfig config = new TestConfig();
+        config.setBodyMode(BodyMode.fromLabel(mode));
+        inspector = new BodyInspector(config);
+        if (!inspector.discards()) {
+            config.setBodyContains("\"status\":\"ok\"");
+            config.setBodyNotContains("\"error\"");
+        }
+        asserting = new BodyInspector(config);
+    }
+
+    @Benchmark
+    public Object inspect(Blackhole bh) {
+        return scan(inspector, bh);
+    }
+
+    // The same with a must-contain and a must-not-contain check on every byte
+    @Benchmark
+    public Object inspectWithAssertions(Blackhole bh) {
+        return scan(asserting, bh);
+    }
+
+    private Object scan(BodyInspector inspector, Blackhole bh) {
+        if (inspector.discards()) {
+            for (ByteBuffer chunk : chunks) {
+                bh.consume(chunk);
+            }
+            return null;
+        }
+        BodyInspector.Scan scan = inspector.begin(200);
+        for (ByteBuffer chunk : chunks) {
+            scan.update(chunk);
+        }
+        return scan.finish();
+    }
+}
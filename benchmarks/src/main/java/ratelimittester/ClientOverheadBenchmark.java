@@ -0,0 +1,148 @@
+package ratelimittester;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The client-side steps of one request, each without any network I/O.
+// RequestPathBenchmark shows how they add up against a real round trip.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClientOverheadBenchmark {
+
+    private static final String SMALL_JSON = "{\"user\":\"bench\",\"message\":\"hello\",\"count\":\"42\"}";
+
+    private String largeJson;
+    private String nestedJson;
+    private String rawText;
+    private RequestTemplate staticRequest;
+    private RequestTemplate variableRequest;
+    private byte[] variableBody;
+    private PooledHttpTransport transport;
+    private LatencyRecorder recorder;
+    private TimeSeriesCounters timeSeries;
+    private LogRingBuffer events;
+    private StringBuilder drained;
+    private long[] latencies;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < 100; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("\"field").append(i).append("\":\"value number ").append(i).append('"');
+        }
+        largeJson = sb.append('}').toString();
+        // About 8 KB of the kind of body real APIs take: nested objects,
+        // arrays, numbers, literals and URLs in values
+        sb = new StringBuilder("{\"order\":{\"id\":\"A-1001\",\"items\":[");
+        for (int i = 0; i < 60; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"sku\":\"SKU-").append(i).append("\",\"qty\":").append(i % 5 + 1)
+                    .append(",\"price\":").append(9.99 + i).append(",\"gift\":").append(i % 7 == 0)
+                    .append(",\"url\":\"https://shop.example.com/p/").append(i).append("?ref=a,b:c\"}");
+        }
+        nestedJson = sb.append("],\"note\":null}}").toString();
+        rawText = "line one\n\"quoted\"\tand a backslash \\ at the end\r\n";
+
+        URI uri = URI.create("http://127.0.0.1:8080/test");
+        staticRequest = RequestTemplate.compile("POST", uri, SMALL_JSON);
+        variableRequest = RequestTemplate.compile("POST", uri,
+                "{\"id\":\"${random}\",\"seq\":\"${counter}\",\"at\":\"${timestamp}\"}");
+        variableBody = variableRequest.newBody();
+        transport = new PooledHttpTransport(false, 64);
+
+        recorder = new LatencyRecorder();
+        timeSeries = new TimeSeriesCounters(60);
+        timeSeries.start();
+        events = new LogRingBuffer(16384);
+        drained = new StringBuilder();
+
+        // Spread over several histogram buckets, as real latencies are
+        latencies = new long[1024];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = 200_000L + (i * 7919L % 1024) * 10_000L;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        timeSeries.stop();
+        transport.close();
+    }
+
+    // Prebuilt once, then reused
+    @Benchmark
+    public HttpRequest buildRequest() {
+        return transport.buildRequest(staticRequest, staticRequest.newBody());
+    }
+
+    @Benchmark
+    public HttpRequest buildVariableRequest() {
+        return transport.buildRequest(variableRequest, variableRequest.render(variableBody));
+    }
+
+    @Benchmark
+    public byte[] renderPayload() {
+        return variableRequest.render(variableBody);
+    }
+
+    @Benchmark
+    public void recordResult() {
+        long nanos = latencies[next++ & (latencies.length - 1)];
+        recorder.record(nanos, 0);
+        timeSeries.record(200, nanos);
+    }
+
+    // Formats the per-request line the way RequestWorker does, queues it and
+    // drains it again as the log consumer would
+    @Benchmark
+    public int logEvent() {
+        double millis = latencies[next++ & (latencies.length - 1)] / 1e6;
+        events.offer(String.format("[✓] %s - 200 OK (%.1f ms)\n", "User-1", millis));
+        drained.setLength(0);
+        return events.drainTo(drained, 1);
+    }
+
+    @Benchmark
+    public boolean isValidJsonSmall() {
+        return JsonSupport.isValidJson(SMALL_JSON);
+    }
+
+    @Benchmark
+    public boolean isValidJsonLarge() {
+        return JsonSupport.isValidJson(largeJson);
+    }
+
+    @Benchmark
+    public boolean isValidJsonNested() {
+        return JsonSupport.isValidJson(nestedJson);
+    }
+
+    // Editor round trip: members in, JSON text out
+    @Benchmark
+    public String jsonRoundTripNested() {
+        return JsonSupport.toJson(JsonSupport.members(nestedJson));
+    }
+
+    @Benchmark
+    public String escapeJson() {
+        return JsonSupport.escapeJson(rawText);
+    }
+}
@@ -0,0 +1,121 @@
+package ratelimittester;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One request against the in-process stub, first through the transport
+// alone and then through RequestWorker.sendRequest with latency recording,
+// time-series counting and the per-request log line. The difference between
+// the two is what the tool adds to every measured latency. Failed requests
+// are counted rather than thrown in both, as the engine does; the JDK stub
+// occasionally resets fresh connections after a POST.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestPathBenchmark {
+
+    @Param({"POOLED_HTTP1", "FRESH_CONNECTION"})
+    public TransportMode transport;
+
+    @Param({"GET", "POST"})
+    public String method;
+
+    private BenchmarkStubServer server;
+    private TestConfig config;
+    private HttpTransport httpTransport;
+    private LoadTestEngine engine;
+    private LoadTestEngine.RequestWorker worker;
+    private RequestTemplate request;
+    private byte[] body;
+    private LogRingBuffer events;
+    private Thread drainer;
+    private long transportErrors;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new BenchmarkStubServer();
+        config = new TestConfig();
+        config.setTargetUri(server.uri());
+        config.setMethod(method);
+        config.setPayload("{\"user\":\"bench\",\"message\":\"hello\",\"count\":\"42\"}");
+        config.setDelayMs(0);
+        httpTransport = HttpTransport.create(transport, config.getMaxConnections());
+
+        // Drained off-thread like the GUI and CLI do, so offers see a ring
+        // with room instead of the cheaper drop path
+        events = new LogRingBuffer(16384);
+        drainer = new Thread(() -> {
+            StringBuilder sink = new StringBuilder();
+            while (!Thread.currentThread().isInterrupted()) {
+                sink.setLength(0);
+                events.drainTo(sink, events.capacity());
+                try {
+                    Thread.sleep(75);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "bench-log-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+
+        engine = new LoadTestEngine(config, new TestListener() {
+            @Override
+            public void onEvent(String line) {
+                events.offer(line);
+            }
+
+            @Override
+            public void onStatus(String line) {
+            }
+        });
+        engine.timeSeries().start();
+        request = config.endpoints().get(0).compile();
+        body = request.newBody();
+        worker = engine.new RequestWorker(1, httpTransport, Integer.MAX_VALUE, 0, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        engine.timeSeries().stop();
+        if (transportErrors > 0 || engine.otherErrors() > 0) {
+            System.out.printf("%nFailed requests: transportOnly %d, sendRequest %d%n",
+                    transportErrors, engine.otherErrors());
+        }
+        drainer.interrupt();
+        drainer.join();
+        httpTransport.close();
+        server.close();
+    }
+
+    @Benchmark
+    public TransportResponse transportOnly() throws InterruptedException {
+        try {
+            return httpTransport.send(request, request.render(body));
+        } catch (IOException e) {
+            transportErrors++;
+            return null;
+        }
+    }
+
+    @Benchmark
+    public boolean sendRequest() {
+        return worker.sendRequest(0, 0);
+    }
+}